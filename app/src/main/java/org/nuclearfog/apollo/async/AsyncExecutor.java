@@ -3,6 +3,7 @@ package org.nuclearfog.apollo.async;
 import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -13,15 +14,17 @@ import org.nuclearfog.apollo.BuildConfig;
 
 import java.lang.ref.WeakReference;
 import java.util.Queue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Executor implementation used to run tasks asynchronously
+ * Queued tasks are started by their {@link Priority}, tasks with the same priority are started in order.
  *
  * @author nuclearfog
  */
@@ -42,7 +45,17 @@ public abstract class AsyncExecutor<Parameter, Result> {
 	/**
 	 * thread pool executor
 	 */
-	private static final ExecutorService THREAD_POOL = new ThreadPoolExecutor(N_THREAD, N_THREAD, P_TIMEOUT, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+	private static final ThreadPoolExecutor THREAD_POOL = new ThreadPoolExecutor(N_THREAD, N_THREAD, P_TIMEOUT, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>());
+
+	/**
+	 * queue statistics of each priority
+	 */
+	private static final Lane[] LANES = {new Lane(), new Lane(), new Lane(), new Lane()};
+
+	/**
+	 * used to start tasks with the same priority in order
+	 */
+	private static final AtomicLong SEQUENCE = new AtomicLong();
 
 	/**
 	 * handler used to send result back to activity/fragment
@@ -52,15 +65,30 @@ public abstract class AsyncExecutor<Parameter, Result> {
 	/**
 	 * contains all tasks used by an instance
 	 */
-	private Queue<Future<?>> futureTasks = new LinkedBlockingQueue<>();
+	private Queue<Task> futureTasks = new LinkedBlockingQueue<>();
 
 	private WeakReference<Context> mContext;
 
+	private Priority priority;
+
 	/**
-	 *
+	 * incremented after cancelling tasks to discard results of cancelled tasks
+	 */
+	private volatile int generation = 0;
+
+	/**
+	 * create an executor for tasks loading visible content
 	 */
 	protected AsyncExecutor(@Nullable Context context) {
+		this(context, Priority.VISIBLE);
+	}
+
+	/**
+	 * @param priority priority of the tasks started by this executor
+	 */
+	protected AsyncExecutor(@Nullable Context context, Priority priority) {
 		mContext = new WeakReference<>(context);
+		this.priority = priority;
 	}
 
 	/**
@@ -71,22 +99,31 @@ public abstract class AsyncExecutor<Parameter, Result> {
 	 */
 	public final void execute(final Parameter parameter, @Nullable AsyncCallback<Result> callback) {
 		final WeakReference<AsyncCallback<Result>> callbackReference = new WeakReference<>(callback);
-		try {
-			Future<?> future = THREAD_POOL.submit(new Runnable() {
-				@Override
-				public void run() {
-					try {
-						Result result = doInBackground(parameter);
-						onPostExecute(result, callbackReference);
-					} catch (RuntimeException exception) {
-						if (BuildConfig.DEBUG) {
-							exception.printStackTrace();
-						}
+		final boolean hasCallback = callback != null;
+		final int taskGeneration = generation;
+		Task task = new Task(priority, futureTasks, new Runnable() {
+			@Override
+			public void run() {
+				// drop task if cancelled or if there is no receiver for the result
+				if (taskGeneration != generation || (hasCallback && callbackReference.get() == null))
+					return;
+				try {
+					Result result = doInBackground(parameter);
+					onPostExecute(result, callbackReference, taskGeneration);
+				} catch (RuntimeException exception) {
+					if (BuildConfig.DEBUG) {
+						exception.printStackTrace();
 					}
 				}
-			});
-			futureTasks.add(future);
+			}
+		});
+		try {
+			futureTasks.add(task);
+			task.enqueue();
+			THREAD_POOL.execute(task);
 		} catch (RejectedExecutionException exception) {
+			futureTasks.remove(task);
+			task.dequeue();
 			Log.e(TAG, "failed to submit task");
 			if (BuildConfig.DEBUG) {
 				exception.printStackTrace();
@@ -96,14 +133,51 @@ public abstract class AsyncExecutor<Parameter, Result> {
 
 	/**
 	 * send signal to the tasks executed by this instance
+	 * results of these tasks are discarded
 	 */
 	public final void cancel() {
-		while (!futureTasks.isEmpty()) {
-			Future<?> future = futureTasks.remove();
-			future.cancel(true);
+		generation++;
+		Task task;
+		// finished tasks remove themselves from the queue on the pool threads
+		while ((task = futureTasks.poll()) != null) {
+			task.cancel(true);
+			// remove waiting task from queue
+			if (THREAD_POOL.remove(task)) {
+				task.dequeue();
+			}
 		}
 	}
 
+	/**
+	 * get the number of waiting tasks
+	 *
+	 * @param priority priority of the tasks
+	 * @return number of tasks
+	 */
+	public static int getQueueSize(Priority priority) {
+		return LANES[priority.ordinal()].getSize();
+	}
+
+	/**
+	 * get the average time tasks waited before running
+	 *
+	 * @param priority priority of the tasks
+	 * @return time in milliseconds
+	 */
+	public static long getWaitTime(Priority priority) {
+		return LANES[priority.ordinal()].getWaitTime();
+	}
+
+	/**
+	 * get the longest time a task waited before running
+	 *
+	 * @param priority priority of the tasks
+	 * @return time in milliseconds
+	 */
+	public static long getMaxWaitTime(Priority priority) {
+		return LANES[priority.ordinal()].getMaxWaitTime();
+	}
+
 	@Nullable
 	protected Context getContext() {
 		return mContext.get();
@@ -112,16 +186,15 @@ public abstract class AsyncExecutor<Parameter, Result> {
 	/**
 	 * send result to main thread
 	 *
-	 * @param result result of the background task
+	 * @param result         result of the background task
+	 * @param taskGeneration value of {@link #generation} when the task was started
 	 */
-	private synchronized void onPostExecute(@Nullable final Result result, WeakReference<AsyncCallback<Result>> callbackReference) {
+	private synchronized void onPostExecute(@Nullable final Result result, WeakReference<AsyncCallback<Result>> callbackReference, final int taskGeneration) {
 		uiHandler.post(new Runnable() {
 			@Override
 			public void run() {
-				if (!futureTasks.isEmpty())
-					futureTasks.remove();
 				AsyncCallback<Result> reference = callbackReference.get();
-				if (reference != null && result != null) {
+				if (reference != null && result != null && taskGeneration == generation) {
 					reference.onResult(result);
 				}
 			}
@@ -147,4 +220,145 @@ public abstract class AsyncExecutor<Parameter, Result> {
 		 */
 		void onResult(@NonNull Result result);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Priority of the tasks of an executor, from highest to lowest
+	 */
+	public enum Priority {
+
+		/**
+		 * loading content currently shown to the user
+		 */
+		VISIBLE,
+
+		/**
+		 * action started by the user
+		 */
+		USER,
+
+		/**
+		 * loading images from cache or storage
+		 */
+		IMAGE,
+
+		/**
+		 * downloading content from the network
+		 */
+		NETWORK
+	}
+
+	/**
+	 * Task sorted by priority and by the order tasks were started
+	 */
+	private static final class Task extends FutureTask<Void> implements Comparable<Task> {
+
+		private Priority priority;
+		private long sequence;
+
+		/**
+		 * tasks of the executor, the task is removed after finishing
+		 */
+		private Queue<Task> tasks;
+
+		/**
+		 * time when the task was added to the queue
+		 */
+		private long queueTime;
+
+		/**
+		 * true while the task is waiting in the queue
+		 */
+		private boolean queued = false;
+
+		/**
+		 * @param priority priority of the task
+		 * @param tasks    tasks of the executor
+		 * @param runnable runnable to execute
+		 */
+		Task(Priority priority, Queue<Task> tasks, Runnable runnable) {
+			super(runnable, null);
+			this.priority = priority;
+			this.tasks = tasks;
+			sequence = SEQUENCE.getAndIncrement();
+		}
+
+		@Override
+		public void run() {
+			dequeue();
+			super.run();
+		}
+
+		@Override
+		protected void done() {
+			tasks.remove(this);
+		}
+
+		@Override
+		public int compareTo(Task task) {
+			if (priority != task.priority)
+				return priority.compareTo(task.priority);
+			return Long.compare(sequence, task.sequence);
+		}
+
+		/**
+		 * mark task as waiting in the queue
+		 */
+		synchronized void enqueue() {
+			queued = true;
+			queueTime = SystemClock.elapsedRealtime();
+			LANES[priority.ordinal()].add();
+		}
+
+		/**
+		 * mark task as removed from the queue
+		 */
+		synchronized void dequeue() {
+			if (queued) {
+				queued = false;
+				LANES[priority.ordinal()].remove(SystemClock.elapsedRealtime() - queueTime);
+			}
+		}
+	}
+
+	/**
+	 * queue statistics of a priority
+	 */
+	private static final class Lane {
+
+		private int size = 0;
+		private int count = 0;
+		private long waitTime = 0;
+		private long maxWaitTime = 0;
+
+		/**
+		 * called after a task was added to the queue
+		 */
+		synchronized void add() {
+			size++;
+		}
+
+		/**
+		 * called after a task was removed from the queue
+		 *
+		 * @param time time the task was waiting in the queue
+		 */
+		synchronized void remove(long time) {
+			size--;
+			count++;
+			waitTime += time;
+			maxWaitTime = Math.max(maxWaitTime, time);
+		}
+
+		synchronized int getSize() {
+			return size;
+		}
+
+		synchronized long getWaitTime() {
+			return count > 0 ? waitTime / count : 0;
+		}
+
+		synchronized long getMaxWaitTime() {
+			return maxWaitTime;
+		}
+	}
+}
@@ -16,6 +16,7 @@ import android.database.Cursor;
 import android.util.Log;
 
 import org.nuclearfog.apollo.async.AsyncExecutor;
+import org.nuclearfog.apollo.cache.MetadataCache;
 import org.nuclearfog.apollo.model.Song;
 import org.nuclearfog.apollo.utils.CursorFactory;
 
@@ -45,6 +46,11 @@ public class ArtistSongLoader extends AsyncExecutor<Long, List<Song>> {
 		List<Song> result = new LinkedList<>();
 		Context context = getContext();
 		if (context != null && param != null) {
+			MetadataCache cache = MetadataCache.getInstance(context);
+			List<Song> cached = cache.getSongs(TAG, param.toString());
+			if (cached != null)
+				return cached;
+			int version = cache.getVersion();
 			try {
 				// Create the Cursor
 				Cursor mCursor = CursorFactory.makeArtistSongCursor(context, param);
@@ -70,6 +76,7 @@ public class ArtistSongLoader extends AsyncExecutor<Long, List<Song>> {
 					}
 					mCursor.close();
 				}
+				cache.putSongs(TAG, param.toString(), version, result);
 			} catch (Exception exception) {
 				Log.e(TAG, "error loading songs from artist", exception);
 			}
@@ -5,6 +5,7 @@ import android.database.Cursor;
 import android.util.Log;
 
 import org.nuclearfog.apollo.async.AsyncExecutor;
+import org.nuclearfog.apollo.cache.MetadataCache;
 import org.nuclearfog.apollo.model.Song;
 import org.nuclearfog.apollo.utils.CursorFactory;
 
@@ -31,6 +32,11 @@ public class FolderSongLoader extends AsyncExecutor<String, List<Song>> {
 		List<Song> result = new LinkedList<>();
 		Context context = getContext();
 		if (context != null && param != null) {
+			MetadataCache cache = MetadataCache.getInstance(context);
+			List<Song> cached = cache.getSongs(TAG, param);
+			if (cached != null)
+				return cached;
+			int version = cache.getVersion();
 			try {
 				Cursor cursor = CursorFactory.makeFolderSongCursor(context, param);
 				if (cursor != null) {
@@ -53,6 +59,7 @@ public class FolderSongLoader extends AsyncExecutor<String, List<Song>> {
 					}
 					cursor.close();
 				}
+				cache.putSongs(TAG, param, version, result);
 			} catch (Exception exception) {
 				Log.e(TAG, "error loading songs from folder:", exception);
 			}
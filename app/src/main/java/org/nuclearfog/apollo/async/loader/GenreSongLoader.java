@@ -16,6 +16,7 @@ import android.database.Cursor;
 import android.util.Log;
 
 import org.nuclearfog.apollo.async.AsyncExecutor;
+import org.nuclearfog.apollo.cache.MetadataCache;
 import org.nuclearfog.apollo.model.Song;
 import org.nuclearfog.apollo.utils.ApolloUtils;
 import org.nuclearfog.apollo.utils.CursorFactory;
@@ -46,6 +47,11 @@ public class GenreSongLoader extends AsyncExecutor<String, List<Song>> {
 		List<Song> result = new LinkedList<>();
 		Context context = getContext();
 		if (context != null && param != null) {
+			MetadataCache cache = MetadataCache.getInstance(context);
+			List<Song> cached = cache.getSongs(TAG, param);
+			if (cached != null)
+				return cached;
+			int version = cache.getVersion();
 			long[] genreIds = ApolloUtils.readSerializedIDs(param);
 			try {
 				for (long genreId : genreIds) {
@@ -76,6 +82,7 @@ public class GenreSongLoader extends AsyncExecutor<String, List<Song>> {
 						mCursor.close();
 					}
 				}
+				cache.putSongs(TAG, param, version, result);
 			} catch (Exception exception) {
 				Log.e(TAG, "error loading songs from genre:", exception);
 			}
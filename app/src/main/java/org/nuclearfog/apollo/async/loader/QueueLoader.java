@@ -13,21 +13,34 @@ package org.nuclearfog.apollo.async.loader;
 
 import android.content.Context;
 import android.database.Cursor;
+import android.util.Log;
 
 import org.nuclearfog.apollo.async.AsyncExecutor;
+import org.nuclearfog.apollo.cache.MetadataCache;
 import org.nuclearfog.apollo.model.Song;
 import org.nuclearfog.apollo.utils.CursorFactory;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Used to return the current playlist or queue.
+ * Track information is fetched in chunks to reduce the number of queries for large queues.
+ * Tracks already loaded by other loaders are taken from the {@link MetadataCache}.
  *
  * @author Andrew Neal (andrewdneal@gmail.com)
  * @author nuclearfog
  */
-public class QueueLoader extends AsyncExecutor<List<Long>, List<Song>> {
+public class QueueLoader extends AsyncExecutor<long[], List<Song>> {
+
+	private static final String TAG = "QueueLoader";
+
+	/**
+	 * maximum number of track IDs used in a single query
+	 */
+	private static final int CHUNK_SIZE = 500;
 
 
 	public QueueLoader(Context context) {
@@ -38,31 +51,68 @@ public class QueueLoader extends AsyncExecutor<List<Long>, List<Song>> {
 	 * {@inheritDoc}
 	 */
 	@Override
-	protected List<Song> doInBackground(final List<Long> param) {
-		List<Song> result = new LinkedList<>();
+	protected List<Song> doInBackground(final long[] param) {
+		List<Song> result = new ArrayList<>(param.length);
 		Context context = getContext();
 		if (context != null) {
-			for (long id : param) {
-				// Create the Cursor
-				Cursor cursor = CursorFactory.makeTrackCursor(context, id);
-				// Gather the data
-				if (cursor != null) {
-					if (cursor.moveToFirst()) {
-						// Copy the song name
-						String songName = cursor.getString(1);
-						// Copy the artist name
-						String artist = cursor.getString(2);
-						// Copy the album name
-						String album = cursor.getString(3);
-						// Copy the duration
-						long duration = cursor.getLong(4);
-						// Create a new song
-						Song song = new Song(id, songName, artist, album, duration);
-						// Add everything up
+			try {
+				MetadataCache cache = MetadataCache.getInstance(context);
+				int version = cache.getVersion();
+				// remove duplicate IDs and cached tracks
+				Map<Long, Song> songs = new HashMap<>(param.length);
+				long[] ids = new long[param.length];
+				int count = 0;
+				for (long id : param) {
+					if (!songs.containsKey(id)) {
+						Song song = cache.getSong(id);
+						songs.put(id, song);
+						if (song == null) {
+							ids[count++] = id;
+						}
+					}
+				}
+				List<Song> loaded = new ArrayList<>(count);
+				// query track information in chunks
+				for (int offset = 0; offset < count; offset += CHUNK_SIZE) {
+					Cursor cursor = CursorFactory.makeTrackInfoCursor(context, ids, offset, Math.min(CHUNK_SIZE, count - offset));
+					if (cursor != null) {
+						if (cursor.moveToFirst()) {
+							do {
+								// Copy the song Id
+								long id = cursor.getLong(0);
+								// Copy the song name
+								String songName = cursor.getString(1);
+								// Copy the artist name
+								String artist = cursor.getString(2);
+								// Copy the album name
+								String album = cursor.getString(3);
+								// Copy the duration
+								long duration = cursor.getLong(4);
+								// Create a new song
+								Song song = new Song(id, songName, artist, album, duration);
+								songs.put(id, song);
+								loaded.add(song);
+							} while (cursor.moveToNext());
+						}
+						cursor.close();
+					}
+				}
+				cache.putSongs(version, loaded);
+				// restore queue order
+				int missing = 0;
+				for (long id : param) {
+					Song song = songs.get(id);
+					if (song != null) {
 						result.add(song);
+					} else {
+						missing++;
 					}
-					cursor.close();
 				}
+				if (missing > 0) {
+					Log.w(TAG, missing + " tracks of the queue not found!");
+				}
+			} catch (Exception exception) {
+				Log.e(TAG, "error loading queue:", exception);
 			}
 		}
 		return result;
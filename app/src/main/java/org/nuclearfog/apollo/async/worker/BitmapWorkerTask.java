@@ -9,6 +9,7 @@ import android.graphics.drawable.TransitionDrawable;
 import org.nuclearfog.apollo.R;
 import org.nuclearfog.apollo.async.AsyncExecutor;
 import org.nuclearfog.apollo.cache.ImageWorker;
+import org.nuclearfog.apollo.cache.ImageWorker.ArtworkSize;
 import org.nuclearfog.apollo.cache.ImageWorker.ImageType;
 import org.nuclearfog.apollo.utils.ApolloUtils;
 import org.nuclearfog.apollo.utils.BitmapUtils;
@@ -16,7 +17,8 @@ import org.nuclearfog.apollo.utils.BitmapUtils;
 import java.lang.ref.WeakReference;
 
 /**
- * Async worker to download image artworks
+ * Async worker to load image artworks from cache or storage or to download them.
+ * Images are first searched locally with {@link Priority#IMAGE}, then downloaded by a second task with {@link Priority#NETWORK}
  *
  * @author nuclearfog
  */
@@ -27,14 +29,26 @@ public class BitmapWorkerTask extends AsyncExecutor<String[], Drawable[]> {
 	 */
 	private static final int FADE_IN_TIME = 200;
 
+	/**
+	 * empty result used if the image was not found locally but can be downloaded
+	 */
+	public static final Drawable[] DOWNLOAD = {};
+
 	private WeakReference<ImageWorker> callback;
 	private ImageType mImageType;
+	private ArtworkSize size;
+	private boolean download;
 
-
-	public BitmapWorkerTask(ImageWorker worker, ImageType mImageType) {
-		super(null);
+	/**
+	 * @param size     size of the image to load
+	 * @param download true to download the image, false to search the image in cache and storage
+	 */
+	public BitmapWorkerTask(ImageWorker worker, ImageType mImageType, ArtworkSize size, boolean download) {
+		super(null, download ? Priority.NETWORK : Priority.IMAGE);
 		callback = new WeakReference<>(worker);
 		this.mImageType = mImageType;
+		this.size = size;
+		this.download = download;
 	}
 
 
@@ -46,17 +60,20 @@ public class BitmapWorkerTask extends AsyncExecutor<String[], Drawable[]> {
 		if (worker == null)
 			return null;
 		// First, check the disk cache for the image
-		if (params[0] != null && worker.getImageCache() != null) {
-			bitmap = worker.getImageCache().getCachedBitmap(params[0]);
+		if (!download && params[0] != null && worker.getImageCache() != null) {
+			bitmap = worker.getImageCache().getCachedBitmap(params[0], size);
 		}
 		// Define the album id now
 		long mAlbumId = Long.parseLong(params[3]);
 		// Second, if we're fetching artwork, check the device for the image
-		if (bitmap == null && mAlbumId >= 0 && params[0] != null && worker.getImageCache() != null) {
-			bitmap = worker.getImageCache().getCachedArtwork(worker.getContext(), params[0], mAlbumId);
+		if (!download && bitmap == null && mAlbumId >= 0 && params[0] != null && worker.getImageCache() != null) {
+			bitmap = worker.getImageCache().getCachedArtwork(worker.getContext(), params[0], mAlbumId, size);
 		}
 		// Third, by now we need to download the image
 		if (bitmap == null && ApolloUtils.isOnline(worker.getContext())) {
+			// continue with a download task
+			if (!download)
+				return DOWNLOAD;
 			// Now define what the artist name, album name, and url are.
 			String mArtistName = params[1];
 			String mAlbumName = params[2] != null ? params[2] : mArtistName;
@@ -64,10 +81,14 @@ public class BitmapWorkerTask extends AsyncExecutor<String[], Drawable[]> {
 			if (mUrl != null) {
 				bitmap = worker.processBitmap(mUrl);
 			}
-		}
-		// Fourth, add the new image to the cache
-		if (bitmap != null && params[0] != null && worker.getImageCache() != null) {
-			worker.addImageToCache(params[0], bitmap);
+			// Fourth, add the new image to the cache and load the image with the requested size
+			if (bitmap != null && params[0] != null && worker.getImageCache() != null) {
+				worker.addImageToCache(params[0], bitmap);
+				Bitmap scaled = worker.getImageCache().getCachedBitmap(params[0], size);
+				if (scaled != null) {
+					bitmap = scaled;
+				}
+			}
 		}
 		// Add the second layer to the translation drawable
 		if (bitmap != null) {
@@ -4,6 +4,7 @@ import android.content.Context;
 import android.database.Cursor;
 
 import org.nuclearfog.apollo.async.AsyncExecutor;
+import org.nuclearfog.apollo.cache.MetadataCache;
 import org.nuclearfog.apollo.model.Album;
 import org.nuclearfog.apollo.model.Artist;
 import org.nuclearfog.apollo.model.Folder;
@@ -29,7 +30,7 @@ public class ExcludeMusicWorker extends AsyncExecutor<Music, Boolean> {
 
 
 	public ExcludeMusicWorker(Context context) {
-		super(context);
+		super(context, Priority.USER);
 		exclude = ExcludeStore.getInstance(context);
 	}
 
@@ -70,6 +71,7 @@ public class ExcludeMusicWorker extends AsyncExecutor<Music, Boolean> {
 				type = Type.SONG;
 			}
 			if (type != null && ids.length > 0) {
+				MetadataCache.getInstance(context).invalidate();
 				if (param.isVisible()) {
 					exclude.addIds(type, ids);
 					return true;
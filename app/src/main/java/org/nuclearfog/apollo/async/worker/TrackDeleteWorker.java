@@ -9,6 +9,7 @@ import android.util.Log;
 
 import org.nuclearfog.apollo.BuildConfig;
 import org.nuclearfog.apollo.async.AsyncExecutor;
+import org.nuclearfog.apollo.cache.MetadataCache;
 import org.nuclearfog.apollo.store.FavoritesStore;
 import org.nuclearfog.apollo.store.PopularStore;
 import org.nuclearfog.apollo.store.RecentStore;
@@ -31,7 +32,7 @@ public class TrackDeleteWorker extends AsyncExecutor<Long[], Integer> {
 
 
 	public TrackDeleteWorker(Context context) {
-		super(context);
+		super(context, Priority.USER);
 	}
 
 
@@ -76,6 +77,8 @@ public class TrackDeleteWorker extends AsyncExecutor<Long[], Integer> {
 							}
 						}
 					}
+					// remove tracks from the metadata cache
+					MetadataCache.getInstance(context).remove(ApolloUtils.toLongArray(param));
 					return count;
 				}
 				cursor.close();
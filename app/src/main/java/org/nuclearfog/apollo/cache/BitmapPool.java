@@ -0,0 +1,224 @@
+package org.nuclearfog.apollo.cache;
+
+import android.annotation.SuppressLint;
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+/**
+ * Pool of unused bitmaps evicted from the memory cache.
+ * The bitmaps are reused to decode new images with {@link android.graphics.BitmapFactory.Options#inBitmap},
+ * so decoding doesn't need to allocate new bitmaps while scrolling.
+ * Bitmaps shown by an {@link ImageView} or decoded for a view are never added to the pool.
+ *
+ * @author nuclearfog
+ */
+public class BitmapPool {
+
+	/**
+	 * maximum factor the size of a reused bitmap can exceed the size of the decoded image
+	 */
+	private static final int MAX_SIZE_FACTOR = 4;
+
+	/**
+	 * bitmaps of the pool sorted by their allocated size
+	 */
+	private TreeMap<Integer, List<Bitmap>> bitmaps = new TreeMap<>();
+
+	/**
+	 * bitmaps of the pool in the order they were added, used to remove the oldest bitmaps first
+	 */
+	private LinkedList<Bitmap> order = new LinkedList<>();
+
+	/**
+	 * bitmaps of the pool, used to check if a bitmap was already added
+	 */
+	private Set<Bitmap> pooled = Collections.newSetFromMap(new IdentityHashMap<Bitmap, Boolean>());
+
+	/**
+	 * bitmaps currently shown by image views
+	 */
+	private Map<ImageView, Bitmap> shown = new WeakHashMap<>();
+
+	/**
+	 * bitmaps in use with the number of image views showing them. Bitmaps are added when decoded
+	 * and removed when no view shows them anymore. {@link Bitmap} doesn't override equals(),
+	 * so the bitmaps are compared by identity. Bitmaps which are never shown are removed by the GC.
+	 */
+	private Map<Bitmap, Integer> inUse = new WeakHashMap<>();
+
+	private int maxSize;
+	private int size = 0;
+
+	private int reuseCount = 0;
+	private int missCount = 0;
+
+	/**
+	 * @param maxSize maximum size of all bitmaps in bytes
+	 */
+	public BitmapPool(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * add an unused bitmap to the pool
+	 *
+	 * @param bitmap bitmap to reuse
+	 */
+	public synchronized void put(Bitmap bitmap) {
+		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT || !bitmap.isMutable() || bitmap.isRecycled())
+			return;
+		int bitmapSize = bitmap.getAllocationByteCount();
+		if (bitmapSize > maxSize || pooled.contains(bitmap) || inUse.containsKey(bitmap))
+			return;
+		List<Bitmap> list = bitmaps.get(bitmapSize);
+		if (list == null) {
+			list = new LinkedList<>();
+			bitmaps.put(bitmapSize, list);
+		}
+		list.add(bitmap);
+		order.add(bitmap);
+		pooled.add(bitmap);
+		size += bitmapSize;
+		trimToSize(maxSize);
+	}
+
+	/**
+	 * get a bitmap which can be used to decode an image
+	 *
+	 * @param byteCount size of the decoded image in bytes
+	 * @return bitmap to reuse or null if there is no bitmap with a matching size
+	 */
+	@Nullable
+	public synchronized Bitmap get(int byteCount) {
+		Integer key = bitmaps.ceilingKey(byteCount);
+		if (key != null && key <= byteCount * MAX_SIZE_FACTOR) {
+			List<Bitmap> list = bitmaps.get(key);
+			Bitmap bitmap = list.remove(0);
+			if (list.isEmpty()) {
+				bitmaps.remove(key);
+			}
+			order.remove(bitmap);
+			pooled.remove(bitmap);
+			size -= key;
+			reuseCount++;
+			return bitmap;
+		}
+		missCount++;
+		return null;
+	}
+
+	/**
+	 * mark a decoded bitmap as used before it is added to the memory cache,
+	 * so it isn't reused before an image view shows it
+	 *
+	 * @param bitmap decoded bitmap
+	 */
+	public synchronized void pin(Bitmap bitmap) {
+		if (!inUse.containsKey(bitmap)) {
+			inUse.put(bitmap, 0);
+		}
+	}
+
+	/**
+	 * set the bitmap shown by an image view. Bitmaps shown by a view will not be reused.
+	 * The previous bitmap of the view can be reused if no other view shows it
+	 *
+	 * @param view   image view
+	 * @param bitmap bitmap shown by the view or null to remove the bitmap
+	 */
+	public synchronized void setShown(ImageView view, @Nullable Bitmap bitmap) {
+		Bitmap previous;
+		if (bitmap != null) {
+			previous = shown.put(view, bitmap);
+		} else {
+			previous = shown.remove(view);
+		}
+		if (previous == bitmap)
+			return;
+		if (bitmap != null) {
+			Integer count = inUse.get(bitmap);
+			inUse.put(bitmap, count != null ? count + 1 : 1);
+			// bitmap may be evicted from the memory cache after it was loaded
+			if (pooled.contains(bitmap)) {
+				remove(bitmap);
+			}
+		}
+		if (previous != null) {
+			Integer count = inUse.get(previous);
+			if (count != null && count > 1) {
+				inUse.put(previous, count - 1);
+			} else {
+				inUse.remove(previous);
+			}
+		}
+	}
+
+	/**
+	 * remove all bitmaps from the pool
+	 */
+	public synchronized void clear() {
+		trimToSize(0);
+	}
+
+	/**
+	 * get the number of reused bitmaps
+	 */
+	public synchronized int getReuseCount() {
+		return reuseCount;
+	}
+
+	/**
+	 * get the number of requests without a matching bitmap
+	 */
+	public synchronized int getMissCount() {
+		return missCount;
+	}
+
+
+	@NonNull
+	@SuppressLint("DefaultLocale")
+	@Override
+	public synchronized String toString() {
+		return String.format("BitmapPool[maxSize=%d,size=%d,reused=%d,misses=%d]", maxSize, size, reuseCount, missCount);
+	}
+
+	/**
+	 * remove the oldest bitmaps until the size of the pool is below the given size
+	 */
+	private void trimToSize(int maxSize) {
+		while (size > maxSize && !order.isEmpty()) {
+			remove(order.getFirst());
+		}
+	}
+
+	/**
+	 * remove a bitmap from the pool
+	 */
+	@SuppressLint("NewApi") // bitmaps are only added on KitKat or higher
+	private void remove(Bitmap bitmap) {
+		int bitmapSize = bitmap.getAllocationByteCount();
+		List<Bitmap> list = bitmaps.get(bitmapSize);
+		if (list != null) {
+			list.remove(bitmap);
+			if (list.isEmpty()) {
+				bitmaps.remove(bitmapSize);
+			}
+		}
+		order.remove(bitmap);
+		pooled.remove(bitmap);
+		size -= bitmapSize;
+	}
+}
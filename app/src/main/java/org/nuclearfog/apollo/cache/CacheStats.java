@@ -0,0 +1,92 @@
+package org.nuclearfog.apollo.cache;
+
+import android.annotation.SuppressLint;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hit, miss and eviction counters of a memory cache, in total and per key type
+ *
+ * @author nuclearfog
+ */
+final class CacheStats {
+
+	static final int HIT = 0;
+	static final int MISS = 1;
+	static final int EVICTION = 2;
+
+	/**
+	 * counters of all entries
+	 */
+	private Counter total = new Counter();
+
+	/**
+	 * counters of the key types
+	 */
+	private ConcurrentHashMap<String, Counter> types = new ConcurrentHashMap<>();
+
+	/**
+	 * count a cache access or eviction
+	 *
+	 * @param type name of the key type or null to count the total only
+	 * @param kind {@link #HIT}, {@link #MISS} or {@link #EVICTION}
+	 */
+	void count(@Nullable String type, int kind) {
+		total.counts[kind].incrementAndGet();
+		if (type != null) {
+			Counter counter = types.get(type);
+			if (counter == null) {
+				counter = new Counter();
+				Counter previous = types.putIfAbsent(type, counter);
+				if (previous != null) {
+					counter = previous;
+				}
+			}
+			counter.counts[kind].incrementAndGet();
+		}
+	}
+
+	/**
+	 * get the total count
+	 *
+	 * @param kind {@link #HIT}, {@link #MISS} or {@link #EVICTION}
+	 */
+	int getCount(int kind) {
+		return total.counts[kind].get();
+	}
+
+
+	@NonNull
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder(total.toString());
+		for (Map.Entry<String, Counter> entry : types.entrySet()) {
+			result.append(',').append(entry.getKey()).append("=[").append(entry.getValue()).append(']');
+		}
+		return result.toString();
+	}
+
+	/**
+	 * hit, miss and eviction counters
+	 */
+	private static final class Counter {
+
+		final AtomicInteger[] counts = {new AtomicInteger(), new AtomicInteger(), new AtomicInteger()};
+
+
+		@NonNull
+		@SuppressLint("DefaultLocale")
+		@Override
+		public String toString() {
+			int hits = counts[HIT].get();
+			int accesses = hits + counts[MISS].get();
+			int hitPercent = accesses != 0 ? 100 * hits / accesses : 0;
+			return String.format("hits=%d,misses=%d,hitRate=%d%%,evictions=%d", hits, counts[MISS].get(), hitPercent, counts[EVICTION].get());
+		}
+	}
+}
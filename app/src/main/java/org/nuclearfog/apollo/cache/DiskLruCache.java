@@ -16,25 +16,28 @@ import androidx.annotation.Nullable;
 import org.nuclearfog.apollo.BuildConfig;
 
 import java.io.BufferedInputStream;
-import java.io.BufferedWriter;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.Writer;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -92,45 +95,41 @@ public final class DiskLruCache implements Closeable {
 
 	static final String JOURNAL_FILE_TMP = "journal.tmp";
 
-	static final String MAGIC = "libcore.io.DiskLruCache";
+	static final int MAGIC = 0x444c5243;
 
-	static final String VERSION_1 = "1";
+	static final int VERSION_2 = 2;
 
-	private static final String CLEAN = "CLEAN";
+	private static final byte CLEAN = 1;
 
-	private static final String DIRTY = "DIRTY";
+	private static final byte DIRTY = 2;
 
-	private static final String REMOVE = "REMOVE";
+	private static final byte REMOVE = 3;
 
-	private static final String READ = "READ";
+	private static final byte READ = 4;
 
 	private static final int IO_BUFFER_SIZE = 8 * 1024;
 
 	/*
-	 * This cache uses a journal file named "journal". A typical journal file
-	 * looks like this: libcore.io.DiskLruCache 1 100 2 CLEAN
-	 * 3400330d1dfc7f3f7f4b8d4d803dfcf6 832 21054 DIRTY
-	 * 335c4c6028171cfddfbaae1a9c313c52 CLEAN 335c4c6028171cfddfbaae1a9c313c52
-	 * 3934 2342 REMOVE 335c4c6028171cfddfbaae1a9c313c52 DIRTY
-	 * 1ab96a171faeeee38496d8b330771a7a CLEAN 1ab96a171faeeee38496d8b330771a7a
-	 * 1600 234 READ 335c4c6028171cfddfbaae1a9c313c52 READ
-	 * 3400330d1dfc7f3f7f4b8d4d803dfcf6 The first five lines of the journal form
-	 * its header. They are the constant string "libcore.io.DiskLruCache", the
-	 * disk cache's version, the application's version, the value count, and a
-	 * blank line. Each of the subsequent lines in the file is a record of the
-	 * state of a cache entry. Each line contains space-separated values: a
-	 * state, a key, and optional state-specific values. o DIRTY lines track
-	 * that an entry is actively being created or updated. Every successful
-	 * DIRTY action should be followed by a CLEAN or REMOVE action. DIRTY lines
-	 * without a matching CLEAN or REMOVE indicate that temporary files may need
-	 * to be deleted. o CLEAN lines track a cache entry that has been
-	 * successfully published and may be read. A publish line is followed by the
-	 * lengths of each of its values. o READ lines track accesses for LRU. o
-	 * REMOVE lines track entries that have been deleted. The journal file is
-	 * appended to as cache operations occur. The journal may occasionally be
-	 * compacted by dropping redundant lines. A temporary file named
-	 * "journal.tmp" will be used during compaction; that file should be deleted
-	 * if it exists when the cache is opened.
+	 * This cache uses a binary journal file named "journal". The journal starts
+	 * with a header of four integers: the magic number 0x444c5243, the disk
+	 * cache's version, the application's version and the value count. Each of
+	 * the subsequent records is the state of a cache entry: a state byte, the
+	 * key as modified UTF-8 and optional state-specific values.
+	 * o DIRTY records track that an entry is actively being created or updated.
+	 * Every successful DIRTY action should be followed by a CLEAN or REMOVE
+	 * action. DIRTY records without a matching CLEAN or REMOVE indicate that
+	 * temporary files may need to be deleted.
+	 * o CLEAN records track a cache entry that has been successfully published
+	 * and may be read. A publish record is followed by the lengths of each of
+	 * its values as long values.
+	 * o READ records track accesses for LRU.
+	 * o REMOVE records track entries that have been deleted.
+	 * Records are collected in memory and appended to the journal by a single
+	 * background thread, so cache operations never wait for the journal. An
+	 * incomplete record at the end of the journal is ignored. The journal may
+	 * occasionally be compacted by dropping redundant records. A temporary file
+	 * named "journal.tmp" will be used during compaction; that file should be
+	 * deleted if it exists when the cache is opened.
 	 */
 
 	private File directory;
@@ -147,26 +146,66 @@ public final class DiskLruCache implements Closeable {
 
 	private LinkedHashMap<String, Entry> lruEntries = new LinkedHashMap<>(0, 0.75f, true);
 	/**
-	 * This cache uses a single background thread to evict entries.
+	 * This cache uses a single background thread to write the journal and to evict entries.
 	 */
 	private ExecutorService executorService = new ThreadPoolExecutor(0, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
 	private long size = 0;
-	private Writer journalWriter;
 	private int redundantOpCount;
 
+	/**
+	 * journal output stream, only used by the background thread after the cache was opened
+	 */
+	private DataOutputStream journalWriter;
+
+	/**
+	 * records not written to the journal yet, guarded by itself
+	 */
+	private ByteArrayOutputStream pendingRecords = new ByteArrayOutputStream();
+	private DataOutputStream pendingWriter = new DataOutputStream(pendingRecords);
+
+	/**
+	 * true if a journal write is already scheduled, guarded by {@link #pendingRecords}
+	 */
+	private boolean writeScheduled = false;
+
+	private volatile boolean closed = false;
+
+	/**
+	 * true if the last record of the journal was not written completely
+	 */
+	private boolean journalTruncated = false;
+
+	private Runnable journalTask = new Runnable() {
+		@Override
+		public void run() {
+			try {
+				writeJournal();
+			} catch (IOException e) {
+				if (BuildConfig.DEBUG) {
+					e.printStackTrace();
+				}
+			}
+		}
+	};
+
 	private Callable<Void> cleanupCallable = new Callable<Void>() {
 		@Override
 		public Void call() throws Exception {
+			byte[] journal = null;
 			synchronized (DiskLruCache.this) {
-				if (journalWriter == null) {
-					return null; // closed
+				if (closed) {
+					return null;
 				}
 				trimToSize();
 				if (journalRebuildRequired()) {
-					rebuildJournal();
+					journal = createJournal();
 					redundantOpCount = 0;
 				}
 			}
+			// write the new journal without blocking the cache
+			if (journal != null) {
+				rebuildJournal(journal);
+			}
 			return null;
 		}
 	};
@@ -183,48 +222,6 @@ public final class DiskLruCache implements Closeable {
 		this.maxSize = maxSize;
 	}
 
-	/**
-	 *
-	 */
-	private static String[] copyOfRange(String[] original, int end) {
-		int originalLength = original.length; // For exception priority
-		// compatibility.
-		if (2 > end) {
-			throw new IllegalArgumentException();
-		}
-		if (2 > originalLength) {
-			throw new ArrayIndexOutOfBoundsException();
-		}
-		int resultLength = end - 2;
-		int copyLength = Math.min(resultLength, originalLength - 2);
-
-		String[] result = new String[resultLength];
-		System.arraycopy(original, 2, result, 0, copyLength);
-		return result;
-	}
-
-	/**
-	 * Returns the ASCII characters up to but not including the next "\r\n", or
-	 * "\n".
-	 *
-	 * @throws java.io.EOFException if the stream is exhausted before the next newline character.
-	 */
-	public static String readAsciiLine(InputStream in) throws IOException {
-		StringBuilder result = new StringBuilder(80);
-
-		int c = in.read();
-		while (c != -1) {
-			char t = (char) c;
-			if (c != '\n' && c != '\r') {
-				result.append(t);
-				c = in.read();
-			} else {
-				break;
-			}
-		}
-		return result.toString();
-	}
-
 	/**
 	 * Closes 'closeable', ignoring any checked exceptions. Does nothing if
 	 * 'closeable' is null.
@@ -283,7 +280,12 @@ public final class DiskLruCache implements Closeable {
 			try {
 				cache.readJournal();
 				cache.processJournal();
-				cache.journalWriter = new BufferedWriter(new FileWriter(cache.journalFile, true), IO_BUFFER_SIZE);
+				if (cache.journalTruncated) {
+					// new records must not be appended to an incomplete record
+					cache.rebuildJournal(cache.createJournal());
+				} else {
+					cache.journalWriter = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(cache.journalFile, true), IO_BUFFER_SIZE));
+				}
 				return cache;
 			} catch (IOException journalIsCorrupt) {
 				if (BuildConfig.DEBUG) {
@@ -295,7 +297,7 @@ public final class DiskLruCache implements Closeable {
 		// create a new empty cache
 		if (directory.exists() || directory.mkdirs()) {
 			cache = new DiskLruCache(directory, appVersion, valueCount, maxSize);
-			cache.rebuildJournal();
+			cache.rebuildJournal(cache.createJournal());
 			return cache;
 		}
 		return null;
@@ -314,21 +316,22 @@ public final class DiskLruCache implements Closeable {
 	 *
 	 */
 	private void readJournal() throws IOException {
-		InputStream in = new BufferedInputStream(new FileInputStream(journalFile), IO_BUFFER_SIZE);
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile), IO_BUFFER_SIZE));
 		try {
-			String magic = readAsciiLine(in);
-			String version = readAsciiLine(in);
-			String appVersionString = readAsciiLine(in);
-			String valueCountString = readAsciiLine(in);
-			String blank = readAsciiLine(in);
-			if (!MAGIC.equals(magic) || !VERSION_1.equals(version) || !Integer.toString(appVersion).equals(appVersionString) ||
-					!Integer.toString(valueCount).equals(valueCountString) || !blank.trim().isEmpty()) {
-				throw new IOException("unexpected journal header: [" + magic + ", " + version + ", " + valueCountString + ", " + blank + "]");
-			}
-			String readLn = readAsciiLine(in);
-			while (!readLn.isEmpty()) {
-				readJournalLine(readLn);
-				readLn = readAsciiLine(in);
+			int magic = in.readInt();
+			int version = in.readInt();
+			int appVersionNumber = in.readInt();
+			int valueCountNumber = in.readInt();
+			if (magic != MAGIC || version != VERSION_2 || appVersionNumber != appVersion || valueCountNumber != valueCount) {
+				throw new IOException("unexpected journal header: [" + magic + ", " + version + ", " + appVersionNumber + ", " + valueCountNumber + "]");
+			}
+			try {
+				for (int state = in.read(); state != -1; state = in.read()) {
+					readJournalRecord(state, in);
+				}
+			} catch (EOFException e) {
+				// the last record was not written completely, the journal is rebuilt after reading
+				journalTruncated = true;
 			}
 		} finally {
 			closeQuietly(in);
@@ -338,14 +341,9 @@ public final class DiskLruCache implements Closeable {
 	/**
 	 *
 	 */
-	private void readJournalLine(String line) throws IOException {
-		String[] parts = line.split("\\s");
-		if (parts.length < 2) {
-			throw new IOException("unexpected journal line: " + line);
-		}
-
-		String key = parts[1];
-		if (parts[0].equals(REMOVE) && parts.length == 2) {
+	private void readJournalRecord(int state, DataInputStream in) throws IOException {
+		String key = in.readUTF();
+		if (state == REMOVE) {
 			lruEntries.remove(key);
 			return;
 		}
@@ -356,14 +354,18 @@ public final class DiskLruCache implements Closeable {
 			lruEntries.put(key, entry);
 		}
 
-		if (parts[0].equals(CLEAN) && parts.length == 2 + valueCount) {
+		if (state == CLEAN) {
+			long[] lengths = new long[valueCount];
+			for (int i = 0; i < valueCount; i++) {
+				lengths[i] = in.readLong();
+			}
 			entry.readable = true;
 			entry.currentEditor = null;
-			entry.setLengths(copyOfRange(parts, parts.length));
-		} else if (parts[0].equals(DIRTY) && parts.length == 2) {
+			entry.lengths = lengths;
+		} else if (state == DIRTY) {
 			entry.currentEditor = new Editor(entry);
-		} else if (!parts[0].equals(READ) || parts.length != 2) {
-			throw new IOException("unexpected journal line: " + line);
+		} else if (state != READ) {
+			throw new IOException("unexpected journal record: " + state + " " + key);
 		}
 	}
 
@@ -388,38 +390,109 @@ public final class DiskLruCache implements Closeable {
 				i.remove();
 			}
 		}
+		// records are written in background, so files of an edit may not be in the journal
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				String name = file.getName();
+				if (name.equals(JOURNAL_FILE)) {
+					continue;
+				}
+				int end = name.lastIndexOf('.');
+				if (name.endsWith(".tmp") || end < 0 || !lruEntries.containsKey(name.substring(0, end))) {
+					deleteIfExists(file);
+				}
+			}
+		}
 	}
 
 	/**
-	 * Creates a new journal that omits redundant information. This replaces the
-	 * current journal if it exists.
+	 * Creates the content of a new journal that omits redundant information.
+	 * Records pending at this moment are dropped, because the new journal already contains them.
+	 */
+	private synchronized byte[] createJournal() throws IOException {
+		ByteArrayOutputStream journal = new ByteArrayOutputStream();
+		DataOutputStream writer = new DataOutputStream(journal);
+		writer.writeInt(MAGIC);
+		writer.writeInt(VERSION_2);
+		writer.writeInt(appVersion);
+		writer.writeInt(valueCount);
+		for (Entry entry : lruEntries.values()) {
+			if (entry.currentEditor != null) {
+				writeRecord(writer, DIRTY, entry.key, null);
+			} else {
+				writeRecord(writer, CLEAN, entry.key, entry.lengths);
+			}
+		}
+		synchronized (pendingRecords) {
+			pendingRecords.reset();
+		}
+		return journal.toByteArray();
+	}
+
+	/**
+	 * Replaces the current journal with a new one. Must be called from the background thread
+	 * or before the cache is used.
+	 *
+	 * @param journal content of the journal created by {@link #createJournal()}
 	 */
-	private synchronized void rebuildJournal() throws IOException {
+	private void rebuildJournal(byte[] journal) throws IOException {
 		if (journalWriter != null) {
 			journalWriter.close();
 		}
+		OutputStream writer = new FileOutputStream(journalFileTmp);
+		try {
+			writer.write(journal);
+		} finally {
+			writer.close();
+		}
+		journalFileTmp.renameTo(journalFile);
+		journalWriter = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, true), IO_BUFFER_SIZE));
+	}
 
-		Writer writer = new BufferedWriter(new FileWriter(journalFileTmp), IO_BUFFER_SIZE);
-		writer.write(MAGIC);
-		writer.write("\n");
-		writer.write(VERSION_1);
-		writer.write("\n");
-		writer.write(Integer.toString(appVersion));
-		writer.write("\n");
-		writer.write(Integer.toString(valueCount));
-		writer.write("\n");
-		writer.write("\n");
+	/**
+	 * add a record to the pending journal records and schedule the journal writer
+	 *
+	 * @param lengths value lengths of a CLEAN record or null
+	 */
+	private void appendJournal(byte state, String key, @Nullable long[] lengths) throws IOException {
+		synchronized (pendingRecords) {
+			writeRecord(pendingWriter, state, key, lengths);
+			if (!writeScheduled) {
+				writeScheduled = true;
+				executorService.execute(journalTask);
+			}
+		}
+	}
 
-		for (Entry entry : lruEntries.values()) {
-			if (entry.currentEditor != null) {
-				writer.write(DIRTY + ' ' + entry.key + '\n');
-			} else {
-				writer.write(CLEAN + ' ' + entry.key + entry.getLengths() + '\n');
+	/**
+	 * write all pending records to the journal. Records added in the meantime are written
+	 * together by the next run, so journal writes are batched.
+	 */
+	private void writeJournal() throws IOException {
+		byte[] records;
+		synchronized (pendingRecords) {
+			records = pendingRecords.toByteArray();
+			pendingRecords.reset();
+			writeScheduled = false;
+		}
+		if (records.length > 0 && journalWriter != null) {
+			journalWriter.write(records);
+			journalWriter.flush();
+		}
+	}
+
+	/**
+	 *
+	 */
+	private static void writeRecord(DataOutputStream writer, byte state, String key, @Nullable long[] lengths) throws IOException {
+		writer.writeByte(state);
+		writer.writeUTF(key);
+		if (lengths != null) {
+			for (long length : lengths) {
+				writer.writeLong(length);
 			}
 		}
-		writer.close();
-		journalFileTmp.renameTo(journalFile);
-		journalWriter = new BufferedWriter(new FileWriter(journalFile, true), IO_BUFFER_SIZE);
 	}
 
 	/**
@@ -427,17 +500,26 @@ public final class DiskLruCache implements Closeable {
 	 * exist is not currently readable. If a value is returned, it is moved to
 	 * the head of the LRU queue.
 	 */
-	public synchronized Snapshot get(String key) throws IOException {
+	public Snapshot get(String key) throws IOException {
 		checkNotClosed();
 		validateKey(key);
-		Entry entry = lruEntries.get(key);
-		if (entry == null || !entry.readable) {
-			return null;
+		Entry entry;
+		synchronized (this) {
+			entry = lruEntries.get(key);
+			if (entry == null || !entry.readable) {
+				return null;
+			}
+			redundantOpCount++;
+			appendJournal(READ, key, null);
+			if (journalRebuildRequired()) {
+				executorService.submit(cleanupCallable);
+			}
 		}
 		/*
 		 * Open all streams eagerly to guarantee that we see a single published
 		 * snapshot. If we opened streams lazily then the streams could come
-		 * from different edits.
+		 * from different edits. Published files are only replaced by renaming,
+		 * so the streams can be opened without holding the lock.
 		 */
 		InputStream[] ins = new InputStream[valueCount];
 		try {
@@ -445,18 +527,12 @@ public final class DiskLruCache implements Closeable {
 				ins[i] = new FileInputStream(entry.getCleanFile(i));
 			}
 		} catch (FileNotFoundException e) {
-			if (BuildConfig.DEBUG) {
-				e.printStackTrace();
+			// the entry was removed in the meantime or a file must have been deleted manually!
+			for (InputStream in : ins) {
+				closeQuietly(in);
 			}
-			// a file must have been deleted manually!
 			return null;
 		}
-
-		redundantOpCount++;
-		journalWriter.append(READ + ' ').append(key).append(String.valueOf('\n'));
-		if (journalRebuildRequired()) {
-			executorService.submit(cleanupCallable);
-		}
 		return new Snapshot(ins);
 	}
 
@@ -476,10 +552,8 @@ public final class DiskLruCache implements Closeable {
 		}
 		Editor editor = new Editor(entry);
 		entry.currentEditor = editor;
-
-		// flush the journal before creating files to prevent file leaks
-		journalWriter.write(DIRTY + ' ' + key + '\n');
-		journalWriter.flush();
+		// temporary files without a DIRTY record are removed when opening the cache
+		appendJournal(DIRTY, key, null);
 		return editor;
 	}
 
@@ -524,10 +598,10 @@ public final class DiskLruCache implements Closeable {
 		entry.currentEditor = null;
 		if (entry.readable | success) {
 			entry.readable = true;
-			journalWriter.write(CLEAN + ' ' + entry.key + entry.getLengths() + '\n');
+			appendJournal(CLEAN, entry.key, entry.lengths);
 		} else {
 			lruEntries.remove(entry.key);
-			journalWriter.write(REMOVE + ' ' + entry.key + '\n');
+			appendJournal(REMOVE, entry.key, null);
 		}
 
 		if (size > maxSize || journalRebuildRequired()) {
@@ -566,7 +640,7 @@ public final class DiskLruCache implements Closeable {
 		}
 
 		redundantOpCount++;
-		journalWriter.append(REMOVE + ' ').append(key).append(String.valueOf('\n'));
+		appendJournal(REMOVE, key, null);
 		lruEntries.remove(key);
 
 		if (journalRebuildRequired()) {
@@ -579,40 +653,70 @@ public final class DiskLruCache implements Closeable {
 	 * Returns true if this cache has been closed.
 	 */
 	public boolean isClosed() {
-		return journalWriter == null;
+		return closed;
 	}
 
 	private void checkNotClosed() {
-		if (journalWriter == null) {
+		if (closed) {
 			throw new IllegalStateException("cache is closed");
 		}
 	}
 
 	/**
-	 * Force buffered operations to the filesystem.
+	 * Writes buffered operations to the filesystem in background.
+	 * Multiple calls are coalesced into a single write.
 	 */
 	public synchronized void flush() throws IOException {
 		checkNotClosed();
-		trimToSize();
-		journalWriter.flush();
+		synchronized (pendingRecords) {
+			if (!writeScheduled) {
+				writeScheduled = true;
+				executorService.execute(journalTask);
+			}
+		}
+		if (size > maxSize) {
+			executorService.submit(cleanupCallable);
+		}
 	}
 
 	/**
 	 * Closes this cache. Stored values will remain on the filesystem.
 	 */
 	@Override
-	public synchronized void close() throws IOException {
-		if (journalWriter == null) {
-			return; // already closed
+	public void close() throws IOException {
+		synchronized (this) {
+			if (closed) {
+				return; // already closed
+			}
+			for (Entry entry : new ArrayList<>(lruEntries.values())) {
+				if (entry.currentEditor != null) {
+					entry.currentEditor.abort();
+				}
+			}
+			trimToSize();
+			closed = true;
 		}
-		for (Entry entry : new ArrayList<>(lruEntries.values())) {
-			if (entry.currentEditor != null) {
-				entry.currentEditor.abort();
+		// write the remaining records and wait until the journal is closed
+		Future<Void> result = executorService.submit(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				writeJournal();
+				if (journalWriter != null) {
+					journalWriter.close();
+					journalWriter = null;
+				}
+				return null;
 			}
+		});
+		try {
+			result.get();
+		} catch (InterruptedException e) {
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IOException(e.getCause());
 		}
-		trimToSize();
-		journalWriter.close();
-		journalWriter = null;
 	}
 
 	/**
@@ -809,37 +913,6 @@ public final class DiskLruCache implements Closeable {
 		}
 
 
-		public String getLengths() {
-			StringBuilder result = new StringBuilder();
-			for (long size : lengths) {
-				result.append(' ').append(size);
-			}
-			return result.toString();
-		}
-
-		/**
-		 * Set lengths using decimal numbers like "10123".
-		 */
-		private void setLengths(String[] strings) throws IOException {
-			if (strings.length != valueCount) {
-				throw invalidLengths(strings);
-			}
-			try {
-				for (int i = 0; i < strings.length; i++) {
-					lengths[i] = Long.parseLong(strings[i]);
-				}
-			} catch (NumberFormatException e) {
-				throw invalidLengths(strings);
-			}
-		}
-
-		/**
-		 *
-		 */
-		private IOException invalidLengths(String[] strings) throws IOException {
-			throw new IOException("unexpected journal line: " + Arrays.toString(strings));
-		}
-
 		/**
 		 *
 		 */
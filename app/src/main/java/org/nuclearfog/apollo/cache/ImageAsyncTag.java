@@ -1,6 +1,8 @@
 package org.nuclearfog.apollo.cache;
 
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
+import android.graphics.drawable.LayerDrawable;
 import android.widget.ImageView;
 
 import androidx.annotation.NonNull;
@@ -22,8 +24,23 @@ public class ImageAsyncTag implements AsyncCallback<Drawable[]> {
 	 */
 	private BitmapWorkerTask bitmapWorkerTask;
 
+	/**
+	 * background worker task used to download the image
+	 */
+	private BitmapWorkerTask downloadTask;
+
 	private ImageView[] imageViews;
 
+	/**
+	 * cache used to mark the shown bitmap, so it will not be reused
+	 */
+	private ImageCache imageCache;
+
+	/**
+	 * parameter of the worker tasks
+	 */
+	private String[] param;
+
 	/**
 	 * key used to identify this tag
 	 */
@@ -32,17 +49,32 @@ public class ImageAsyncTag implements AsyncCallback<Drawable[]> {
 	/**
 	 * Constructor of <code>AsyncDrawable</code>
 	 */
-	public ImageAsyncTag(ImageWorker imgWorker, @NonNull String mKey, ImageWorker.ImageType imageType, ImageView... imageViews) {
-		bitmapWorkerTask = new BitmapWorkerTask(imgWorker, imageType);
+	public ImageAsyncTag(ImageWorker imgWorker, @NonNull String mKey, ImageWorker.ImageType imageType, ImageWorker.ArtworkSize size, ImageView... imageViews) {
+		bitmapWorkerTask = new BitmapWorkerTask(imgWorker, imageType, size, false);
+		downloadTask = new BitmapWorkerTask(imgWorker, imageType, size, true);
 		this.imageViews = imageViews;
 		this.mKey = mKey;
+		imageCache = imgWorker.getImageCache();
 	}
 
 
 	@Override
 	public void onResult(@NonNull Drawable[] drawables) {
-		if (imageViews != null) {
+		if (drawables == BitmapWorkerTask.DOWNLOAD) {
+			// download only if the view still shows this image
+			if (imageViews != null && imageViews[0].getTag() == this) {
+				downloadTask.execute(param, this);
+			}
+		} else if (imageViews != null) {
 			imageViews[0].setImageDrawable(drawables[0]);
+			if (imageCache != null && drawables[0] instanceof LayerDrawable) {
+				// the cached bitmap is the last layer of the transition
+				LayerDrawable layers = (LayerDrawable) drawables[0];
+				Drawable layer = layers.getDrawable(layers.getNumberOfLayers() - 1);
+				if (layer instanceof BitmapDrawable) {
+					imageCache.setShownBitmap(imageViews[0], ((BitmapDrawable) layer).getBitmap());
+				}
+			}
 			if (imageViews.length > 1) {
 				imageViews[1].setImageDrawable(drawables[1]);
 			}
@@ -53,7 +85,7 @@ public class ImageAsyncTag implements AsyncCallback<Drawable[]> {
 	 * execute background task
 	 */
 	public void run(String artistName, String albumName, long albumId) {
-		String[] param = {mKey, artistName, albumName, Long.toString(albumId)};
+		param = new String[]{mKey, artistName, albumName, Long.toString(albumId)};
 		bitmapWorkerTask.execute(param, this);
 	}
 
@@ -62,6 +94,7 @@ public class ImageAsyncTag implements AsyncCallback<Drawable[]> {
 	 */
 	public void cancel() {
 		bitmapWorkerTask.cancel();
+		downloadTask.cancel();
 	}
 
 	/**
@@ -25,11 +25,13 @@ import android.os.Looper;
 import android.os.ParcelFileDescriptor;
 import android.os.StatFs;
 import android.util.Log;
+import android.widget.ImageView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import org.nuclearfog.apollo.BuildConfig;
+import org.nuclearfog.apollo.cache.ImageWorker.ArtworkSize;
 
 import java.io.File;
 import java.io.FileDescriptor;
@@ -37,11 +39,10 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 
 /**
  * This class holds the memory and disk bitmap caches.
+ * Images are cached for every {@link ArtworkSize}, downloaded images are also stored with their original size.
  */
 public final class ImageCache implements ComponentCallbacks2 {
 
@@ -70,6 +71,16 @@ public final class ImageCache implements ComponentCallbacks2 {
 	 */
 	private static final Uri mArtworkUri = Uri.parse("content://media/external/audio/albumart");
 
+	/**
+	 * maximum width and height of a decoded image
+	 */
+	private static final int MAX_IMAGE_SIZE = 1024;
+
+	/**
+	 * size of the bitmap pool as a part of the memory cache size
+	 */
+	private static final int POOL_SIZE_DIVIDER = 8;
+
 	/**
 	 * Disk cache index to read from
 	 */
@@ -80,6 +91,21 @@ public final class ImageCache implements ComponentCallbacks2 {
 	 */
 	private static final int COMPRESS_QUALITY = 90;
 
+	/**
+	 * version of the disk cache, changing the version clears the disk cache
+	 */
+	private static final int DISK_CACHE_VERSION = 2;
+
+	/**
+	 * bits of an image key used for the image size, enough for up to 8 sizes
+	 */
+	private static final long SIZE_MASK = 0x7;
+
+	/**
+	 * image sizes by their ordinal
+	 */
+	private static final ArtworkSize[] SIZES = ArtworkSize.values();
+
 	/**
 	 * singleton instance of this class
 	 */
@@ -105,12 +131,24 @@ public final class ImageCache implements ComponentCallbacks2 {
 	@Nullable
 	private DiskLruCache mDiskCache;
 
+	/**
+	 * pool of bitmaps evicted from the memory cache
+	 */
+	@Nullable
+	private BitmapPool mBitmapPool;
+
+	/**
+	 * display density used to calculate the image sizes
+	 */
+	private float mDensity;
+
 	/**
 	 * Constructor of <code>ImageCache</code>
 	 *
 	 * @param context The {@link Context} to use
 	 */
 	private ImageCache(Context context) {
+		mDensity = context.getResources().getDisplayMetrics().density;
 		init(context);
 	}
 
@@ -158,45 +196,39 @@ public final class ImageCache implements ComponentCallbacks2 {
 	}
 
 	/**
-	 * A hashing method that changes a string (like a URL) into a hash suitable
-	 * for using as a disk filename.
+	 * create a 64 bit key of an image used for the memory cache and as disk cache file name.
+	 * the lowest bits contain the image size.
 	 *
-	 * @param key The key used to store the file
-	 */
-	public static String hashKeyForDisk(String key) {
-		String cacheKey;
-		try {
-			MessageDigest digest = MessageDigest.getInstance("MD5");
-			digest.update(key.getBytes());
-			cacheKey = bytesToHexString(digest.digest());
-		} catch (NoSuchAlgorithmException e) {
-			if (BuildConfig.DEBUG) {
-				e.printStackTrace();
-			}
-			cacheKey = String.valueOf(key.hashCode());
+	 * @param data The key identifier
+	 * @param size The size of the image
+	 */
+	public static long getImageKey(String data, ArtworkSize size) {
+		// 64 bit FNV-1a hash
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < data.length(); i++) {
+			hash ^= data.charAt(i);
+			hash *= 0x100000001b3L;
 		}
-		return cacheKey;
+		// mix bits, so the remaining bits depend on all characters
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		return (hash & ~SIZE_MASK) | size.ordinal();
 	}
 
 	/**
-	 * <a href="http://stackoverflow.com/questions/332079">...</a>
-	 *
-	 * @param bytes The bytes to convert.
-	 * @return A {@link String} converted from the bytes of a hashable key used
-	 * to store a filename on the disk, to hex digits.
-	 */
-	private static String bytesToHexString(byte[] bytes) {
-		StringBuilder builder = new StringBuilder();
-		for (byte b : bytes) {
-			String hex = Integer.toHexString(0xFF & b);
-			if (hex.length() == 1) {
-				builder.append('0');
-			}
-			builder.append(hex);
-		}
-		return builder.toString();
+	 * get the image size of a key created by {@link #getImageKey(String, ArtworkSize)}
+	 */
+	public static ArtworkSize getImageSize(long key) {
+		return SIZES[(int) (key & SIZE_MASK)];
 	}
 
+	/**
+	 * get the disk cache file name of an image key
+	 */
+	private static String getDiskKey(long key) {
+		return Long.toHexString(key);
+	}
 
 	/**
 	 * {@inheritDoc}
@@ -209,6 +241,9 @@ public final class ImageCache implements ComponentCallbacks2 {
 			if (mLruCache != null) {
 				mLruCache.trimToSize(mLruCache.size() / 2);
 			}
+			if (mBitmapPool != null) {
+				mBitmapPool.clear();
+			}
 		}
 	}
 
@@ -270,7 +305,7 @@ public final class ImageCache implements ComponentCallbacks2 {
 			}
 			if (isSpaceAvailable(cacheFolder.getPath())) {
 				try {
-					mDiskCache = DiskLruCache.open(cacheFolder, 1, 1, DISK_CACHE_SIZE);
+					mDiskCache = DiskLruCache.open(cacheFolder, DISK_CACHE_VERSION, 1, DISK_CACHE_SIZE);
 				} catch (IOException e) {
 					if (BuildConfig.DEBUG) {
 						e.printStackTrace();
@@ -293,7 +328,8 @@ public final class ImageCache implements ComponentCallbacks2 {
 		} else {
 			lruCacheSize = 16000000;
 		}
-		mLruCache = new MemoryCache(lruCacheSize);
+		mBitmapPool = new BitmapPool(lruCacheSize / POOL_SIZE_DIVIDER);
+		mLruCache = new MemoryCache(lruCacheSize, mBitmapPool);
 		// Release some memory as needed
 		context.registerComponentCallbacks(this);
 	}
@@ -308,66 +344,30 @@ public final class ImageCache implements ComponentCallbacks2 {
 		if (data == null || bitmap == null) {
 			return;
 		}
-
 		// Add to memory cache
-		addBitmapToMemCache(data, bitmap);
-
+		addBitmapToMemCache(data, ArtworkSize.FULL, bitmap);
 		// Add to disk cache
-		if (mDiskCache != null) {
-			String key = hashKeyForDisk(data);
-			OutputStream out = null;
-			try {
-				DiskLruCache.Snapshot snapshot = mDiskCache.get(key);
-				if (snapshot == null) {
-					DiskLruCache.Editor editor = mDiskCache.edit(key);
-					if (editor != null) {
-						out = editor.newOutputStream(DISK_CACHE_INDEX);
-						bitmap.compress(COMPRESS_FORMAT, COMPRESS_QUALITY, out);
-						editor.commit();
-						out.close();
-						flush();
-					}
-				} else {
-					snapshot.getInputStream(DISK_CACHE_INDEX).close();
-				}
-			} catch (IOException e) {
-				if (BuildConfig.DEBUG) {
-					e.printStackTrace();
-					Log.e(TAG, "addBitmapToCache - " + e);
-				}
-			} finally {
-				try {
-					if (out != null) {
-						out.close();
-					}
-				} catch (IOException e) {
-					if (BuildConfig.DEBUG) {
-						e.printStackTrace();
-						Log.e(TAG, "addBitmapToCache - " + e);
-					}
-				} catch (IllegalStateException e) {
-					if (BuildConfig.DEBUG) {
-						e.printStackTrace();
-						Log.e(TAG, "addBitmapToCache - " + e);
-					}
-				}
-			}
-		}
+		addBitmapToDiskCache(getDiskKey(getImageKey(data, ArtworkSize.FULL)), bitmap);
 	}
 
 	/**
 	 * Called to add a new image to the memory cache
 	 *
 	 * @param data   The key identifier
+	 * @param size   The size of the image
 	 * @param bitmap The {@link Bitmap} to cache
 	 */
-	public void addBitmapToMemCache(String data, Bitmap bitmap) {
+	public void addBitmapToMemCache(String data, ArtworkSize size, Bitmap bitmap) {
 		if (data == null || bitmap == null) {
 			return;
 		}
 		// Add to memory cache
-		if (mLruCache != null && getBitmapFromMemCache(data) == null) {
-			mLruCache.put(data, bitmap);
+		if (mLruCache != null && getBitmapFromMemCache(data, size) == null) {
+			// mark the bitmap as used until it is shown, so it isn't reused if evicted in the meantime
+			if (mBitmapPool != null) {
+				mBitmapPool.pin(bitmap);
+			}
+			mLruCache.put(getImageKey(data, size), bitmap);
 		}
 	}
 
@@ -375,68 +375,54 @@ public final class ImageCache implements ComponentCallbacks2 {
 	 * Fetches a cached image from the memory cache
 	 *
 	 * @param data Unique identifier for which item to get
+	 * @param size The size of the image
 	 * @return The {@link Bitmap} if found in cache, null otherwise
 	 */
-	public Bitmap getBitmapFromMemCache(String data) {
+	public Bitmap getBitmapFromMemCache(String data, ArtworkSize size) {
 		if (data == null) {
 			return null;
 		}
 		if (mLruCache != null) {
-			return mLruCache.get(data);
+			return mLruCache.get(getImageKey(data, size));
 		}
 		return null;
 	}
 
 	/**
-	 * Fetches a cached image from the disk cache
+	 * Fetches a cached image from the disk cache. If the image size is not cached yet,
+	 * the image is decoded from the original image and added to the disk cache.
 	 *
 	 * @param data Unique identifier for which item to get
+	 * @param size The size of the image
 	 * @return The {@link Bitmap} if found in cache, null otherwise
 	 */
-	public Bitmap getBitmapFromDiskCache(String data) {
+	public Bitmap getBitmapFromDiskCache(String data, ArtworkSize size) {
 		if (data == null) {
 			return null;
 		}
 
 		// Check in the memory cache here to avoid going to the disk cache less
 		// often
-		if (getBitmapFromMemCache(data) != null) {
-			return getBitmapFromMemCache(data);
+		Bitmap bitmap = getBitmapFromMemCache(data, size);
+		if (bitmap != null) {
+			return bitmap;
 		}
 
 		waitUntilUnpaused();
-		String key = hashKeyForDisk(data);
-		if (mDiskCache != null) {
-			InputStream inputStream = null;
-			try {
-				DiskLruCache.Snapshot snapshot = mDiskCache.get(key);
-				if (snapshot != null) {
-					inputStream = snapshot.getInputStream(DISK_CACHE_INDEX);
-					if (inputStream != null) {
-						Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
-						if (bitmap != null) {
-							return bitmap;
-						}
-					}
-				}
-			} catch (IOException e) {
-				if (BuildConfig.DEBUG) {
-					e.printStackTrace();
-					Log.e(TAG, "getBitmapFromDiskCache - " + e);
-				}
-			} finally {
-				try {
-					if (inputStream != null) {
-						inputStream.close();
-					}
-				} catch (IOException e) {
-					if (BuildConfig.DEBUG) {
-						e.printStackTrace();
-					}
-				}
+		int pixels = getPixelSize(size);
+		String original = getDiskKey(getImageKey(data, ArtworkSize.FULL));
+		if (size != ArtworkSize.FULL) {
+			String key = getDiskKey(getImageKey(data, size));
+			bitmap = getBitmapFromDiskCache(key, pixels);
+			// create the image size from the original image
+			if (bitmap == null) {
+				bitmap = getBitmapFromDiskCache(original, pixels);
+				addBitmapToDiskCache(key, bitmap);
 			}
+		} else {
+			bitmap = getBitmapFromDiskCache(original, pixels);
 		}
-		return null;
+		return bitmap;
 	}
 
 	/**
@@ -444,16 +430,17 @@ public final class ImageCache implements ComponentCallbacks2 {
 	 * disk cache
 	 *
 	 * @param data Unique identifier for which item to get
+	 * @param size The size of the image
 	 * @return The {@link Bitmap} if found in cache, null otherwise
 	 */
 	@Nullable
-	public Bitmap getCachedBitmap(String data) {
+	public Bitmap getCachedBitmap(String data, ArtworkSize size) {
 		if (data == null) {
 			return null;
 		}
-		Bitmap cachedImage = getBitmapFromDiskCache(data);
+		Bitmap cachedImage = getBitmapFromDiskCache(data, size);
 		if (cachedImage != null) {
-			addBitmapToMemCache(data, cachedImage);
+			addBitmapToMemCache(data, size, cachedImage);
 			return cachedImage;
 		}
 		return null;
@@ -466,19 +453,24 @@ public final class ImageCache implements ComponentCallbacks2 {
 	 * @param context The {@link Context} to use
 	 * @param data    The name of the album art
 	 * @param id      The ID of the album to find artwork for
+	 * @param size    The size of the image
 	 * @return The artwork for an album
 	 */
 	@Nullable
-	public Bitmap getCachedArtwork(Context context, String data, long id) {
+	public Bitmap getCachedArtwork(Context context, String data, long id, ArtworkSize size) {
 		if (context == null || data == null) {
 			return null;
 		}
-		Bitmap cachedImage = getCachedBitmap(data);
+		Bitmap cachedImage = getCachedBitmap(data, size);
 		if (cachedImage == null && id >= 0) {
-			cachedImage = getArtworkFromFile(context, id);
+			cachedImage = getArtworkFromFile(context, id, size);
+			// cache decoded image size, the original image is already stored on the device
+			if (cachedImage != null && size != ArtworkSize.FULL) {
+				addBitmapToDiskCache(getDiskKey(getImageKey(data, size)), cachedImage);
+			}
 		}
 		if (cachedImage != null) {
-			addBitmapToMemCache(data, cachedImage);
+			addBitmapToMemCache(data, size, cachedImage);
 			return cachedImage;
 		}
 		return null;
@@ -489,10 +481,11 @@ public final class ImageCache implements ComponentCallbacks2 {
 	 *
 	 * @param context The {@link Context} to use
 	 * @param albumId ID of the album to get the artwork from
+	 * @param size    The size of the image
 	 * @return The artwork for an album
 	 */
 	@Nullable
-	public Bitmap getArtworkFromFile(Context context, long albumId) {
+	public Bitmap getArtworkFromFile(Context context, long albumId, ArtworkSize size) {
 		Bitmap artwork = null;
 		waitUntilUnpaused();
 		try {
@@ -500,7 +493,21 @@ public final class ImageCache implements ComponentCallbacks2 {
 			ParcelFileDescriptor fileDescr = context.getContentResolver().openFileDescriptor(uri, "r");
 			if (fileDescr != null) {
 				FileDescriptor fileDescriptor = fileDescr.getFileDescriptor();
-				artwork = BitmapFactory.decodeFileDescriptor(fileDescriptor);
+				// read image size first
+				BitmapFactory.Options options = new BitmapFactory.Options();
+				options.inJustDecodeBounds = true;
+				BitmapFactory.decodeFileDescriptor(fileDescriptor, null, options);
+				setSampleSize(options, getPixelSize(size));
+				setInBitmap(options);
+				try {
+					artwork = BitmapFactory.decodeFileDescriptor(fileDescriptor, null, options);
+				} catch (IllegalArgumentException e) {
+					// reused bitmap does not match, decode without reusing a bitmap
+					releaseInBitmap(options, null);
+					artwork = BitmapFactory.decodeFileDescriptor(fileDescriptor, null, options);
+				}
+				releaseInBitmap(options, artwork);
+				setNoDensity(artwork);
 				fileDescr.close();
 			}
 		} catch (OutOfMemoryError e) {
@@ -513,28 +520,219 @@ public final class ImageCache implements ComponentCallbacks2 {
 		return artwork;
 	}
 
+	/**
+	 * get the minimum width and height of an image size
+	 *
+	 * @param size The size of the image
+	 * @return size in pixels
+	 */
+	public int getPixelSize(ArtworkSize size) {
+		if (size == ArtworkSize.FULL)
+			return MAX_IMAGE_SIZE;
+		return Math.min(MAX_IMAGE_SIZE, Math.round(size.dp * mDensity));
+	}
+
+	/**
+	 * set a bitmap of the pool to reuse for decoding an image.
+	 * {@link #releaseInBitmap(BitmapFactory.Options, Bitmap)} should be called after decoding
+	 *
+	 * @param options options containing the size of the image and the sample size
+	 */
+	public void setInBitmap(BitmapFactory.Options options) {
+		// decoded bitmaps must be mutable to be reused later
+		options.inMutable = true;
+		if (mBitmapPool != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+			int sampleSize = Math.max(1, options.inSampleSize);
+			int width = (options.outWidth + sampleSize - 1) / sampleSize;
+			int height = (options.outHeight + sampleSize - 1) / sampleSize;
+			if (options.inScaled && options.inDensity > 0 && options.inTargetDensity > 0) {
+				width = width * options.inTargetDensity / options.inDensity + 1;
+				height = height * options.inTargetDensity / options.inDensity + 1;
+			}
+			// decoded images use 4 bytes per pixel
+			options.inBitmap = mBitmapPool.get(width * height * 4);
+		}
+	}
+
+	/**
+	 * add the bitmap set by {@link #setInBitmap(BitmapFactory.Options)} back to the pool if it was not used
+	 *
+	 * @param options options used to decode an image
+	 * @param result  decoded image or null if decoding failed
+	 */
+	public void releaseInBitmap(BitmapFactory.Options options, @Nullable Bitmap result) {
+		if (mBitmapPool != null && options.inBitmap != null && options.inBitmap != result) {
+			mBitmapPool.put(options.inBitmap);
+		}
+		options.inBitmap = null;
+	}
+
+	/**
+	 * set the bitmap shown by an image view, so the bitmap will not be reused while it is shown
+	 *
+	 * @param view   image view
+	 * @param bitmap bitmap shown by the view or null if the view doesn't show a cached image
+	 */
+	public void setShownBitmap(ImageView view, @Nullable Bitmap bitmap) {
+		if (mBitmapPool != null) {
+			mBitmapPool.setShown(view, bitmap);
+		}
+	}
+
+	/**
+	 * write an image to the disk cache if not cached yet
+	 *
+	 * @param key    hashed key of the image
+	 * @param bitmap The {@link Bitmap} to cache
+	 */
+	private void addBitmapToDiskCache(String key, @Nullable Bitmap bitmap) {
+		if (mDiskCache != null && bitmap != null) {
+			OutputStream out = null;
+			try {
+				DiskLruCache.Snapshot snapshot = mDiskCache.get(key);
+				if (snapshot == null) {
+					DiskLruCache.Editor editor = mDiskCache.edit(key);
+					if (editor != null) {
+						out = editor.newOutputStream(DISK_CACHE_INDEX);
+						bitmap.compress(COMPRESS_FORMAT, COMPRESS_QUALITY, out);
+						editor.commit();
+						out.close();
+					}
+				} else {
+					snapshot.getInputStream(DISK_CACHE_INDEX).close();
+				}
+			} catch (IOException e) {
+				if (BuildConfig.DEBUG) {
+					e.printStackTrace();
+					Log.e(TAG, "addBitmapToCache - " + e);
+				}
+			} finally {
+				try {
+					if (out != null) {
+						out.close();
+					}
+				} catch (IOException e) {
+					if (BuildConfig.DEBUG) {
+						e.printStackTrace();
+						Log.e(TAG, "addBitmapToCache - " + e);
+					}
+				} catch (IllegalStateException e) {
+					if (BuildConfig.DEBUG) {
+						e.printStackTrace();
+						Log.e(TAG, "addBitmapToCache - " + e);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * decode an image of the disk cache
+	 *
+	 * @param key    hashed key of the image
+	 * @param pixels minimum width and height of the decoded image
+	 * @return The {@link Bitmap} if found in cache, null otherwise
+	 */
+	@Nullable
+	private Bitmap getBitmapFromDiskCache(String key, int pixels) {
+		if (mDiskCache != null) {
+			try {
+				// read image size first
+				BitmapFactory.Options options = new BitmapFactory.Options();
+				options.inJustDecodeBounds = true;
+				decodeDiskCache(key, options);
+				if (options.outWidth > 0 && options.outHeight > 0) {
+					setSampleSize(options, pixels);
+					setInBitmap(options);
+					Bitmap bitmap = decodeDiskCache(key, options);
+					releaseInBitmap(options, bitmap);
+					setNoDensity(bitmap);
+					return bitmap;
+				}
+			} catch (IOException e) {
+				if (BuildConfig.DEBUG) {
+					e.printStackTrace();
+					Log.e(TAG, "getBitmapFromDiskCache - " + e);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * decode an image of the disk cache with the given options
+	 *
+	 * @param key     hashed key of the image
+	 * @param options options used to decode
+	 * @return decoded image or null if not found
+	 */
+	@Nullable
+	private Bitmap decodeDiskCache(String key, BitmapFactory.Options options) throws IOException {
+		if (mDiskCache == null)
+			return null;
+		DiskLruCache.Snapshot snapshot = mDiskCache.get(key);
+		if (snapshot == null)
+			return null;
+		InputStream inputStream = snapshot.getInputStream(DISK_CACHE_INDEX);
+		try {
+			return BitmapFactory.decodeStream(inputStream, null, options);
+		} catch (IllegalArgumentException e) {
+			// reused bitmap does not match, decode again without reusing a bitmap
+			releaseInBitmap(options, null);
+			return decodeDiskCache(key, options);
+		} finally {
+			inputStream.close();
+		}
+	}
+
+	/**
+	 * set the options to decode an image with the given minimum width and height.
+	 * the image is first sampled down by a power of two and then scaled to the exact size while decoding.
+	 *
+	 * @param options options containing the size of the image
+	 * @param pixels  minimum width and height of the decoded image
+	 */
+	private static void setSampleSize(BitmapFactory.Options options, int pixels) {
+		int imageSize = Math.min(options.outWidth, options.outHeight);
+		options.inJustDecodeBounds = false;
+		options.inSampleSize = 1;
+		if (pixels > 0 && imageSize > pixels) {
+			while (imageSize / (options.inSampleSize * 2) >= pixels) {
+				options.inSampleSize *= 2;
+			}
+			options.inScaled = true;
+			options.inDensity = imageSize / options.inSampleSize;
+			options.inTargetDensity = pixels;
+		}
+	}
+
+	/**
+	 * remove the density used to scale a decoded image, so the image is shown with its pixel size
+	 */
+	private static void setNoDensity(@Nullable Bitmap bitmap) {
+		if (bitmap != null) {
+			bitmap.setDensity(Bitmap.DENSITY_NONE);
+		}
+	}
+
 	/**
 	 * flush() is called to synchronize up other methods that are accessing the
 	 * cache first
 	 */
 	public void flush() {
-		new Thread(new Runnable() {
-			@Override
-			public void run() {
-				if (mDiskCache != null) {
-					try {
-						if (!mDiskCache.isClosed()) {
-							mDiskCache.flush();
-						}
-					} catch (IOException e) {
-						if (BuildConfig.DEBUG) {
-							e.printStackTrace();
-							Log.e(TAG, "flush - " + e);
-						}
-					}
+		if (mDiskCache != null) {
+			try {
+				if (!mDiskCache.isClosed()) {
+					// journal is written in background
+					mDiskCache.flush();
+				}
+			} catch (IOException e) {
+				if (BuildConfig.DEBUG) {
+					e.printStackTrace();
+					Log.e(TAG, "flush - " + e);
 				}
 			}
-		}).start();
+		}
 	}
 
 	/**
@@ -567,6 +765,9 @@ public final class ImageCache implements ComponentCallbacks2 {
 		if (mLruCache != null) {
 			mLruCache.evictAll();
 		}
+		if (mBitmapPool != null) {
+			mBitmapPool.clear();
+		}
 	}
 
 	/**
@@ -576,14 +777,17 @@ public final class ImageCache implements ComponentCallbacks2 {
 		if (key == null) {
 			return;
 		}
-		// Remove the Lru entry
-		if (mLruCache != null) {
-			mLruCache.remove(key);
-		}
 		try {
-			// Remove the disk entry
-			if (mDiskCache != null) {
-				mDiskCache.remove(hashKeyForDisk(key));
+			for (ArtworkSize size : ArtworkSize.values()) {
+				long imageKey = getImageKey(key, size);
+				// Remove the Lru entry
+				if (mLruCache != null) {
+					mLruCache.remove(imageKey);
+				}
+				// Remove the disk entry
+				if (mDiskCache != null) {
+					mDiskCache.remove(getDiskKey(imageKey));
+				}
 			}
 		} catch (IOException e) {
 			if (BuildConfig.DEBUG) {
@@ -636,17 +840,45 @@ public final class ImageCache implements ComponentCallbacks2 {
 	}
 
 	/**
-	 * Used to cache images via {@link LruCache}.
+	 * Used to cache images via {@link LongLruCache} using the keys of {@link #getImageKey(String, ArtworkSize)}.
+	 * Evicted list and grid images are added to a {@link BitmapPool}.
 	 */
-	public static class MemoryCache extends LruCache<String, Bitmap> {
+	public static class MemoryCache extends LongLruCache<Bitmap> {
+
+		private BitmapPool pool;
 
 		/**
 		 * Constructor of <code>MemoryCache</code>
 		 *
-		 * @param maxSize The allowed size of the {@link LruCache}
+		 * @param maxSize The allowed size of the {@link LongLruCache}
+		 * @param pool    pool used to reuse evicted bitmaps
 		 */
-		public MemoryCache(int maxSize) {
+		public MemoryCache(int maxSize, BitmapPool pool) {
 			super(maxSize);
+			this.pool = pool;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void entryRemoved(boolean evicted, long key, Bitmap oldValue) {
+			// only list and grid images are reused, larger images may still be used outside of image views
+			if (evicted) {
+				ArtworkSize size = getImageSize(key);
+				if (size == ArtworkSize.THUMBNAIL || size == ArtworkSize.GRID) {
+					pool.put(oldValue);
+				}
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@NonNull
+		@Override
+		protected String getKeyType(long key) {
+			return getImageSize(key).name();
 		}
 
 		/**
@@ -51,11 +51,6 @@ public class ImageFetcher extends ImageWorker {
 	private static final int DEFAULT_MAX_IMAGE_HEIGHT = 1024;
 	private static final int DEFAULT_MAX_IMAGE_WIDTH = 1024;
 
-	/**
-	 * size of the artist/album art of the notification image
-	 */
-	private static final int NOTIFICATION_SIZE = 200;
-
 	/**
 	 * location folder name of the image cache
 	 */
@@ -308,26 +303,30 @@ public class ImageFetcher extends ImageWorker {
 
 	/**
 	 * Used to fetch album images.
+	 *
+	 * @param size size of the image views
 	 */
-	public void loadAlbumImage(@Nullable Album album, ImageView... imageViews) {
+	public void loadAlbumImage(@Nullable Album album, ArtworkSize size, ImageView... imageViews) {
 		if (album != null) {
-			loadAlbumImage(album.getArtist(), album.getName(), album.getId(), imageViews);
+			loadAlbumImage(album.getArtist(), album.getName(), album.getId(), size, imageViews);
 		} else {
 			setDefaultImage(imageViews);
 		}
 	}
 
-	public void loadAlbumImage(String artist, String album, long id, ImageView... imageViews) {
+	public void loadAlbumImage(String artist, String album, long id, ArtworkSize size, ImageView... imageViews) {
 		String key = generateAlbumCacheKey(album, artist);
-		loadImage(key, artist, album, id, ImageType.ALBUM, imageViews);
+		loadImage(key, artist, album, id, ImageType.ALBUM, size, imageViews);
 	}
 
 	/**
 	 * Used to fetch artist images.
+	 *
+	 * @param size size of the image view
 	 */
-	public void loadArtistImage(String key, ImageView imageView) {
+	public void loadArtistImage(String key, ArtworkSize size, ImageView imageView) {
 		// fixme last FM does not return artist images anymore so try to download an album artwork instead
-		loadImage(key, key, null, -1L, ImageType.ALBUM, imageView);
+		loadImage(key, key, null, -1L, ImageType.ALBUM, size, imageView);
 	}
 
 	/**
@@ -349,22 +348,24 @@ public class ImageFetcher extends ImageWorker {
 	}
 
 	/**
-	 * @param key The key used to find the image to return
+	 * @param key  The key used to find the image to return
+	 * @param size size of the image
 	 */
-	public Bitmap getCachedBitmap(String key) {
+	public Bitmap getCachedBitmap(String key, ArtworkSize size) {
 		if (mImageCache != null) {
-			return mImageCache.getCachedBitmap(key);
+			return mImageCache.getCachedBitmap(key, size);
 		}
 		return getDefaultArtwork();
 	}
 
 	/**
 	 * @param album Album to load artwork from
+	 * @param size  size of the image
 	 */
-	public Bitmap getCachedArtwork(@Nullable Album album) {
+	public Bitmap getCachedArtwork(@Nullable Album album, ArtworkSize size) {
 		if (mImageCache != null && album != null) {
 			String key = generateAlbumCacheKey(album);
-			return mImageCache.getCachedArtwork(mContext, key, album.getId());
+			return mImageCache.getCachedArtwork(mContext, key, album.getId(), size);
 		}
 		return getDefaultArtwork();
 	}
@@ -381,20 +382,21 @@ public class ImageFetcher extends ImageWorker {
 		// Check the disk cache
 		Bitmap artwork = null;
 		if (mImageCache != null && album != null) {
-			artwork = mImageCache.getBitmapFromDiskCache(generateAlbumCacheKey(album));
+			artwork = mImageCache.getBitmapFromDiskCache(generateAlbumCacheKey(album), ArtworkSize.NOTIFICATION);
 			if (artwork == null) {
 				// Check for local artwork
-				artwork = mImageCache.getArtworkFromFile(mContext, album.getId());
+				artwork = mImageCache.getArtworkFromFile(mContext, album.getId(), ArtworkSize.NOTIFICATION);
 			}
 		}
 		if (artwork == null) {
 			artwork = getDefaultArtwork();
+			// scale down default image
+			if (artwork != null && mImageCache != null) {
+				int size = mImageCache.getPixelSize(ArtworkSize.NOTIFICATION);
+				artwork = Bitmap.createScaledBitmap(artwork, size, size, false);
+			}
 		}
-		if (artwork == null) {
-			return null;
-		}
-		// scale down image
-		return Bitmap.createScaledBitmap(artwork, NOTIFICATION_SIZE, NOTIFICATION_SIZE, false);
+		return artwork;
 	}
 
 
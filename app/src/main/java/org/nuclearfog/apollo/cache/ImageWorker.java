@@ -145,17 +145,19 @@ public abstract class ImageWorker {
 	 * @param imageviews The {@link ImageView} used to set the cached {@link Bitmap}.
 	 *                   a second image is optional and will be used to add blurring effect
 	 * @param imageType  The type of image URL to fetch for.
+	 * @param size       The size of the image views
 	 */
 	@SuppressWarnings("SameParameterValue")
-	protected void loadImage(String key, String artistName, String albumName, long albumId, ImageType imageType, ImageView... imageviews) {
+	protected void loadImage(String key, String artistName, String albumName, long albumId, ImageType imageType, ArtworkSize size, ImageView... imageviews) {
 		if (key != null && mImageCache != null && imageviews.length > 0) {
 			// reset artwork
 			setDefaultImage(imageviews);
 			// First, check the cache for the image
-			Bitmap lruBitmap = mImageCache.getBitmapFromMemCache(key);
+			Bitmap lruBitmap = mImageCache.getBitmapFromMemCache(key, size);
 			if (lruBitmap != null) {
 				// Bitmap found in memory cache
 				imageviews[0].setImageBitmap(lruBitmap);
+				mImageCache.setShownBitmap(imageviews[0], lruBitmap);
 				// add blurring to the second image if defined
 				if (imageviews.length > 1) {
 					Bitmap blur = BitmapUtils.createBlurredBitmap(lruBitmap);
@@ -165,7 +167,7 @@ public abstract class ImageWorker {
 			// check storage for image or download
 			else if (executePotentialWork(key, imageviews[0]) && !mImageCache.isDiskCachePaused()) {
 				// Otherwise run the worker task
-				ImageAsyncTag asyncTag = new ImageAsyncTag(this, key, imageType, imageviews);
+				ImageAsyncTag asyncTag = new ImageAsyncTag(this, key, imageType, size, imageviews);
 				imageviews[0].setTag(asyncTag);
 				asyncTag.run(artistName, albumName, albumId);
 			}
@@ -177,6 +179,9 @@ public abstract class ImageWorker {
 	 */
 	protected void setDefaultImage(ImageView... imageviews) {
 		imageviews[0].setImageResource(R.drawable.default_artwork);
+		if (mImageCache != null) {
+			mImageCache.setShownBitmap(imageviews[0], null);
+		}
 		if (imageviews.length > 1) {
 			imageviews[1].setImageResource(0);
 		}
@@ -209,4 +214,39 @@ public abstract class ImageWorker {
 	public enum ImageType {
 		ARTIST, ALBUM
 	}
+
+	/**
+	 * Size buckets of the images. Every size is cached separately and decoded to the size of the bucket
+	 */
+	public enum ArtworkSize {
+
+		/**
+		 * image of a list item or of the playback bar
+		 */
+		THUMBNAIL(64),
+
+		/**
+		 * image of a grid item or of a detailed list item
+		 */
+		GRID(180),
+
+		/**
+		 * image of the notification or of a widget
+		 */
+		NOTIFICATION(128),
+
+		/**
+		 * image of the player or of a profile
+		 */
+		FULL(0);
+
+		/**
+		 * minimum width and height of the image in dp, 0 to use the maximum image size
+		 */
+		final int dp;
+
+		ArtworkSize(int dp) {
+			this.dp = dp;
+		}
+	}
 }
\ No newline at end of file
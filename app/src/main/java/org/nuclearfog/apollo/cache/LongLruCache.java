@@ -0,0 +1,156 @@
+package org.nuclearfog.apollo.cache;
+
+import android.util.LongSparseArray;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Version of {@link LruCache} using primitive long keys, so looking up an entry doesn't
+ * allocate objects. Segments and eviction are shared with {@link LruCache}, see {@link SegmentedLruCache}.
+ *
+ * @author nuclearfog
+ */
+public class LongLruCache<V> extends SegmentedLruCache<V, LongLruCache.Entry<V>> {
+
+	/**
+	 * @param maxSize maximum sum of the sizes of the entries, see {@link #sizeOf}
+	 */
+	public LongLruCache(int maxSize) {
+		super(maxSize);
+	}
+
+	/**
+	 * Returns the value for {@code key} if it exists in the cache. If a value
+	 * was returned, it is moved to the head of the queue.
+	 *
+	 * @return cached value or null if not cached
+	 */
+	@Nullable
+	public final V get(long key) {
+		LongSegment<V> segment = getSegment(key);
+		Entry<V> node;
+		synchronized (segment) {
+			node = segment.map.get(key);
+			if (node != null) {
+				access(segment, node);
+			}
+		}
+		if (node != null) {
+			count(getKeyType(key), CacheStats.HIT);
+			return node.value;
+		}
+		count(getKeyType(key), CacheStats.MISS);
+		return null;
+	}
+
+	/**
+	 * Caches {@code value} for {@code key}. The value is moved to the head of
+	 * the queue.
+	 */
+	public void put(long key, V value) {
+		if (value == null) {
+			throw new NullPointerException("value == null");
+		}
+		Entry<V> node = new Entry<>(key, value, safeSizeOf(value));
+		LongSegment<V> segment = getSegment(key);
+		Entry<V> previous;
+		synchronized (segment) {
+			previous = segment.map.get(key);
+			segment.map.put(key, node);
+			added(segment, node, previous);
+		}
+		if (previous != null) {
+			entryRemoved(false, key, previous.value);
+		}
+		trim();
+	}
+
+	/**
+	 * Removes the entry for {@code key} if it exists.
+	 */
+	public void remove(long key) {
+		LongSegment<V> segment = getSegment(key);
+		Entry<V> previous;
+		synchronized (segment) {
+			previous = segment.map.get(key);
+			if (previous != null) {
+				segment.map.remove(key);
+				removed(segment, previous);
+			}
+		}
+		if (previous != null) {
+			entryRemoved(false, key, previous.value);
+		}
+	}
+
+	/**
+	 * Called for entries that have been evicted or removed, see {@link LruCache#entryRemoved}
+	 * The method is called without synchronization.
+	 *
+	 * @param evicted  true if the entry is being removed to make space, false
+	 *                 if the removal was caused by a {@link #put} or {@link #remove}.
+	 * @param key      key of the entry
+	 * @param oldValue removed value
+	 */
+	protected void entryRemoved(boolean evicted, long key, V oldValue) {
+	}
+
+	/**
+	 * Returns the type of a key used to count hits, misses and evictions separately.
+	 * The default implementation returns null, so only the total statistics are counted.
+	 *
+	 * @param key key of an entry
+	 * @return name of the type or null
+	 */
+	@Nullable
+	protected String getKeyType(long key) {
+		return null;
+	}
+
+
+	@Override
+	final LongSegment<V> createSegment() {
+		return new LongSegment<>();
+	}
+
+
+	@Override
+	final void onEvicted(Entry<V> node) {
+		count(getKeyType(node.key), CacheStats.EVICTION);
+		entryRemoved(true, node.key, node.value);
+	}
+
+	/**
+	 * get the segment of a key
+	 */
+	private LongSegment<V> getSegment(long key) {
+		return (LongSegment<V>) segmentOf((int) (key ^ (key >>> 32)));
+	}
+
+	/**
+	 * segment using a {@link LongSparseArray} to find entries
+	 */
+	static final class LongSegment<V> extends Segment<V, Entry<V>> {
+
+		final LongSparseArray<Entry<V>> map = new LongSparseArray<>();
+
+
+		@Override
+		void removeEntry(Entry<V> node) {
+			map.remove(node.key);
+		}
+	}
+
+	/**
+	 * cached value with its key
+	 */
+	static final class Entry<V> extends Node<V> {
+
+		final long key;
+
+		Entry(long key, V value, int size) {
+			super(value, size);
+			this.key = key;
+		}
+	}
+}
@@ -12,39 +12,20 @@
 package org.nuclearfog.apollo.cache;
 
 // NOTE: upstream of this class is android.util.LruCache, changes below
-// expose trimToSize() to be called externally.
+// expose trimToSize() to be called externally and split the cache into
+// segments with separate locks.
 
-import android.annotation.SuppressLint;
+import androidx.annotation.Nullable;
 
-import androidx.annotation.NonNull;
-
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.HashMap;
 
 /**
- * Static library version of {@link android.util.LruCache}. Used to write apps
- * that run on API levels prior to 12. When running on API level 12 or above,
- * this implementation is still used; it does not try to switch to the
- * framework's implementation. See the framework SDK documentation for a class
- * overview.
+ * Concurrent version of {@link android.util.LruCache}. Entries are split into segments
+ * by the hash of their key, every segment has its own lock and access order, so threads
+ * accessing different keys don't block each other. The size is shared by all segments,
+ * the least recently used entry of all segments is evicted first.
  */
-public class LruCache<K, V> {
-
-
-	private static final String TAG = "lru_cache";
-
-	private LinkedHashMap<K, V> map;
-
-	private int maxSize;
-
-	/**
-	 * Size of this cache in units. Not necessarily the number of elements.
-	 */
-	private int size;
-
-	private int hitCount;
-
-	private int missCount;
+public class LruCache<K, V> extends SegmentedLruCache<V, LruCache.Entry<K, V>> {
 
 	/**
 	 * @param maxSize for caches that do not override {@link #sizeOf}, this is
@@ -53,33 +34,31 @@ public class LruCache<K, V> {
 	 *                this cache.
 	 */
 	public LruCache(int maxSize) {
-		if (maxSize <= 0) {
-			throw new IllegalArgumentException("maxSize <= 0");
-		}
-		this.maxSize = maxSize;
-		this.map = new LinkedHashMap<>(0, 0.75f, true);
+		super(maxSize);
 	}
 
 	/**
-	 * Returns the value for {@code key} if it exists in the cache or can be
-	 * created by {@code #create}. If a value was returned, it is moved to the
-	 * head of the queue. This returns null if a value is not cached and cannot
-	 * be created.
+	 * Returns the value for {@code key} if it exists in the cache. If a value
+	 * was returned, it is moved to the head of the queue. This returns null
+	 * if a value is not cached.
 	 */
 	public final V get(K key) {
 		if (key == null) {
 			throw new NullPointerException("key == null");
 		}
-
-		V mapValue;
-		synchronized (this) {
-			mapValue = map.get(key);
-			if (mapValue != null) {
-				this.hitCount++;
-				return mapValue;
+		KeySegment<K, V> segment = getSegment(key);
+		Entry<K, V> node;
+		synchronized (segment) {
+			node = segment.map.get(key);
+			if (node != null) {
+				access(segment, node);
 			}
-			this.missCount++;
 		}
+		if (node != null) {
+			count(getKeyType(key), CacheStats.HIT);
+			return node.value;
+		}
+		count(getKeyType(key), CacheStats.MISS);
 		return null;
 	}
 
@@ -91,40 +70,17 @@ public class LruCache<K, V> {
 		if (key == null || value == null) {
 			throw new NullPointerException("key == null || value == null");
 		}
-		synchronized (this) {
-			this.size += safeSizeOf(key, value);
-			V previous = this.map.put(key, value);
-			if (previous != null) {
-				this.size -= safeSizeOf(key, previous);
-			}
+		Entry<K, V> node = new Entry<>(key, value, safeSizeOf(value));
+		KeySegment<K, V> segment = getSegment(key);
+		Entry<K, V> previous;
+		synchronized (segment) {
+			previous = segment.map.put(key, node);
+			added(segment, node, previous);
 		}
-		trimToSize(maxSize);
-	}
-
-	/**
-	 * @param maxSize the maximum size of the cache before returning. May be -1
-	 *                to evict even 0-sized elements.
-	 */
-	public void trimToSize(int maxSize) {
-		while (true) {
-			K key;
-			V value;
-			synchronized (this) {
-				if (this.size < 0 || this.map.isEmpty() && size != 0) {
-					throw new IllegalStateException(TAG + ".sizeOf() is reporting inconsistent results!");
-				}
-
-				if (this.size <= maxSize || this.map.isEmpty()) {
-					break;
-				}
-
-				Map.Entry<K, V> toEvict = this.map.entrySet().iterator().next();
-				key = toEvict.getKey();
-				value = toEvict.getValue();
-				this.map.remove(key);
-				this.size -= safeSizeOf(key, value);
-			}
+		if (previous != null) {
+			entryRemoved(false, key, previous.value);
 		}
+		trim();
 	}
 
 	/**
@@ -134,54 +90,94 @@ public class LruCache<K, V> {
 		if (key == null) {
 			throw new NullPointerException("key == null");
 		}
-		synchronized (this) {
-			V previous = this.map.remove(key);
+		KeySegment<K, V> segment = getSegment(key);
+		Entry<K, V> previous;
+		synchronized (segment) {
+			previous = segment.map.remove(key);
 			if (previous != null) {
-				this.size -= safeSizeOf(key, previous);
+				removed(segment, previous);
 			}
 		}
+		if (previous != null) {
+			entryRemoved(false, key, previous.value);
+		}
 	}
 
 
-	private int safeSizeOf(K key, V value) {
-		int result = sizeOf(value);
-		if (result < 0) {
-			throw new IllegalStateException("Negative size: " + key + "=" + value);
-		}
-		return result;
+	/**
+	 * Called for entries that have been evicted or removed. This method is
+	 * invoked when a value is evicted to make space, removed by a call to
+	 * {@link #remove}, or replaced by a call to {@link #put}. The default
+	 * implementation does nothing.
+	 * <p>
+	 * The method is called without synchronization: other threads may
+	 * access the cache while this method is executing.
+	 *
+	 * @param evicted  true if the entry is being removed to make space, false
+	 *                 if the removal was caused by a {@link #put} or {@link #remove}.
+	 * @param key      key of the entry
+	 * @param oldValue removed value
+	 */
+	protected void entryRemoved(boolean evicted, K key, V oldValue) {
 	}
 
 	/**
-	 * Returns the size of the entry for {@code key} and {@code value} in
-	 * user-defined units. The default implementation returns 1 so that size is
-	 * the number of entries and max size is the maximum number of entries.
-	 * <p>
-	 * An entry's size must not change while it is in the cache.
+	 * Returns the type of a key used to count hits, misses and evictions separately
+	 * for different kinds of entries. The default implementation returns null,
+	 * so only the total statistics are counted.
+	 *
+	 * @param key key of an entry
+	 * @return name of the type or null
 	 */
-	protected int sizeOf(V value) {
-		return 1;
+	@Nullable
+	protected String getKeyType(K key) {
+		return null;
+	}
+
+
+	@Override
+	final KeySegment<K, V> createSegment() {
+		return new KeySegment<>();
 	}
 
 
-	public void evictAll() {
-		trimToSize(-1); // -1 will evict 0-sized elements
+	@Override
+	final void onEvicted(Entry<K, V> node) {
+		count(getKeyType(node.key), CacheStats.EVICTION);
+		entryRemoved(true, node.key, node.value);
 	}
 
 	/**
-	 * For caches that do not override {@link #sizeOf}, this returns the number
-	 * of entries in the cache. For all other caches, this returns the sum of
-	 * the sizes of the entries in this cache.
+	 * get the segment of a key
 	 */
-	public synchronized int size() {
-		return this.size;
+	private KeySegment<K, V> getSegment(K key) {
+		return (KeySegment<K, V>) segmentOf(key.hashCode());
 	}
 
-	@NonNull
-	@SuppressLint("DefaultLocale")
-	@Override
-	public synchronized String toString() {
-		int accesses = this.hitCount + this.missCount;
-		int hitPercent = accesses != 0 ? 100 * this.hitCount / accesses : 0;
-		return String.format("LruCache[maxSize=%d,hits=%d,misses=%d,hitRate=%d%%]", this.maxSize, this.hitCount, this.missCount, hitPercent);
+	/**
+	 * segment using a hash map to find entries
+	 */
+	static final class KeySegment<K, V> extends Segment<V, Entry<K, V>> {
+
+		final HashMap<K, Entry<K, V>> map = new HashMap<>();
+
+
+		@Override
+		void removeEntry(Entry<K, V> node) {
+			map.remove(node.key);
+		}
+	}
+
+	/**
+	 * cached value with its key
+	 */
+	static final class Entry<K, V> extends Node<V> {
+
+		final K key;
+
+		Entry(K key, V value, int size) {
+			super(value, size);
+			this.key = key;
+		}
 	}
-}
\ No newline at end of file
+}
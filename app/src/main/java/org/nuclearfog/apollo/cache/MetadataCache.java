@@ -0,0 +1,300 @@
+package org.nuclearfog.apollo.cache;
+
+import android.annotation.SuppressLint;
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.database.ContentObserver;
+import android.provider.MediaStore.Audio.Genres;
+import android.provider.MediaStore.Audio.Media;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.nuclearfog.apollo.model.Song;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memory cache of track information shared by the track loaders.
+ * Tracks are cached by their ID, results of a loader are cached as a list of track IDs
+ * using the loader name, the loader parameter and the version of the cache as key.
+ * The cache is cleared after the MediaStore has changed or if the memory is low.
+ *
+ * @author nuclearfog
+ */
+public final class MetadataCache extends ContentObserver implements ComponentCallbacks2 {
+
+	/**
+	 * memory cache size as a percent of device memory class
+	 */
+	private static final float MEM_CACHE_DIVIDER = 0.02f;
+
+	/**
+	 * cache size used if the memory class is not available (2MB)
+	 */
+	private static final int DEFAULT_CACHE_SIZE = 2 * 1024 * 1024;
+
+	/**
+	 * estimated size of a track without strings
+	 */
+	private static final int SONG_SIZE = 80;
+
+	/**
+	 * estimated size of an array without content
+	 */
+	private static final int ARRAY_SIZE = 16;
+
+	private static MetadataCache sInstance;
+
+	/**
+	 * cached tracks using the track ID as key
+	 */
+	private LruCache<Long, Song> songs;
+
+	/**
+	 * cached loader results using the loader name, parameter and version as key
+	 */
+	private LruCache<String, long[]> queries;
+
+	/**
+	 * version of the cached content, incremented on every MediaStore change
+	 */
+	private volatile int version = 0;
+
+	private int hitCount = 0;
+	private int missCount = 0;
+
+	/**
+	 * @param context application context
+	 */
+	private MetadataCache(Context context) {
+		super(null);
+		ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+		int cacheSize;
+		if (activityManager != null) {
+			cacheSize = Math.round(MEM_CACHE_DIVIDER * activityManager.getMemoryClass() * 1024 * 1024);
+		} else {
+			cacheSize = DEFAULT_CACHE_SIZE;
+		}
+		// use a quarter of the cache for loader results
+		songs = new LruCache<Long, Song>(cacheSize - cacheSize / 4) {
+			@Override
+			protected int sizeOf(Song song) {
+				return SONG_SIZE + 2 * (song.getName().length() + song.getArtist().length() + song.getAlbum().length());
+			}
+		};
+		queries = new LruCache<String, long[]>(cacheSize / 4) {
+			@Override
+			protected int sizeOf(long[] ids) {
+				return ARRAY_SIZE + ids.length * 8;
+			}
+		};
+		ContentResolver resolver = context.getContentResolver();
+		resolver.registerContentObserver(Media.EXTERNAL_CONTENT_URI, true, this);
+		resolver.registerContentObserver(Genres.EXTERNAL_CONTENT_URI, true, this);
+		context.registerComponentCallbacks(this);
+	}
+
+	/**
+	 * @param context The {@link Context} to use
+	 * @return A singleton instance of this class
+	 */
+	public static synchronized MetadataCache getInstance(Context context) {
+		if (sInstance == null) {
+			sInstance = new MetadataCache(context.getApplicationContext());
+		}
+		return sInstance;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onChange(boolean selfChange) {
+		invalidate();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onTrimMemory(int level) {
+		if (level >= TRIM_MEMORY_MODERATE) {
+			songs.evictAll();
+			queries.evictAll();
+		} else if (level >= TRIM_MEMORY_BACKGROUND) {
+			songs.trimToSize(songs.size() / 2);
+			queries.trimToSize(queries.size() / 2);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onLowMemory() {
+		songs.evictAll();
+		queries.evictAll();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onConfigurationChanged(@NonNull Configuration newConfig) {
+		// Nothing to do
+	}
+
+	/**
+	 * get the current version of the cache. The version should be read before loading tracks
+	 * and used to add the result, so results of an outdated library are not cached
+	 *
+	 * @return version number, changed after the cache was invalidated
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * get a cached track
+	 *
+	 * @param id ID of the track
+	 * @return cached track or null if not found
+	 */
+	@Nullable
+	public Song getSong(long id) {
+		Song song = songs.get(id);
+		synchronized (this) {
+			if (song != null) {
+				hitCount++;
+			} else {
+				missCount++;
+			}
+		}
+		return song;
+	}
+
+	/**
+	 * add tracks to the cache
+	 *
+	 * @param version version of the cache before the tracks were loaded
+	 * @param items   tracks to add
+	 */
+	public void putSongs(int version, List<Song> items) {
+		if (version == this.version) {
+			for (Song song : items) {
+				songs.put(song.getId(), song);
+			}
+		}
+	}
+
+	/**
+	 * get a cached result of a loader
+	 *
+	 * @param loader name of the loader
+	 * @param param  parameter of the loader
+	 * @return list of tracks or null if the result is not cached
+	 */
+	@Nullable
+	public List<Song> getSongs(String loader, String param) {
+		long[] ids = queries.get(getKey(loader, param, version));
+		List<Song> result = null;
+		if (ids != null) {
+			result = new ArrayList<>(ids.length);
+			for (long id : ids) {
+				Song song = songs.get(id);
+				// track removed from cache
+				if (song == null) {
+					result = null;
+					break;
+				}
+				result.add(song);
+			}
+		}
+		synchronized (this) {
+			if (result != null) {
+				hitCount++;
+			} else {
+				missCount++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * add the result of a loader to the cache
+	 *
+	 * @param loader  name of the loader
+	 * @param param   parameter of the loader
+	 * @param version version of the cache before the tracks were loaded
+	 * @param items   tracks loaded by the loader
+	 */
+	public void putSongs(String loader, String param, int version, List<Song> items) {
+		if (version == this.version) {
+			long[] ids = new long[items.size()];
+			int i = 0;
+			for (Song song : items) {
+				songs.put(song.getId(), song);
+				ids[i++] = song.getId();
+			}
+			queries.put(getKey(loader, param, version), ids);
+		}
+	}
+
+	/**
+	 * remove tracks from the cache and all results of the loaders
+	 *
+	 * @param ids IDs of the tracks to remove
+	 */
+	public void remove(long[] ids) {
+		version++;
+		for (long id : ids) {
+			songs.remove(id);
+		}
+		queries.evictAll();
+	}
+
+	/**
+	 * remove all tracks and loader results from the cache
+	 */
+	public void invalidate() {
+		version++;
+		songs.evictAll();
+		queries.evictAll();
+	}
+
+	/**
+	 * get the number of cache hits
+	 */
+	public synchronized int getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * get the number of cache misses
+	 */
+	public synchronized int getMissCount() {
+		return missCount;
+	}
+
+
+	@NonNull
+	@SuppressLint("DefaultLocale")
+	@Override
+	public synchronized String toString() {
+		int accesses = hitCount + missCount;
+		int hitPercent = accesses != 0 ? 100 * hitCount / accesses : 0;
+		return String.format("MetadataCache[tracks=%s,results=%s,hits=%d,misses=%d,hitRate=%d%%]", songs, queries, hitCount, missCount, hitPercent);
+	}
+
+	/**
+	 * create a key for a loader result
+	 */
+	private static String getKey(String loader, String param, int version) {
+		return loader + '\n' + param + '\n' + version;
+	}
+}
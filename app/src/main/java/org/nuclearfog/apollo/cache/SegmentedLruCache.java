@@ -0,0 +1,319 @@
+package org.nuclearfog.apollo.cache;
+
+import android.annotation.SuppressLint;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base of the memory caches. Entries are split into segments by the hash of their key, every segment
+ * has its own lock and keeps its entries in a list ordered by access, so threads accessing different
+ * keys don't block each other. The size is shared by all segments, the least recently used entry of
+ * all segments is evicted first. Subclasses store the entries of a segment by their key.
+ *
+ * @param <V> type of the cached values
+ * @param <N> type of the entries
+ * @author nuclearfog
+ */
+abstract class SegmentedLruCache<V, N extends SegmentedLruCache.Node<V>> {
+
+	private static final String TAG = "lru_cache";
+
+	/**
+	 * number of segments, must be a power of two
+	 */
+	private static final int SEGMENTS = 8;
+
+	@SuppressWarnings("unchecked")
+	private Segment<V, N>[] segments = new Segment[SEGMENTS];
+
+	/**
+	 * access counter used to compare the last access of entries in different segments
+	 */
+	private AtomicLong clock = new AtomicLong();
+
+	/**
+	 * Size of this cache in units. Not necessarily the number of elements.
+	 */
+	private AtomicInteger size = new AtomicInteger();
+
+	private int maxSize;
+
+	/**
+	 * statistics of all entries and of the key types
+	 */
+	private CacheStats stats = new CacheStats();
+
+	/**
+	 * @param maxSize for caches that do not override {@link #sizeOf}, this is
+	 *                the maximum number of entries in the cache. For all other
+	 *                caches, this is the maximum sum of the sizes of the entries in
+	 *                this cache.
+	 */
+	SegmentedLruCache(int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize <= 0");
+		}
+		this.maxSize = maxSize;
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = createSegment();
+		}
+	}
+
+	/**
+	 * @param maxSize the maximum size of the cache before returning. May be -1
+	 *                to evict even 0-sized elements.
+	 */
+	public void trimToSize(int maxSize) {
+		while (size.get() > maxSize) {
+			// find the segment with the least recently used entry
+			Segment<V, N> oldest = null;
+			long oldestAccess = Long.MAX_VALUE;
+			for (Segment<V, N> segment : segments) {
+				synchronized (segment) {
+					N eldest = segment.getEldest();
+					if (eldest != null && eldest.access < oldestAccess) {
+						oldestAccess = eldest.access;
+						oldest = segment;
+					}
+				}
+			}
+			// all segments are empty, entries added in the meantime are trimmed by the next put
+			if (oldest == null) {
+				break;
+			}
+			N node;
+			synchronized (oldest) {
+				// segment may be changed by another thread in the meantime
+				node = oldest.getEldest();
+				if (node != null) {
+					oldest.removeEntry(node);
+					oldest.unlink(node);
+					if (size.addAndGet(-node.size) < 0) {
+						throw new IllegalStateException(TAG + ".sizeOf() is reporting inconsistent results!");
+					}
+				}
+			}
+			if (node != null) {
+				onEvicted(node);
+			}
+		}
+	}
+
+	/**
+	 * Returns the size of the entry for {@code key} and {@code value} in
+	 * user-defined units. The default implementation returns 1 so that size is
+	 * the number of entries and max size is the maximum number of entries.
+	 * <p>
+	 * An entry's size must not change while it is in the cache.
+	 */
+	protected int sizeOf(V value) {
+		return 1;
+	}
+
+
+	public void evictAll() {
+		trimToSize(-1); // -1 will evict 0-sized elements
+	}
+
+	/**
+	 * For caches that do not override {@link #sizeOf}, this returns the number
+	 * of entries in the cache. For all other caches, this returns the sum of
+	 * the sizes of the entries in this cache.
+	 */
+	public int size() {
+		return size.get();
+	}
+
+	/**
+	 * get the number of cache hits
+	 */
+	public int getHitCount() {
+		return stats.getCount(CacheStats.HIT);
+	}
+
+	/**
+	 * get the number of cache misses
+	 */
+	public int getMissCount() {
+		return stats.getCount(CacheStats.MISS);
+	}
+
+	/**
+	 * get the number of entries evicted to make space
+	 */
+	public int getEvictionCount() {
+		return stats.getCount(CacheStats.EVICTION);
+	}
+
+
+	@NonNull
+	@SuppressLint("DefaultLocale")
+	@Override
+	public String toString() {
+		Class<?> type = getClass();
+		// use the name of the extended cache class for anonymous classes
+		while (type.isAnonymousClass()) {
+			type = type.getSuperclass();
+		}
+		return String.format("%s[maxSize=%d,size=%d,%s]", type.getSimpleName(), maxSize, size.get(), stats);
+	}
+
+	/**
+	 * create an empty segment
+	 */
+	abstract Segment<V, N> createSegment();
+
+	/**
+	 * called after an entry was evicted to make space. Called without synchronization
+	 *
+	 * @param node evicted entry
+	 */
+	abstract void onEvicted(N node);
+
+	/**
+	 * get the segment of a key
+	 *
+	 * @param hash hash code of the key
+	 */
+	final Segment<V, N> segmentOf(int hash) {
+		// spread higher bits, hash codes of similar keys often differ in the higher bits only
+		hash ^= (hash >>> 16) ^ (hash >>> 8);
+		return segments[hash & (SEGMENTS - 1)];
+	}
+
+	/**
+	 * move an entry to the end of the access order. Must be called while the segment is locked
+	 */
+	final void access(Segment<V, N> segment, N node) {
+		segment.unlink(node);
+		segment.link(node);
+		node.access = clock.incrementAndGet();
+	}
+
+	/**
+	 * add a new entry to the access order. Must be called while the segment is locked
+	 *
+	 * @param node     new entry
+	 * @param previous entry replaced by the new entry or null
+	 */
+	final void added(Segment<V, N> segment, N node, @Nullable N previous) {
+		if (previous != null) {
+			segment.unlink(previous);
+		}
+		segment.link(node);
+		node.access = clock.incrementAndGet();
+		// size is changed within the lock, so an entry is never removed before its size was added
+		size.addAndGet(previous != null ? node.size - previous.size : node.size);
+	}
+
+	/**
+	 * remove an entry from the access order. Must be called while the segment is locked
+	 */
+	final void removed(Segment<V, N> segment, N node) {
+		segment.unlink(node);
+		size.addAndGet(-node.size);
+	}
+
+	/**
+	 * trim the cache to the maximum size after adding an entry
+	 */
+	final void trim() {
+		trimToSize(maxSize);
+	}
+
+	/**
+	 * count a cache access or eviction
+	 *
+	 * @param type name of the key type or null to count the total only
+	 * @param kind {@link CacheStats#HIT}, {@link CacheStats#MISS} or {@link CacheStats#EVICTION}
+	 */
+	final void count(@Nullable String type, int kind) {
+		stats.count(type, kind);
+	}
+
+	/**
+	 * get the size of a new entry
+	 */
+	final int safeSizeOf(V value) {
+		int result = sizeOf(value);
+		if (result < 0) {
+			throw new IllegalStateException("Negative size: " + value);
+		}
+		return result;
+	}
+
+	/**
+	 * entries of a segment with a list in access order
+	 */
+	abstract static class Segment<V, N extends Node<V>> {
+
+		/**
+		 * list head, the next node is the least recently used node
+		 */
+		private final Node<V> head = new Node<>(null, 0);
+
+		Segment() {
+			head.prev = head;
+			head.next = head;
+		}
+
+		/**
+		 * remove an entry from the key lookup of this segment
+		 */
+		abstract void removeEntry(N node);
+
+		/**
+		 * get the least recently used node
+		 */
+		@Nullable
+		@SuppressWarnings("unchecked")
+		final N getEldest() {
+			return head.next != head ? (N) head.next : null;
+		}
+
+		/**
+		 * add a node to the end of the list
+		 */
+		private void link(Node<V> node) {
+			node.prev = head.prev;
+			node.next = head;
+			head.prev.next = node;
+			head.prev = node;
+		}
+
+		/**
+		 * remove a node from the list
+		 */
+		private void unlink(Node<V> node) {
+			node.prev.next = node.next;
+			node.next.prev = node.prev;
+			node.prev = null;
+			node.next = null;
+		}
+	}
+
+	/**
+	 * cached value with its size and the time of the last access
+	 */
+	static class Node<V> {
+
+		final V value;
+		final int size;
+
+		/**
+		 * last access, see {@link #clock}
+		 */
+		long access;
+
+		Node<V> prev, next;
+
+		Node(V value, int size) {
+			this.value = value;
+			this.size = size;
+		}
+	}
+}
@@ -7,16 +7,18 @@ import android.media.MediaPlayer;
 import android.net.Uri;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.annotation.FloatRange;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import org.nuclearfog.apollo.BuildConfig;
+
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 /**
  * custom MediaPlayer implementation containing two MediaPlayer to switch fast tracks
@@ -43,7 +45,8 @@ public class MultiPlayer {
 	 */
 	private static final int XFADE = 12;
 	/**
-	 * sampling rate of the fade effect in 1/ms
+	 * sampling rate of the fade effect in 1/ms.
+	 * Outside of a fade transition the crossfade task sleeps until the fade out should start
 	 */
 	private static final long FADE_RESOLUTION = 40;
 	/**
@@ -66,9 +69,13 @@ public class MultiPlayer {
 	private static final int ERROR_RETRY = 500;
 
 	/**
-	 * thread pool used to periodically poll the current play position for crossfading
+	 * thread used to open and validate media files
+	 */
+	private ExecutorService prepareThread = Executors.newSingleThreadExecutor();
+	/**
+	 * true if this player was released, no new preparation is started
 	 */
-	private ScheduledExecutorService threadPool = Executors.newSingleThreadScheduledExecutor();
+	private volatile boolean released = false;
 
 	private MediaMetadataRetriever retriever;
 
@@ -76,8 +83,35 @@ public class MultiPlayer {
 
 	private OnPlaybackStatusCallback callback;
 
-	@Nullable
-	private Future<?> xfadeTask;
+	/**
+	 * task used to fade in/out and to detect the end of the current track
+	 */
+	private Runnable xfadeTask = new Runnable() {
+		@Override
+		public void run() {
+			onCrossfadeTrack();
+		}
+	};
+	/**
+	 * running preparation tasks of the player instances
+	 */
+	private Future<?>[] prepareTasks = new Future[PLAYER_INST];
+	/**
+	 * ID of the latest preparation request of each player instance. Older requests are cancelled
+	 */
+	private final int[] requests = new int[PLAYER_INST];
+	/**
+	 * ID of the request waiting for {@link MediaPlayer#prepareAsync()} of each player instance
+	 */
+	private final int[] asyncRequests = new int[PLAYER_INST];
+	/**
+	 * true if a player instance is waiting for preparation
+	 */
+	private final boolean[] preparing = new boolean[PLAYER_INST];
+	/**
+	 * time when {@link MediaPlayer#prepareAsync()} was called
+	 */
+	private final long[] prepareStart = new long[PLAYER_INST];
 	/**
 	 * mediaplayer used to switch between tracks
 	 */
@@ -102,6 +136,22 @@ public class MultiPlayer {
 	 * current fade in/out status {@link #NONE,#FADE_IN,#FADE_OUT,#XFADE}
 	 */
 	private volatile int xfadeMode = NONE;
+	/**
+	 * true if the crossfade task is enabled
+	 */
+	private volatile boolean xfadeEnabled = false;
+	/**
+	 * number of crossfade task runs, used for debugging
+	 */
+	private long xfadeRuns = 0;
+	/**
+	 * true to start playback after the current track is prepared
+	 */
+	private boolean playOnPrepared = false;
+	/**
+	 * position to seek to after the current track is prepared or -1 if not set
+	 */
+	private long pendingSeek = -1;
 	/**
 	 * volume of the current selected media player
 	 */
@@ -123,36 +173,41 @@ public class MultiPlayer {
 			mPlayers[i].setAudioSessionId(mPlayers[0].getAudioSessionId());
 			mPlayers[i].setVolume(0f, 0f);
 			mPlayers[i].setOnErrorListener(this::onError);
+			mPlayers[i].setOnPreparedListener(this::onPrepared);
 		}
 	}
 
 	/**
+	 * prepare a new track in background. {@link OnPlaybackStatusCallback#onTrackPrepared(boolean, boolean)} is called when finished.
+	 * A preparation not finished yet is cancelled.
+	 *
 	 * @param uri The path of the file, or the http/rtsp URL of the stream you want to play
-	 * @return true if player is ready to play
 	 */
-	public boolean setDataSource(Context context, @NonNull Uri uri) {
+	public void setDataSource(Context context, @NonNull Uri uri) {
+		// keep playback request if the previous track is not prepared yet
+		boolean resume = !initialized && playOnPrepared;
 		// stop current playback
-		if (initialized)
-			stop();
+		stop();
+		initialized = false;
+		playOnPrepared = resume;
+		pendingSeek = -1;
 		// set source of the current selected player
-		initialized = setDataSourceImpl(mPlayers[currentPlayer], context, uri);
-		return initialized;
+		prepare(currentPlayer, context, uri);
 	}
 
 	/**
 	 * Set the MediaPlayer to start when this MediaPlayer finishes playback.
+	 * The track is prepared in background, a preparation not finished yet is cancelled.
 	 *
-	 * @param uri The path of the file, or the http/rtsp URL of the stream you want to play
-	 * @return true if next data source is initialized successfully
+	 * @param uri The path of the file, or the http/rtsp URL of the stream you want to play or null to disable
 	 */
-	public boolean setNextDataSource(Context context, @Nullable Uri uri) {
+	public void setNextDataSource(Context context, @Nullable Uri uri) {
+		int nextPlayerIndex = (currentPlayer + 1) % mPlayers.length;
+		continious = false;
 		if (uri != null) {
-			int nextPlayerIndex = (currentPlayer + 1) % mPlayers.length;
-			continious = setDataSourceImpl(mPlayers[nextPlayerIndex], context, uri);
-			return continious;
+			prepare(nextPlayerIndex, context, uri);
 		} else {
-			continious = false;
-			return true;
+			cancel(nextPlayerIndex);
 		}
 	}
 
@@ -163,6 +218,15 @@ public class MultiPlayer {
 		return initialized;
 	}
 
+	/**
+	 * @return true if the current track is prepared in background
+	 */
+	public boolean preparing() {
+		synchronized (requests) {
+			return preparing[currentPlayer];
+		}
+	}
+
 	/**
 	 * check if there is a fade transition in progress
 	 *
@@ -180,6 +244,11 @@ public class MultiPlayer {
 	 * @return true if successful, false if another operation is already pending
 	 */
 	public boolean play() {
+		// start playback after preparation
+		if (!initialized && preparing()) {
+			playOnPrepared = true;
+			return true;
+		}
 		if (xfadeMode == NONE) {
 			isPlaying = true;
 			xfadeMode = FADE_IN;
@@ -196,6 +265,9 @@ public class MultiPlayer {
 	 */
 	public void pause(boolean force) {
 		MediaPlayer player = mPlayers[currentPlayer];
+		playOnPrepared = false;
+		if (!initialized)
+			return;
 		try {
 			if (force) {
 				setCrossfadeTask(false);
@@ -207,6 +279,7 @@ public class MultiPlayer {
 				}
 			} else {
 				xfadeMode = FADE_OUT;
+				setCrossfadeTask(true);
 			}
 		} catch (IllegalStateException exception) {
 			Log.e(TAG, "failed to pause player");
@@ -218,14 +291,17 @@ public class MultiPlayer {
 	 * stops playback
 	 */
 	public void stop() {
-		try {
-			mPlayers[currentPlayer].stop();
-			setCrossfadeTask(false);
-			xfadeMode = NONE;
-			isPlaying = false;
-		} catch (IllegalStateException exception) {
-			Log.e(TAG, "failed to stop player");
-			initialized = false;
+		playOnPrepared = false;
+		setCrossfadeTask(false);
+		xfadeMode = NONE;
+		isPlaying = false;
+		if (initialized) {
+			try {
+				mPlayers[currentPlayer].stop();
+			} catch (IllegalStateException exception) {
+				Log.e(TAG, "failed to stop player");
+				initialized = false;
+			}
 		}
 	}
 
@@ -248,8 +324,15 @@ public class MultiPlayer {
 	 * Releases mediaplayer
 	 */
 	public void release() {
+		released = true;
 		stop();
-		threadPool.shutdown();
+		// remove callbacks of the prepare thread which may start a new preparation
+		playerHandler.removeCallbacksAndMessages(null);
+		xfadeHandler.removeCallbacksAndMessages(null);
+		prepareThread.shutdownNow();
+		if (BuildConfig.DEBUG) {
+			Log.d(TAG, "crossfade task runs: " + xfadeRuns);
+		}
 		for (MediaPlayer player : mPlayers) {
 			try {
 				player.release();
@@ -265,6 +348,8 @@ public class MultiPlayer {
 	 * @return The duration in milliseconds
 	 */
 	public long getDuration() {
+		if (!initialized)
+			return 0;
 		try {
 			return mPlayers[currentPlayer].getDuration();
 		} catch (IllegalStateException exception) {
@@ -279,6 +364,8 @@ public class MultiPlayer {
 	 * @return The current position in milliseconds
 	 */
 	public long getPosition() {
+		if (!initialized)
+			return Math.max(pendingSeek, 0);
 		try {
 			return mPlayers[currentPlayer].getCurrentPosition();
 		} catch (IllegalStateException exception) {
@@ -293,6 +380,12 @@ public class MultiPlayer {
 	 * @param position The offset in milliseconds from the start to seek to
 	 */
 	public void setPosition(long position) {
+		// seek after preparation
+		if (!initialized) {
+			if (preparing())
+				pendingSeek = position;
+			return;
+		}
 		try {
 			// limit max position to prevent conflict with fade out
 			long max = getDuration() - (XFADE_DELAY * 2);
@@ -303,6 +396,10 @@ public class MultiPlayer {
 					position = 0;
 				}
 				mPlayers[currentPlayer].seekTo((int) position);
+				// calculate new fade out time
+				if (xfadeEnabled && xfadeMode == NONE) {
+					setCrossfadeTask(true);
+				}
 			}
 		} catch (IllegalStateException exception) {
 			Log.e(TAG, "failed to set player position: " + position + " duration:" + getDuration());
@@ -328,29 +425,187 @@ public class MultiPlayer {
 	}
 
 	/**
-	 * @param player The {@link MediaPlayer} to use
-	 * @param uri    The path of the file, or the http/rtsp URL of the stream you want to play
-	 * @return true if initialized
+	 * start preparation of a player instance in background
+	 *
+	 * @param index index of the player instance
+	 * @param uri   The path of the file, or the http/rtsp URL of the stream you want to play
+	 */
+	private void prepare(final int index, final Context context, @NonNull final Uri uri) {
+		// executor is shut down after release
+		if (released)
+			return;
+		final int request;
+		synchronized (requests) {
+			request = ++requests[index];
+			preparing[index] = true;
+		}
+		if (prepareTasks[index] != null)
+			prepareTasks[index].cancel(false);
+		prepareTasks[index] = prepareThread.submit(new Runnable() {
+			@Override
+			public void run() {
+				prepareImpl(index, request, context, uri);
+			}
+		});
+	}
+
+	/**
+	 * cancel preparation of a player instance
+	 *
+	 * @param index index of the player instance
+	 */
+	private void cancel(int index) {
+		synchronized (requests) {
+			requests[index]++;
+			preparing[index] = false;
+		}
+		if (prepareTasks[index] != null) {
+			prepareTasks[index].cancel(false);
+			prepareTasks[index] = null;
+		}
+	}
+
+	/**
+	 * check if a preparation request was replaced or cancelled
+	 *
+	 * @param index   index of the player instance
+	 * @param request ID of the request
+	 * @return true if the request is cancelled
 	 */
-	private boolean setDataSourceImpl(MediaPlayer player, Context context, @NonNull Uri uri) {
+	private boolean isCancelled(int index, int request) {
+		synchronized (requests) {
+			return requests[index] != request;
+		}
+	}
+
+	/**
+	 * validate media file and set it as source of a player instance. Runs on {@link #prepareThread}
+	 *
+	 * @param index   index of the player instance
+	 * @param request ID of the request
+	 * @param uri     The path of the file, or the http/rtsp URL of the stream you want to play
+	 */
+	private void prepareImpl(int index, int request, Context context, @NonNull Uri uri) {
+		MediaPlayer player = mPlayers[index];
 		try {
+			if (isCancelled(index, request))
+				return;
 			// check file if valid
+			long start = SystemClock.elapsedRealtime();
 			retriever.setDataSource(context, uri);
 			String hasAudio = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_HAS_AUDIO);
+			long validated = SystemClock.elapsedRealtime();
 			if (hasAudio == null || !hasAudio.equals("yes")) {
 				Log.w(TAG, "invalid media file!");
-				return false;
+				onPrepareFailed(index, request);
+				return;
 			}
+			if (isCancelled(index, request))
+				return;
 			// init player
 			player.reset();
 			player.setDataSource(context, uri);
-			player.prepare();
-			return true;
+			long sourceSet = SystemClock.elapsedRealtime();
+			synchronized (requests) {
+				if (requests[index] != request)
+					return;
+				asyncRequests[index] = request;
+				prepareStart[index] = sourceSet;
+			}
+			if (BuildConfig.DEBUG) {
+				Log.d(TAG, "validation=" + (validated - start) + "ms, setDataSource=" + (sourceSet - validated) + "ms");
+			}
+			player.prepareAsync();
 		} catch (Exception err) {
 			player.reset();
 			Log.e(TAG, "could not open media file!");
-			return false;
+			onPrepareFailed(index, request);
+		}
+	}
+
+	/**
+	 * report a failed preparation to the playback thread
+	 *
+	 * @param index   index of the player instance
+	 * @param request ID of the request
+	 */
+	private void onPrepareFailed(final int index, final int request) {
+		if (released)
+			return;
+		playerHandler.post(new Runnable() {
+			@Override
+			public void run() {
+				if (released)
+					return;
+				synchronized (requests) {
+					if (requests[index] != request || !preparing[index])
+						return;
+					preparing[index] = false;
+				}
+				onPrepareFinished(index, false);
+			}
+		});
+	}
+
+	/**
+	 * called if a player instance finished preparation
+	 *
+	 * @see android.media.MediaPlayer.OnPreparedListener
+	 */
+	private void onPrepared(MediaPlayer mp) {
+		int index = indexOf(mp);
+		synchronized (requests) {
+			// ignore cancelled requests
+			if (!preparing[index] || asyncRequests[index] != requests[index])
+				return;
+			preparing[index] = false;
+		}
+		if (BuildConfig.DEBUG) {
+			Log.d(TAG, "prepare=" + (SystemClock.elapsedRealtime() - prepareStart[index]) + "ms");
 		}
+		onPrepareFinished(index, true);
+	}
+
+	/**
+	 * update player state after preparation and inform playback service
+	 *
+	 * @param index   index of the player instance
+	 * @param success true if the player instance is ready to play
+	 */
+	private void onPrepareFinished(int index, boolean success) {
+		boolean current = index == currentPlayer;
+		if (current) {
+			initialized = success;
+			if (success) {
+				if (pendingSeek >= 0) {
+					long position = pendingSeek;
+					pendingSeek = -1;
+					setPosition(position <= getDuration() ? position : 0);
+				}
+				if (playOnPrepared) {
+					playOnPrepared = false;
+					play();
+				}
+			}
+		} else {
+			continious = success;
+		}
+		callback.onTrackPrepared(!current, success);
+	}
+
+	/**
+	 * get index of a player instance
+	 *
+	 * @param mp player instance
+	 * @return index of {@link #mPlayers}
+	 */
+	private int indexOf(MediaPlayer mp) {
+		for (int i = 0; i < mPlayers.length; i++) {
+			if (mPlayers[i] == mp) {
+				return i;
+			}
+		}
+		return currentPlayer;
 	}
 
 	/**
@@ -358,6 +613,7 @@ public class MultiPlayer {
 	 */
 	private void onCrossfadeTrack() {
 		MediaPlayer current = mPlayers[currentPlayer];
+		xfadeRuns++;
 		try {
 			switch (xfadeMode) {
 				// force crossfade between two tracks
@@ -409,34 +665,28 @@ public class MultiPlayer {
 			Log.e(TAG, "onCrossfadeTrack", exception);
 			onError(current, -1, -1);
 		}
+		// schedule next run
+		if (xfadeEnabled) {
+			setCrossfadeTask(true);
+		}
 	}
 
 	/**
-	 * enable/disable periodic crossfade polling
+	 * enable/disable crossfade task. While fading the task runs every {@link #FADE_RESOLUTION} ms,
+	 * otherwise it is scheduled for the time when the fade out of the current track should start
 	 *
 	 * @param enable true to enable crossfading
 	 */
 	private void setCrossfadeTask(boolean enable) {
-		// set new cross fade task
+		xfadeHandler.removeCallbacks(xfadeTask);
+		xfadeEnabled = enable;
 		if (enable) {
-			if (xfadeTask == null) {
-				xfadeTask = threadPool.scheduleWithFixedDelay(new Runnable() {
-					@Override
-					public void run() {
-						xfadeHandler.post(new Runnable() {
-							@Override
-							public void run() {
-								onCrossfadeTrack();
-							}
-						});
-					}
-				}, FADE_RESOLUTION, FADE_RESOLUTION, TimeUnit.MILLISECONDS);
+			long delay = FADE_RESOLUTION;
+			if (xfadeMode == NONE) {
+				delay = Math.max(getDuration() - getPosition() - XFADE_DELAY, FADE_RESOLUTION);
 			}
-		} else if (xfadeTask != null) {
-			xfadeTask.cancel(true);
-			xfadeTask = null;
+			xfadeHandler.postDelayed(xfadeTask, delay);
 		}
-
 	}
 
 	/**
@@ -460,6 +710,19 @@ public class MultiPlayer {
 	 */
 	private boolean onError(MediaPlayer mp, int what, int extra) {
 		Log.e(TAG, "onError:" + what + " ," + extra);
+		// report error while preparing
+		int index = indexOf(mp);
+		boolean prepareError = false;
+		synchronized (requests) {
+			if (preparing[index] && asyncRequests[index] == requests[index]) {
+				preparing[index] = false;
+				prepareError = true;
+			}
+		}
+		if (prepareError) {
+			onPrepareFinished(index, false);
+			return true;
+		}
 		if (initialized) {
 			setCrossfadeTask(false);
 			initialized = false;
@@ -498,5 +761,13 @@ public class MultiPlayer {
 		 * called if a playback error occurs
 		 */
 		void onPlaybackError();
+
+		/**
+		 * called after a track was prepared in background
+		 *
+		 * @param next    true if the next track was prepared, false for the current track
+		 * @param success true if the track is ready to play
+		 */
+		void onTrackPrepared(boolean next, boolean success);
 	}
 }
\ No newline at end of file
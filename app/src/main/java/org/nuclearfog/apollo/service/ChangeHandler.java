@@ -0,0 +1,195 @@
+package org.nuclearfog.apollo.service;
+
+import android.content.Intent;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Process;
+
+import androidx.annotation.NonNull;
+
+import org.nuclearfog.apollo.BuildConfig;
+import org.nuclearfog.apollo.model.Album;
+import org.nuclearfog.apollo.model.Song;
+import org.nuclearfog.apollo.receiver.WidgetBroadcastReceiver;
+import org.nuclearfog.apollo.store.PopularStore;
+import org.nuclearfog.apollo.store.RecentStore;
+import org.nuclearfog.apollo.utils.MusicUtils;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Handler used to inform receivers and widgets about playback changes in a background thread.
+ * Changes posted within a short time are combined, so every receiver gets only the latest state once.
+ *
+ * @author nuclearfog
+ */
+public class ChangeHandler extends Handler {
+
+	private static final String TAG = "ChangeHandler";
+
+	/**
+	 *
+	 */
+	private static final String APOLLO_PACKAGE_NAME = BuildConfig.APPLICATION_ID;
+
+	/**
+	 *
+	 */
+	private static final String MUSIC_PACKAGE_NAME = "com.android.music";
+
+	/**
+	 * time to wait for further changes before sending them
+	 */
+	private static final long COALESCE_DELAY = 50;
+
+	/**
+	 * message used to send pending changes
+	 */
+	private static final int MSG_DISPATCH = 0x4E1D;
+
+	private MusicPlaybackService service;
+	private WidgetBroadcastReceiver widgets;
+	private PopularStore mPopularCache;
+	private RecentStore mRecentsCache;
+
+	/**
+	 * pending changes in the order they were posted
+	 */
+	private final Set<String> pending = new LinkedHashSet<>();
+
+	/**
+	 * number of changes posted
+	 */
+	private long postCount = 0;
+
+	/**
+	 * number of changes sent
+	 */
+	private long dispatchCount = 0;
+
+	/**
+	 * @param service playback service to get the current state
+	 * @param widgets widget receiver to update
+	 */
+	public ChangeHandler(MusicPlaybackService service, WidgetBroadcastReceiver widgets) {
+		super(startThread());
+		this.service = service;
+		this.widgets = widgets;
+		mPopularCache = PopularStore.getInstance(service);
+		mRecentsCache = RecentStore.getInstance(service);
+	}
+
+
+	@Override
+	public void handleMessage(@NonNull Message msg) {
+		if (msg.what == MSG_DISPATCH) {
+			dispatch();
+		}
+	}
+
+	/**
+	 * post a change. The change will be sent after a short delay together with other changes
+	 *
+	 * @param what what changed e.g. {@link MusicPlaybackService#CHANGED_PLAYSTATE,MusicPlaybackService#CHANGED_META}
+	 */
+	public void post(String what) {
+		synchronized (pending) {
+			postCount++;
+			pending.add(what);
+			if (!hasMessages(MSG_DISPATCH)) {
+				sendEmptyMessageDelayed(MSG_DISPATCH, COALESCE_DELAY);
+			}
+		}
+	}
+
+	/**
+	 * send all pending changes, write pending play counts and stop the background thread
+	 */
+	public void release() {
+		removeMessages(MSG_DISPATCH);
+		post(new Runnable() {
+			@Override
+			public void run() {
+				dispatch();
+				mPopularCache.flush();
+				getLooper().quit();
+			}
+		});
+	}
+
+	/**
+	 * get the number of changes that were combined with other changes
+	 *
+	 * @return number of changes not sent separately
+	 */
+	public long getCoalescedCount() {
+		synchronized (pending) {
+			return postCount - dispatchCount;
+		}
+	}
+
+	/**
+	 * get the number of changes posted
+	 *
+	 * @return number of changes
+	 */
+	public long getPostCount() {
+		synchronized (pending) {
+			return postCount;
+		}
+	}
+
+	/**
+	 * send all pending changes with the latest playback state
+	 */
+	private void dispatch() {
+		String[] changes;
+		synchronized (pending) {
+			changes = pending.toArray(new String[0]);
+			dispatchCount += changes.length;
+			pending.clear();
+		}
+		if (changes.length == 0)
+			return;
+		Song song = service.getCurrentSong();
+		Album album = service.getCurrentAlbum();
+		boolean isPlaying = service.isPlaying();
+		boolean isFavorite = song != null && MusicUtils.isFavorite(song, service);
+		for (String what : changes) {
+			// send broadcast
+			Intent intent = new Intent(what);
+			intent.putExtra("playing", isPlaying);
+			if (song != null) {
+				intent.putExtra("id", song.getId());
+				intent.putExtra("artist", song.getArtist());
+				intent.putExtra("album", song.getAlbum());
+				intent.putExtra("track", song.getName());
+				intent.putExtra("isfavorite", isFavorite);
+			}
+			Intent musicIntent = new Intent(intent);
+			musicIntent.setAction(what.replace(APOLLO_PACKAGE_NAME, MUSIC_PACKAGE_NAME));
+			service.sendBroadcast(musicIntent);
+			service.sendBroadcast(intent);
+			// Increase the play count for favorite songs.
+			if (MusicPlaybackService.CHANGED_META.equals(what)) {
+				if (song != null)
+					mPopularCache.addSong(song);
+				if (album != null)
+					mRecentsCache.addAlbum(album);
+			}
+			widgets.updateWidgets(service, what);
+		}
+	}
+
+	/**
+	 * create a background thread for this handler
+	 */
+	private static Looper startThread() {
+		HandlerThread thread = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+		thread.start();
+		return thread.getLooper();
+	}
+}
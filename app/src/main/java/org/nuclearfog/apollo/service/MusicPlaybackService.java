@@ -22,7 +22,7 @@ import android.media.AudioManager.OnAudioFocusChangeListener;
 import android.media.audiofx.AudioEffect;
 import android.net.Uri;
 import android.os.IBinder;
-import android.provider.MediaStore.Audio.AlbumColumns;
+import android.os.ParcelFileDescriptor;
 import android.provider.MediaStore.Audio.Media;
 import android.provider.MediaStore.Files.FileColumns;
 import android.support.v4.media.MediaMetadataCompat;
@@ -50,14 +50,11 @@ import org.nuclearfog.apollo.receiver.HeadsetStatusReceiver;
 import org.nuclearfog.apollo.receiver.UnmountBroadcastReceiver;
 import org.nuclearfog.apollo.receiver.WidgetBroadcastReceiver;
 import org.nuclearfog.apollo.store.PopularStore;
-import org.nuclearfog.apollo.store.RecentStore;
+import org.nuclearfog.apollo.store.QueueStore;
 import org.nuclearfog.apollo.utils.ApolloUtils;
 import org.nuclearfog.apollo.utils.CursorFactory;
-import org.nuclearfog.apollo.utils.MusicUtils;
 import org.nuclearfog.apollo.utils.PreferenceUtils;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.LinkedList;
 import java.util.Random;
 
@@ -76,10 +73,6 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 	 *
 	 */
 	private static final String APOLLO_PACKAGE_NAME = BuildConfig.APPLICATION_ID;
-	/**
-	 *
-	 */
-	private static final String MUSIC_PACKAGE_NAME = "com.android.music";
 	/**
 	 * Called to indicate a general service commmand.
 	 */
@@ -187,6 +180,14 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 	 * The max size allowed for the track history
 	 */
 	private static final int MAX_HISTORY_SIZE = 100;
+	/**
+	 * number of next tracks to load information in advance
+	 */
+	private static final int PREFETCH_COUNT = 5;
+	/**
+	 * number of tracks added to the queue at once in party shuffle mode
+	 */
+	private static final int PARTY_SHUFFLE_BATCH = 10;
 	/**
 	 * Keeps a mapping of the track history
 	 */
@@ -194,15 +195,23 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 	/**
 	 * current playlist containing track ID's
 	 */
-	private LinkedList<Long> mPlayList = new LinkedList<>();
+	private PlayQueue mPlayList = new PlayQueue();
 	/**
 	 * shuffle list containing track indexes of the current playlist
 	 */
-	private ArrayList<Integer> mShuffleList = new ArrayList<>();
+	private ShuffleList mShuffleList = new ShuffleList();
 	/**
 	 * random generator used for shuffle
 	 */
 	private Random mRandom = new Random();
+	/**
+	 * source of random library tracks used for party shuffle
+	 */
+	private PartyShuffle mPartyShuffle = new PartyShuffle();
+	/**
+	 * cache of track and album information
+	 */
+	private TrackCache mTrackCache = new TrackCache();
 	/**
 	 * app wide settings
 	 */
@@ -224,6 +233,11 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 	 * handler used to shutdown service after idle
 	 */
 	private ShutdownHandler shutdownHandler;
+
+	/**
+	 * handler used to send change broadcasts in background
+	 */
+	private ChangeHandler mChangeHandler;
 	/**
 	 * The media player
 	 */
@@ -237,13 +251,9 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 	 */
 	private NotificationHelper mNotificationHelper;
 	/**
-	 * Recently listened database
-	 */
-	private RecentStore mRecentsCache;
-	/**
-	 * most played tracks database
+	 * storage of the queue and play position
 	 */
-	private PopularStore mPopularCache;
+	private QueueStore mQueueStore;
 	/**
 	 * Used to know when the service is active
 	 */
@@ -274,9 +284,16 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 	private int mServiceStartId = -1;
 	private int mShuffleMode = SHUFFLE_NONE;
 	private int mRepeatMode = REPEAT_ALL;
-	private int mShufflePos = -1;
 	private int mPlayPos = -1;
 	private int mNextPlayPos = -1;
+	/**
+	 * number of failed attempts to open the current/next track
+	 */
+	private int mOpenRetries, mNextRetries;
+	/**
+	 * true to force the player onto the next track, see {@link #setNextTrack(boolean)}
+	 */
+	private boolean mNextForce;
 	/**
 	 * used to distinguish between different cards when saving/restoring playlists
 	 */
@@ -316,13 +333,15 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 	@Override
 	public void onCreate() {
 		super.onCreate();
-		// Initialize the favorites and recents databases
-		mRecentsCache = RecentStore.getInstance(this);
-		mPopularCache = PopularStore.getInstance(this);
+		// Initialize the queue storage
+		mQueueStore = QueueStore.getInstance(this);
 		// initialize broadcast receiver
 		mIntentReceiver = new WidgetBroadcastReceiver(this);
 		mUnmountReceiver = new UnmountBroadcastReceiver(this);
 		headsetReceiver = new HeadsetStatusReceiver(this);
+		// observe MediaStore changes for party shuffle
+		mPartyShuffle.register(this);
+		mTrackCache.register(this);
 		//
 		mAudio = (AudioManager) getSystemService(Context.AUDIO_SERVICE);
 		// Initialize the media player
@@ -337,6 +356,8 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 		settings = PreferenceUtils.getInstance(this);
 		// init shutdown handler
 		shutdownHandler = new ShutdownHandler(this);
+		// init change handler
+		mChangeHandler = new ChangeHandler(this, mIntentReceiver);
 		getCardId();
 
 		// init external storage listener
@@ -388,6 +409,13 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 		unregisterReceiver(mUnmountReceiver);
 		unregisterReceiver(mIntentReceiver);
 		unregisterReceiver(headsetReceiver);
+		mPartyShuffle.unregister(this);
+		mTrackCache.unregister(this);
+		// send remaining changes
+		mChangeHandler.release();
+		if (BuildConfig.DEBUG) {
+			Log.d(TAG, "change events: " + mChangeHandler.getPostCount() + ", coalesced: " + mChangeHandler.getCoalescedCount());
+		}
 		// remove notification
 		mNotificationHelper.dismissNotification();
 		super.onDestroy();
@@ -478,6 +506,38 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 		}
 	}
 
+
+	@Override
+	public synchronized void onTrackPrepared(boolean next, boolean success) {
+		if (next) {
+			// try one of the next 10 tracks, give up if no success
+			if (!success && mNextPlayPos >= 0) {
+				if (++mNextRetries < 10) {
+					prepareNextTrack(mNextPlayPos);
+				} else {
+					mNextPlayPos = -1;
+				}
+			}
+		} else if (success) {
+			notifyChange(CHANGED_PLAYSTATE);
+		} else {
+			// trying to play one of the next 10 tracks, give up if no success
+			if (mPlayList.size() > 1 && mPlayPos >= 0 && ++mOpenRetries < 10) {
+				mPlayPos = incrementPosition(mPlayPos, false);
+				// skip faulty track and try open next track
+				if (mPlayPos >= 0) {
+					updateTrackInformation();
+					openTrack();
+					setNextTrack(false);
+					return;
+				}
+			}
+			Log.w(TAG, "Failed to open file for playback");
+			// give up and prepare shutdown
+			stop();
+		}
+	}
+
 	/**
 	 * used by widgets or other intents to change playback state
 	 */
@@ -612,9 +672,7 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 	 * Stops playback.
 	 */
 	synchronized void stop() {
-		if (mPlayer.initialized()) {
-			mPlayer.stop();
-		}
+		mPlayer.stop();
 		notifyChange(CHANGED_PLAYSTATE);
 	}
 
@@ -632,7 +690,7 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 
 			int returnCode = AudioManagerCompat.requestAudioFocus(mAudio, request.build());
 			if (returnCode == AudioManager.AUDIOFOCUS_GAIN) {
-				if (mPlayer.initialized()) {
+				if (mPlayer.initialized() || mPlayer.preparing()) {
 					long duration = mPlayer.getDuration();
 					if (mRepeatMode != REPEAT_CURRENT && duration > 2000L && mPlayer.getPosition() >= duration - 2000L) {
 						gotoNext();
@@ -654,6 +712,8 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 	 */
 	public synchronized void pause(boolean force) {
 		mPlayer.pause(force);
+		// write pending play counts while paused
+		PopularStore.getInstance(this).flush();
 		if (force) {
 			notifyChange(CHANGED_PLAYSTATE);
 		}
@@ -718,16 +778,17 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 		// check if track is valid
 		if (song != null) {
 			// add at the beginning of the playlist
-			mPlayList.addFirst(song.getId());
+			mPlayList.add(0, song.getId());
+			if (mQueueIsSaveable) {
+				mQueueStore.insert(0, new long[]{song.getId()});
+			}
 			mPlayPos = 0;
 			// update metadata
 			notifyChange(CHANGED_QUEUE);
-			if (mPlayer.setDataSource(getApplicationContext(), uri)) {
-				play();
-				setNextTrack(false);
-			} else {
-				stop();
-			}
+			mOpenRetries = 0;
+			mPlayer.setDataSource(getApplicationContext(), uri);
+			play();
+			setNextTrack(false);
 		}
 		// restore track information after error
 		else {
@@ -741,30 +802,8 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 	 * @param what what changed e.g. {@link #CHANGED_PLAYSTATE,#CHANGED_META}
 	 */
 	synchronized void notifyChange(String what) {
-		Song song = currentSong;
-		Album album = currentAlbum;
-		// send broadcast
-		Intent intent = new Intent(what);
-		intent.putExtra("playing", mPlayer.isPlaying());
-		if (song != null) {
-			intent.putExtra("id", song.getId());
-			intent.putExtra("artist", song.getArtist());
-			intent.putExtra("album", song.getAlbum());
-			intent.putExtra("track", song.getName());
-			intent.putExtra("isfavorite", MusicUtils.isFavorite(song, this));
-		}
-		Intent musicIntent = new Intent(intent);
-		musicIntent.setAction(what.replace(APOLLO_PACKAGE_NAME, MUSIC_PACKAGE_NAME));
-		sendBroadcast(musicIntent);
-		sendBroadcast(intent);
-
 		switch (what) {
 			case CHANGED_META:
-				// Increase the play count for favorite songs.
-				if (song != null)
-					mPopularCache.addSong(song);
-				if (album != null)
-					mRecentsCache.addAlbum(album);
 				updateMetadata();
 				// fall through
 
@@ -797,7 +836,8 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 				saveQueue(false);
 				break;
 		}
-		mIntentReceiver.updateWidgets(this, what);
+		// send broadcasts and update widgets in background
+		mChangeHandler.post(what);
 	}
 
 	/**
@@ -821,7 +861,6 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 				if (makeShuffleList(true)) {
 					mShuffleMode = SHUFFLE_AUTO;
 					mPlayPos = 0;
-					mShufflePos = 0;
 					openCurrentAndNext();
 				}
 			}
@@ -829,7 +868,6 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 			else if (shufflemode == SHUFFLE_NORMAL) {
 				if (makeShuffleList(false)) {
 					mShuffleMode = SHUFFLE_NORMAL;
-					mShufflePos = 0;
 					setNextTrack(false);
 				}
 			}
@@ -870,6 +908,9 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 		stop();
 		mPlayPos = -1;
 		mPlayList.clear();
+		if (mQueueIsSaveable) {
+			mQueueStore.setAll(new long[0], mCardId);
+		}
 		clearCurrentTrackInformation();
 		notifyChange(CHANGED_QUEUE);
 	}
@@ -883,6 +924,10 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 		if (pos >= 0 && pos < mPlayList.size()) {
 			// remove track at position
 			mPlayList.remove(pos);
+			mShuffleList.remove(pos);
+			if (mQueueIsSaveable) {
+				mQueueStore.remove(pos);
+			}
 			// check if current play position is higher than the removed track
 			if (mPlayPos > pos) {
 				mPlayPos--;
@@ -913,31 +958,34 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 	 * @return how many instances of the track were removed
 	 */
 	synchronized int removeQueueTracks(long[] ids) {
-		int numremoved = 0;
-		for (long id : ids) {
-			int pos;
-			do {
-				// get index of the track ID
-				pos = mPlayList.indexOf(id);
-				if (pos >= 0) {
-					mPlayList.remove(pos);
-					// check if current play position is higher than the removed track
-					if (mPlayPos > pos) {
-						mPlayPos--;
-					}
-					// check if current track was removed then stop playback
-					else if (mPlayPos == pos) {
-						if (mPlayPos > 0)
-							mPlayPos = Math.min(mPlayPos, mPlayList.size() - 1);
-						stop();
-					}
-					numremoved++;
+		// check if current track will be removed
+		boolean currentRemoved = false;
+		if (mPlayPos >= 0 && mPlayPos < mPlayList.size()) {
+			long currentId = mPlayList.get(mPlayPos);
+			for (long id : ids) {
+				if (id == currentId) {
+					currentRemoved = true;
+					break;
 				}
-			} while (pos >= 0);
-			if (mPlayList.isEmpty()) {
-				break;
 			}
 		}
+		// remove all tracks in a single pass and update play position
+		int size = mPlayList.size();
+		mPlayPos = mPlayList.removeAll(ids, mPlayPos);
+		int numremoved = size - mPlayList.size();
+		if (numremoved > 0) {
+			// shuffle list will be rebuilt on next track change
+			mShuffleList.clear();
+			if (mQueueIsSaveable) {
+				mQueueStore.removeAll(ids);
+			}
+		}
+		// check if current track was removed then stop playback
+		if (currentRemoved) {
+			if (mPlayPos > 0)
+				mPlayPos = Math.min(mPlayPos, mPlayList.size() - 1);
+			stop();
+		}
 		// stop playback if queue is empty
 		if (mPlayList.isEmpty()) {
 			mPlayPos = -1;
@@ -957,7 +1005,53 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 	 * @return The queue containing song IDs
 	 */
 	synchronized long[] getQueue() {
-		return ApolloUtils.toLongArray(mPlayList);
+		return mPlayList.toArray();
+	}
+
+	/**
+	 * Returns a range of the queue
+	 *
+	 * @param offset position of the first track
+	 * @param count  maximum number of tracks
+	 * @return song IDs of the range
+	 */
+	synchronized long[] getQueueRange(int offset, int count) {
+		return mPlayList.toArray(offset, count);
+	}
+
+	/**
+	 * Returns a pipe containing a snapshot of the queue, see {@link QueueTransfer}
+	 *
+	 * @return read side of the pipe or null if an error occured
+	 */
+	@Nullable
+	synchronized ParcelFileDescriptor getQueueStream() {
+		return QueueTransfer.write(mPlayList.getGeneration(), mPlayList.toArray());
+	}
+
+	/**
+	 * @return number of tracks in the queue
+	 */
+	synchronized int getQueueSize() {
+		return mPlayList.size();
+	}
+
+	/**
+	 * @return generation number of the queue, changes every time the queue is modified
+	 */
+	synchronized long getQueueGeneration() {
+		return mPlayList.getGeneration();
+	}
+
+	/**
+	 * Returns the changes of the queue after a generation number, see {@link PlayQueue#getChanges(long)}
+	 *
+	 * @param generation generation number of the client copy of the queue
+	 * @return changes of the queue or null if the queue must be reloaded
+	 */
+	@Nullable
+	synchronized long[] getQueueChanges(long generation) {
+		return mPlayList.getChanges(generation);
 	}
 
 	/**
@@ -995,9 +1089,11 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 		if (mShuffleMode == SHUFFLE_AUTO) {
 			mShuffleMode = SHUFFLE_NORMAL;
 		}
-		mPlayList.clear();
-		for (long trackId : list)
-			mPlayList.add(trackId);
+		mPlayList.setAll(list);
+		mShuffleList.clear();
+		if (mQueueIsSaveable) {
+			mQueueStore.setAll(list, mCardId);
+		}
 		mPlayPos = position >= 0 ? position : mRandom.nextInt(mPlayList.size() - 1);
 		notifyChange(CHANGED_QUEUE);
 		mHistory.clear();
@@ -1019,8 +1115,11 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 			to = mPlayList.size() - 1;
 		}
 		// move track
-		long trackId = mPlayList.remove(from);
-		mPlayList.add(to, trackId);
+		mPlayList.move(from, to);
+		mShuffleList.move(from, to);
+		if (mQueueIsSaveable) {
+			mQueueStore.move(from, to);
+		}
 		// set current play pos
 		if (mPlayPos == from) {
 			mPlayPos = to;
@@ -1144,8 +1243,12 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 		} else if (position > mPlayList.size()) {
 			position = mPlayList.size();
 		}
-		for (long trackId : list) {
-			mPlayList.add(position++, trackId);
+		mPlayList.addAll(position, list);
+		if (!mShuffleList.isEmpty()) {
+			mShuffleList.insert(position, list.length, mRandom);
+		}
+		if (mQueueIsSaveable) {
+			mQueueStore.insert(position, list);
 		}
 		if (mPlayPos == -1) {
 			mPlayPos = 0;
@@ -1159,9 +1262,20 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 	 */
 	private void updateTrackInformation() {
 		if (mPlayPos >= 0 && mPlayPos < mPlayList.size()) {
-			long trackId = mPlayList.get(mPlayPos);
-			Cursor cursor = CursorFactory.makeTrackCursor(this, trackId);
-			updateTrackInformation(cursor);
+			try {
+				long trackId = mPlayList.get(mPlayPos);
+				Song song = mTrackCache.getSong(this, trackId);
+				Album album = null;
+				if (song != null) {
+					album = mTrackCache.getAlbum(this, song.getAlbumId());
+				}
+				currentAlbum = album;
+				currentSong = song;
+				notifyChange(CHANGED_META);
+				prefetchTrackInformation();
+			} catch (Exception exception) {
+				Log.e(TAG, "failed to set track information");
+			}
 		}
 	}
 
@@ -1239,31 +1353,13 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 		try {
 			if (cursor != null) {
 				if (cursor.moveToFirst()) {
-					long songId = cursor.getLong(0);
-					String songName = cursor.getString(1);
-					String artistName = cursor.getString(2);
-					String albumName = cursor.getString(3);
-					long length = cursor.getLong(4);
-					long artistId = cursor.getLong(5);
-					long albumId = cursor.getLong(6);
-					String path = cursor.getString(7);
-					song = new Song(songId, artistId, albumId, songName, artistName, albumName, length, path);
+					song = TrackCache.readSong(cursor);
 				}
 				cursor.close();
 			}
 			if (song != null) {
-				cursor = CursorFactory.makeAlbumCursor(this, song.getAlbumId());
-				if (cursor != null) {
-					if (cursor.moveToFirst()) {
-						long id = cursor.getLong(cursor.getColumnIndexOrThrow(Media._ID));
-						String name = cursor.getString(cursor.getColumnIndexOrThrow(AlbumColumns.ALBUM));
-						String artist = cursor.getString(cursor.getColumnIndexOrThrow(AlbumColumns.ARTIST));
-						int count = cursor.getInt(cursor.getColumnIndexOrThrow(AlbumColumns.NUMBER_OF_SONGS));
-						String year = cursor.getString(cursor.getColumnIndexOrThrow(AlbumColumns.FIRST_YEAR));
-						album = new Album(id, name, artist, count, year, true);
-					}
-					cursor.close();
-				}
+				album = mTrackCache.getAlbum(this, song.getAlbumId());
+				mTrackCache.put(song, album);
 			}
 			currentAlbum = album;
 			currentSong = song;
@@ -1273,6 +1369,20 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 		}
 	}
 
+	/**
+	 * load information of the next tracks in the queue in background
+	 */
+	private void prefetchTrackInformation() {
+		int count = Math.min(PREFETCH_COUNT, mPlayList.size() - mPlayPos - 1);
+		if (count > 0) {
+			long[] ids = new long[count];
+			for (int i = 0; i < count; i++) {
+				ids[i] = mPlayList.get(mPlayPos + i + 1);
+			}
+			mTrackCache.prefetch(this, ids);
+		}
+	}
+
 	/**
 	 * clear information about the current selected track
 	 */
@@ -1292,10 +1402,10 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 	}
 
 	/**
-	 * prepare current track of the queue for playback and update track information
-	 * if an error occurs try the next tracks
+	 * start preparing current track of the queue for playback and update track information
+	 * if an error occurs the next tracks are tried, see {@link #onTrackPrepared(boolean, boolean)}
 	 *
-	 * @return true if track was opened successfully
+	 * @return true if track preparation started
 	 */
 	private boolean openCurrentTrack() {
 		if (mPlayList.isEmpty() || mPlayPos < 0) {
@@ -1305,61 +1415,39 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 		if (mPlayer.isPlaying())
 			stop();
 		updateTrackInformation();
-		boolean fileOpened = false;
-		Song song = currentSong;
-		long id = song != null ? song.getId() : 0;
-		if (id != -1L) {
-			fileOpened = openTrack(id);
-		}
-		// check if file was opened successfully
-		if (!fileOpened) {
-			if (mPlayList.size() > 1) {
-				// trying to play one of the next 10 tracks, give up if no success
-				for (int i = 0; i < 10 && !fileOpened && mPlayPos >= 0; i++) {
-					mPlayPos = incrementPosition(mPlayPos, false);
-					// check if the end of the queue is reached
-					if (mPlayPos < 0) {
-						stop();
-					}
-					// skip faulty track and try open next track
-					else {
-						updateTrackInformation();
-						song = currentSong;
-						id = song != null ? song.getId() : 0;
-						if (id != -1L && openTrack(id)) {
-							fileOpened = true;
-						}
-					}
-				}
-			}
-			if (!fileOpened) {
-				Log.w(TAG, "Failed to open file for playback");
-				// give up and prepare shutdown
-				stop();
-			}
-		}
-		return fileOpened;
+		mOpenRetries = 0;
+		openTrack();
+		return true;
 	}
 
 	/**
 	 * Sets the track track to be played
+	 *
+	 * @param force True to force the player onto the track next, false otherwise.
 	 */
 	private void setNextTrack(boolean force) {
-		int nextPos = mPlayPos;
-		for (int i = 0; i < 10; i++) {
-			nextPos = incrementPosition(nextPos, force);
-			if (nextPos >= 0 && nextPos < mPlayList.size()) {
-				long id = mPlayList.get(nextPos);
-				Uri uri = Uri.parse(Media.EXTERNAL_CONTENT_URI + "/" + id);
-				if (mPlayer.setNextDataSource(getApplicationContext(), uri)) {
-					mNextPlayPos = nextPos;
-					break;
-				}
-			} else {
-				mPlayer.setNextDataSource(getApplicationContext(), null);
-				mNextPlayPos = -1;
-				break;
-			}
+		mNextForce = force;
+		mNextRetries = 0;
+		prepareNextTrack(mPlayPos);
+	}
+
+	/**
+	 * start preparing the track after a queue position as next track
+	 *
+	 * @param pos queue position before the next track
+	 */
+	private void prepareNextTrack(int pos) {
+		int nextPos = incrementPosition(pos, mNextForce);
+		if (nextPos >= 0 && nextPos < mPlayList.size()) {
+			long id = mPlayList.get(nextPos);
+			Uri uri = Uri.parse(Media.EXTERNAL_CONTENT_URI + "/" + id);
+			mPlayer.setNextDataSource(getApplicationContext(), uri);
+			mNextPlayPos = nextPos;
+			// next track may be a random track in shuffle mode
+			mTrackCache.prefetch(this, new long[]{id});
+		} else {
+			mPlayer.setNextDataSource(getApplicationContext(), null);
+			mNextPlayPos = -1;
 		}
 	}
 
@@ -1386,20 +1474,48 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 					mHistory.removeFirst();
 				}
 				// reset shuffle list after reaching the end or refreshing
-				if (mShuffleList.size() != mPlayList.size() || mShufflePos < 0 || mShufflePos >= mShuffleList.size()) {
+				if (mShuffleList.size() != mPlayList.size() || !mShuffleList.hasNext()) {
 					// create a new shuffle list. if fail, prevent playing
-					mShufflePos = 0;
 					if (!makeShuffleList(false)) {
 						return -1;
 					}
 				}
 				// get index of the new track
-				return mShuffleList.get(mShufflePos++);
+				return mShuffleList.next();
 
 			// Party shuffle
 			case SHUFFLE_AUTO:
-				makeShuffleList(true);
-				return pos + 1;
+				// add new tracks from the library when reaching the end of the queue
+				if (pos + 1 >= mPlayList.size()) {
+					// remove played tracks exceeding the history size
+					int played = Math.min(pos, mPlayPos) - MAX_HISTORY_SIZE;
+					if (played > 0) {
+						mPlayList.removeRange(0, played);
+						if (mQueueIsSaveable) {
+							for (int i = 0; i < played; i++) {
+								mQueueStore.remove(0);
+							}
+						}
+						pos -= played;
+						mPlayPos -= played;
+						mNextPlayPos = mNextPlayPos >= played ? mNextPlayPos - played : -1;
+					}
+					long[] ids = mPartyShuffle.next(this, PARTY_SHUFFLE_BATCH, mRandom);
+					if (mQueueIsSaveable) {
+						mQueueStore.insert(mPlayList.size(), ids);
+					}
+					mPlayList.addAll(mPlayList.size(), ids);
+					// notifyChange(CHANGED_QUEUE) would prepare the next track again, the caller already does it
+					saveQueue(true);
+					mChangeHandler.post(CHANGED_QUEUE);
+					if (played > 0) {
+						notifyChange(CHANGED_POSITION);
+					}
+				}
+				if (pos + 1 < mPlayList.size()) {
+					return pos + 1;
+				}
+				return -1;
 
 			default:
 				if (pos >= mPlayList.size() - 1) {
@@ -1442,40 +1558,24 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 	/**
 	 * Creates a shuffled playlist used for party mode
 	 *
-	 * @param partyShuffle true to create a party shuffle list with all available tracks
+	 * @param partyShuffle true to create a party shuffle list with random tracks of the library
 	 *                     false to shuffle current queue
 	 */
 	private boolean makeShuffleList(boolean partyShuffle) {
 		try {
 			if (partyShuffle) {
-				Cursor cursor = CursorFactory.makeTrackCursor(this);
-				if (cursor != null) {
-					if (cursor.moveToFirst()) {
-						mPlayList.clear();
-						do {
-							long id = cursor.getLong(0);
-							mPlayList.add(id);
-						} while (cursor.moveToNext());
+				// replace queue with random tracks of the library
+				long[] ids = mPartyShuffle.next(this, PARTY_SHUFFLE_BATCH, mRandom);
+				if (ids.length > 0) {
+					mPlayList.setAll(ids);
+					if (mQueueIsSaveable) {
+						mQueueStore.setAll(ids, mCardId);
 					}
-					cursor.close();
 				}
 			}
 			if (!mPlayList.isEmpty()) {
-				mShuffleList.clear();
-				mShuffleList.ensureCapacity(mPlayList.size());
-				for (int index = 0; index < mPlayList.size(); index++) {
-					mShuffleList.add(index);
-				}
-				Collections.shuffle(mShuffleList, mRandom);
-				// move played tracks at the end
-				if (!mHistory.isEmpty()) {
-					for (int i = 0; i < mShuffleList.size(); i++) {
-						if (mHistory.contains(mShuffleList.get(i))) {
-							int index = mShuffleList.remove(i);
-							mShuffleList.add(index);
-						}
-					}
-				}
+				// shuffle queue positions and move played tracks at the end
+				mShuffleList.shuffle(mPlayList.size(), mRandom, mHistory);
 				return true;
 			} else {
 				clearShuffleList();
@@ -1493,43 +1593,36 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 	 */
 	private void clearShuffleList() {
 		mShuffleList.clear();
-		mShufflePos = -1;
 		mShuffleMode = SHUFFLE_NONE;
 	}
 
 	/**
-	 * open media file using its content ID and prepare for playback
-	 *
-	 * @param id content ID
-	 * @return true if playback is initialized successfully
+	 * start preparing the current track for playback
 	 */
-	private boolean openTrack(long id) {
+	private void openTrack() {
+		Song song = currentSong;
+		long id = song != null ? song.getId() : 0;
 		Uri uri = Uri.parse(Media.EXTERNAL_CONTENT_URI + "/" + id);
-		if (mPlayer.setDataSource(getApplicationContext(), uri)) {
-			return true;
-		} else {
-			stop();
-			return false;
-		}
+		mPlayer.setDataSource(getApplicationContext(), uri);
 	}
 
 	/**
-	 * Saves the queue
+	 * Saves the play position and the track history.
+	 * Changes of the queue itself are saved when they occur
 	 *
-	 * @param full True if the queue is full
+	 * @param full True to save the track history
 	 */
 	private void saveQueue(boolean full) {
 		if (mQueueIsSaveable) {
-			if (full) {
-				settings.setPlayList(mPlayList, mCardId);
-				if (mShuffleMode != SHUFFLE_NONE) {
-					settings.setTrackHistory(mHistory);
-				}
+			// rewrite queue file if there are too many queue changes
+			if (mQueueStore.isCompactionRequired()) {
+				mQueueStore.setAll(mPlayList.toArray(), mCardId);
 			}
-			settings.setCursorPosition(mPlayPos);
-			if (mPlayer.initialized()) {
-				settings.setSeekPosition(mPlayer.getPosition());
+			if (full && mShuffleMode != SHUFFLE_NONE) {
+				mQueueStore.setHistory(mHistory);
 			}
+			long seekPos = mPlayer.initialized() ? mPlayer.getPosition() : mQueueStore.getSeekPosition();
+			mQueueStore.setPosition(mPlayPos, seekPos);
 			settings.setRepeatAndShuffleMode(mRepeatMode, mShuffleMode);
 		}
 	}
@@ -1539,32 +1632,22 @@ public class MusicPlaybackService extends Service implements OnAudioFocusChangeL
 	 * Apollo
 	 */
 	private void reloadQueue() {
-		int id = settings.getCardId();
-		if (id == mCardId) {
-			mPlayList.clear();
-			mPlayList.addAll(settings.getPlaylist());
-		}
+		mQueueStore.load(mCardId, mPlayList, mHistory);
+		mShuffleList.clear();
 		if (!mPlayList.isEmpty()) {
-			int pos = settings.getCursorPosition();
+			int pos = mQueueStore.getPosition();
+			long seekpos = mQueueStore.getSeekPosition();
 			if (pos >= 0 && pos < mPlayList.size()) {
 				mPlayPos = pos;
 			}
 			openCurrentAndNext();
-			if (mPlayer.initialized()) {
-				long seekpos = settings.getSeekPosition();
-				seekTo(seekpos >= 0 && seekpos <= mPlayer.getDuration() ? seekpos : 0);
-			}
+			// seek after the track is prepared
+			seekTo(seekpos);
 			//
 			mRepeatMode = settings.getRepeatMode();
 			mShuffleMode = settings.getShuffleMode();
-			if (mShuffleMode != SHUFFLE_NONE) {
+			if (mShuffleMode == SHUFFLE_NONE) {
 				mHistory.clear();
-				mHistory.addAll(settings.getTrackHistory());
-			}
-			if (mShuffleMode == SHUFFLE_AUTO) {
-				if (!makeShuffleList(true)) {
-					mShuffleMode = SHUFFLE_NONE;
-				}
 			}
 		}
 		notifyChange(CHANGED_QUEUE);
@@ -0,0 +1,128 @@
+package org.nuclearfog.apollo.service;
+
+import android.content.Context;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.provider.MediaStore.Audio.Media;
+
+import androidx.annotation.NonNull;
+
+import org.nuclearfog.apollo.utils.CursorFactory;
+
+import java.util.Random;
+
+/**
+ * Track source used for party shuffle.
+ * All track IDs of the library are loaded once and handed out in random batches.
+ * The snapshot is only reloaded after the MediaStore has changed.
+ *
+ * @author nuclearfog
+ */
+public class PartyShuffle extends ContentObserver {
+
+	/**
+	 * snapshot of all library track IDs
+	 */
+	private long[] trackIds = new long[0];
+
+	/**
+	 * random order of the snapshot indexes
+	 */
+	private int[] order = new int[0];
+
+	/**
+	 * index of the next track in {@link #order}
+	 */
+	private int position = 0;
+
+	/**
+	 * true if the snapshot needs to be reloaded
+	 */
+	private volatile boolean invalid = true;
+
+	/**
+	 *
+	 */
+	public PartyShuffle() {
+		super(null);
+	}
+
+
+	@Override
+	public void onChange(boolean selfChange) {
+		invalid = true;
+	}
+
+	/**
+	 * register this instance to receive MediaStore changes
+	 */
+	public void register(Context context) {
+		context.getContentResolver().registerContentObserver(Media.EXTERNAL_CONTENT_URI, true, this);
+	}
+
+	/**
+	 * unregister this instance from MediaStore changes
+	 */
+	public void unregister(Context context) {
+		context.getContentResolver().unregisterContentObserver(this);
+	}
+
+	/**
+	 * get the next random tracks of the library
+	 *
+	 * @param count  maximum number of tracks to return
+	 * @param random random generator to use
+	 * @return array of track IDs, empty if the library has no tracks
+	 */
+	@NonNull
+	public long[] next(Context context, int count, Random random) {
+		if (invalid) {
+			reload(context);
+			position = order.length;
+		}
+		if (order.length == 0) {
+			return new long[0];
+		}
+		long[] result = new long[Math.min(count, order.length)];
+		for (int i = 0; i < result.length; i++) {
+			// shuffle again after all tracks were used
+			if (position >= order.length) {
+				shuffle(random);
+			}
+			result[i] = trackIds[order[position++]];
+		}
+		return result;
+	}
+
+	/**
+	 * load all track IDs from the MediaStore
+	 */
+	private void reload(Context context) {
+		invalid = false;
+		Cursor cursor = CursorFactory.makeTrackCursor(context);
+		if (cursor != null) {
+			long[] ids = new long[cursor.getCount()];
+			int count = 0;
+			if (cursor.moveToFirst()) {
+				do {
+					ids[count++] = cursor.getLong(0);
+				} while (cursor.moveToNext() && count < ids.length);
+			}
+			cursor.close();
+			trackIds = ids;
+			order = new int[count];
+		}
+	}
+
+	/**
+	 * create a new random order of the snapshot
+	 */
+	private void shuffle(Random random) {
+		for (int i = 0; i < order.length; i++) {
+			int j = random.nextInt(i + 1);
+			order[i] = order[j];
+			order[j] = i;
+		}
+		position = 0;
+	}
+}
@@ -0,0 +1,437 @@
+package org.nuclearfog.apollo.service;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Play queue containing track IDs, backed by a primitive gap buffer.
+ * Reading a position is O(1), inserting or removing near the last edit position is cheap
+ * because only the elements between the old and the new edit position are moved.
+ * The latest changes are recorded, so clients can update their copy of the queue without reloading.
+ *
+ * @author nuclearfog
+ */
+public class PlayQueue {
+
+	/**
+	 * change type used if tracks were inserted, followed by position, track count and track IDs
+	 */
+	public static final int CHANGE_INSERT = 1;
+
+	/**
+	 * change type used if tracks were removed, followed by position and track count
+	 */
+	public static final int CHANGE_REMOVE = 2;
+
+	/**
+	 * change type used if a track was moved, followed by old and new position
+	 */
+	public static final int CHANGE_MOVE = 3;
+
+	/**
+	 * maximum number of recorded changes
+	 */
+	private static final int MAX_CHANGES = 64;
+
+	/**
+	 * maximum number of inserted track IDs to record a change. Larger changes require a reload of the queue
+	 */
+	private static final int MAX_CHANGE_SIZE = 512;
+
+	/**
+	 * minimum capacity of the buffer
+	 */
+	private static final int MIN_CAPACITY = 16;
+
+	/**
+	 * buffer containing the track IDs and the gap
+	 */
+	private long[] buffer = new long[MIN_CAPACITY];
+
+	/**
+	 * first index of the gap (inclusive)
+	 */
+	private int gapStart = 0;
+
+	/**
+	 * last index of the gap (exclusive)
+	 */
+	private int gapEnd = MIN_CAPACITY;
+
+	/**
+	 * incremented on every change of the queue.
+	 * The start value is different for every instance, so clients can detect a new queue
+	 */
+	private long generation = System.nanoTime();
+
+	/**
+	 * latest changes of the queue, see {@link #getChanges(long)}
+	 */
+	private LinkedList<long[]> changes = new LinkedList<>();
+
+	/**
+	 * generation number before the oldest recorded change
+	 */
+	private long changesStart = generation;
+
+	/**
+	 * @return number of tracks in the queue
+	 */
+	public int size() {
+		return buffer.length - gapEnd + gapStart;
+	}
+
+	/**
+	 * @return true if the queue is empty
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * @return generation number of the queue, changes every time the queue is modified
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * get track ID at a position
+	 *
+	 * @param index position of the track
+	 * @return track ID
+	 */
+	public long get(int index) {
+		checkIndex(index, size() - 1);
+		if (index < gapStart)
+			return buffer[index];
+		return buffer[index + gapEnd - gapStart];
+	}
+
+	/**
+	 * get the first position of a track ID
+	 *
+	 * @param id track ID
+	 * @return position of the track or -1 if not found
+	 */
+	public int indexOf(long id) {
+		for (int i = 0; i < gapStart; i++) {
+			if (buffer[i] == id) {
+				return i;
+			}
+		}
+		for (int i = gapEnd; i < buffer.length; i++) {
+			if (buffer[i] == id) {
+				return i - gapEnd + gapStart;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * append a track to the end of the queue
+	 *
+	 * @param id track ID
+	 */
+	public void add(long id) {
+		add(size(), id);
+	}
+
+	/**
+	 * insert a track at a position
+	 *
+	 * @param index position where to insert the track
+	 * @param id    track ID
+	 */
+	public void add(int index, long id) {
+		checkIndex(index, size());
+		moveGap(index);
+		ensureGap(1);
+		buffer[gapStart++] = id;
+		addChange(CHANGE_INSERT, index, 1, id);
+	}
+
+	/**
+	 * insert tracks at a position
+	 *
+	 * @param index position where to insert the tracks
+	 * @param ids   track IDs
+	 */
+	public void addAll(int index, long[] ids) {
+		checkIndex(index, size());
+		moveGap(index);
+		ensureGap(ids.length);
+		System.arraycopy(ids, 0, buffer, gapStart, ids.length);
+		gapStart += ids.length;
+		if (ids.length > MAX_CHANGE_SIZE) {
+			reset();
+		} else if (ids.length > 0) {
+			addChange(CHANGE_INSERT, index, ids.length, ids);
+		}
+	}
+
+	/**
+	 * replace all tracks of the queue
+	 *
+	 * @param ids new track IDs
+	 */
+	public void setAll(long[] ids) {
+		gapStart = 0;
+		gapEnd = buffer.length;
+		ensureGap(ids.length);
+		System.arraycopy(ids, 0, buffer, 0, ids.length);
+		gapStart = ids.length;
+		reset();
+	}
+
+	/**
+	 * remove a track at a position
+	 *
+	 * @param index position of the track
+	 * @return ID of the removed track
+	 */
+	public long remove(int index) {
+		checkIndex(index, size() - 1);
+		moveGap(index);
+		addChange(CHANGE_REMOVE, index, 1);
+		return buffer[gapEnd++];
+	}
+
+	/**
+	 * remove a range of tracks
+	 *
+	 * @param index position of the first track
+	 * @param count number of tracks to remove
+	 */
+	public void removeRange(int index, int count) {
+		checkIndex(index, size());
+		checkIndex(index + count, size());
+		if (count > 0) {
+			moveGap(index);
+			gapEnd += count;
+			addChange(CHANGE_REMOVE, index, count);
+		}
+	}
+
+	/**
+	 * move a track to another position
+	 *
+	 * @param from current position of the track
+	 * @param to   new position of the track
+	 */
+	public void move(int from, int to) {
+		checkIndex(from, size() - 1);
+		checkIndex(to, size() - 1);
+		moveGap(from);
+		long id = buffer[gapEnd++];
+		moveGap(to);
+		buffer[gapStart++] = id;
+		addChange(CHANGE_MOVE, from, to);
+	}
+
+	/**
+	 * remove all occurences of the given track IDs in a single pass
+	 *
+	 * @param ids      track IDs to remove
+	 * @param position play position to update
+	 * @return updated play position. If the track at this position was removed, the position of the next track remaining
+	 */
+	public int removeAll(long[] ids, int position) {
+		long[] sorted = Arrays.copyOf(ids, ids.length);
+		Arrays.sort(sorted);
+		int size = size();
+		// move gap to the end so all tracks are in a row
+		moveGap(size);
+		int newPosition = position;
+		int write = 0;
+		int removed = 0;
+		List<long[]> ranges = new ArrayList<>();
+		for (int read = 0; read < size; read++) {
+			long id = buffer[read];
+			if (Arrays.binarySearch(sorted, id) >= 0) {
+				if (read < position) {
+					newPosition--;
+				}
+				removed++;
+			} else {
+				// record range of removed tracks
+				if (removed > 0) {
+					ranges.add(new long[]{write, removed});
+					removed = 0;
+				}
+				buffer[write++] = id;
+			}
+		}
+		if (removed > 0) {
+			ranges.add(new long[]{write, removed});
+		}
+		gapStart = write;
+		if (ranges.size() > MAX_CHANGES / 2) {
+			reset();
+		} else {
+			for (long[] range : ranges) {
+				addChange(CHANGE_REMOVE, range[0], range[1]);
+			}
+		}
+		return newPosition;
+	}
+
+	/**
+	 * remove all tracks
+	 */
+	public void clear() {
+		gapStart = 0;
+		gapEnd = buffer.length;
+		reset();
+	}
+
+	/**
+	 * get all changes after a generation number.
+	 * Every change increments the generation number by one.
+	 *
+	 * @param since generation number of the client copy of the queue
+	 * @return array with the current generation number followed by the changes, see {@link #CHANGE_INSERT,#CHANGE_REMOVE,#CHANGE_MOVE}
+	 * or null if the changes are not available anymore and the queue must be reloaded
+	 */
+	@Nullable
+	public long[] getChanges(long since) {
+		if (since < changesStart || since > generation)
+			return null;
+		int length = 1;
+		long current = changesStart;
+		for (long[] change : changes) {
+			if (++current > since) {
+				length += change.length;
+			}
+		}
+		long[] result = new long[length];
+		result[0] = generation;
+		int offset = 1;
+		current = changesStart;
+		for (long[] change : changes) {
+			if (++current > since) {
+				System.arraycopy(change, 0, result, offset, change.length);
+				offset += change.length;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * copy all track IDs into a new array
+	 *
+	 * @return array with track IDs in queue order
+	 */
+	@NonNull
+	public long[] toArray() {
+		long[] result = new long[size()];
+		System.arraycopy(buffer, 0, result, 0, gapStart);
+		System.arraycopy(buffer, gapEnd, result, gapStart, buffer.length - gapEnd);
+		return result;
+	}
+
+	/**
+	 * copy a range of track IDs into a new array
+	 *
+	 * @param offset position of the first track
+	 * @param count  maximum number of tracks to copy
+	 * @return array with track IDs in queue order
+	 */
+	@NonNull
+	public long[] toArray(int offset, int count) {
+		int size = size();
+		if (offset < 0 || offset >= size || count <= 0)
+			return new long[0];
+		long[] result = new long[Math.min(count, size - offset)];
+		for (int i = 0; i < result.length; i++) {
+			int index = offset + i;
+			result[i] = index < gapStart ? buffer[index] : buffer[index + gapEnd - gapStart];
+		}
+		return result;
+	}
+
+	/**
+	 * record a change and increment the generation number
+	 *
+	 * @param type   type of the change
+	 * @param first  position of the change
+	 * @param second track count or the new position
+	 * @param ids    inserted track IDs
+	 */
+	private void addChange(int type, long first, long second, long... ids) {
+		long[] change = new long[ids.length + 3];
+		change[0] = type;
+		change[1] = first;
+		change[2] = second;
+		System.arraycopy(ids, 0, change, 3, ids.length);
+		changes.add(change);
+		if (changes.size() > MAX_CHANGES) {
+			changes.removeFirst();
+			changesStart++;
+		}
+		generation++;
+	}
+
+	/**
+	 * discard recorded changes after replacing the queue. Clients need to reload the queue
+	 */
+	private void reset() {
+		changes.clear();
+		generation++;
+		changesStart = generation;
+	}
+
+	/**
+	 * move the gap to a new position
+	 *
+	 * @param index new position of the gap
+	 */
+	private void moveGap(int index) {
+		if (index < gapStart) {
+			int count = gapStart - index;
+			System.arraycopy(buffer, index, buffer, gapEnd - count, count);
+			gapStart -= count;
+			gapEnd -= count;
+		} else if (index > gapStart) {
+			int count = index - gapStart;
+			System.arraycopy(buffer, gapEnd, buffer, gapStart, count);
+			gapStart += count;
+			gapEnd += count;
+		}
+	}
+
+	/**
+	 * grow buffer if the gap is too small
+	 *
+	 * @param count minimum size of the gap
+	 */
+	private void ensureGap(int count) {
+		if (gapEnd - gapStart < count) {
+			int size = size();
+			int capacity = Math.max(Math.max(buffer.length * 2, size + count), MIN_CAPACITY);
+			long[] newBuffer = new long[capacity];
+			int tail = buffer.length - gapEnd;
+			System.arraycopy(buffer, 0, newBuffer, 0, gapStart);
+			System.arraycopy(buffer, gapEnd, newBuffer, capacity - tail, tail);
+			gapEnd = capacity - tail;
+			buffer = newBuffer;
+		}
+	}
+
+	/**
+	 * check if an index is in range
+	 *
+	 * @param index index to check
+	 * @param max   maximum index allowed
+	 */
+	private void checkIndex(int index, int max) {
+		if (index < 0 || index > max) {
+			throw new IndexOutOfBoundsException("index=" + index + ", size=" + size());
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package org.nuclearfog.apollo.service;
+
+import android.os.ParcelFileDescriptor;
+import android.os.ParcelFileDescriptor.AutoCloseInputStream;
+import android.os.ParcelFileDescriptor.AutoCloseOutputStream;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfers a queue snapshot through a pipe instead of a Binder transaction.
+ * Used for large queues which exceed the Binder transaction limit.
+ * The stream contains the queue generation, the queue size and the track IDs.
+ *
+ * @author nuclearfog
+ */
+public class QueueTransfer {
+
+	private static final String TAG = "QueueTransfer";
+
+	/**
+	 * thread used to write the queue snapshots to the pipes, stopped when idle
+	 */
+	private static final ExecutorService WRITER = new ThreadPoolExecutor(0, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			return new Thread(runnable, TAG);
+		}
+	});
+
+	/**
+	 *
+	 */
+	private QueueTransfer() {
+	}
+
+	/**
+	 * create a pipe and write a queue snapshot in background
+	 *
+	 * @param generation generation number of the queue
+	 * @param ids        track IDs of the queue
+	 * @return read side of the pipe or null if an error occured
+	 */
+	@Nullable
+	public static ParcelFileDescriptor write(final long generation, final long[] ids) {
+		try {
+			ParcelFileDescriptor[] pipe = ParcelFileDescriptor.createPipe();
+			final AutoCloseOutputStream output = new AutoCloseOutputStream(pipe[1]);
+			WRITER.execute(new Runnable() {
+				@Override
+				public void run() {
+					DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+					try {
+						try {
+							out.writeLong(generation);
+							out.writeInt(ids.length);
+							for (long id : ids) {
+								out.writeLong(id);
+							}
+						} finally {
+							out.close();
+						}
+					} catch (IOException exception) {
+						// client closed the pipe
+						Log.w(TAG, "queue transfer aborted");
+					}
+				}
+			});
+			return pipe[0];
+		} catch (IOException exception) {
+			Log.e(TAG, "failed to create pipe", exception);
+			return null;
+		}
+	}
+
+	/**
+	 * read a queue snapshot from a pipe
+	 *
+	 * @param fd         read side of the pipe
+	 * @param generation array to store the generation number of the queue at index 0
+	 * @return track IDs of the queue or null if an error occured
+	 */
+	@Nullable
+	public static long[] read(ParcelFileDescriptor fd, long[] generation) {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new AutoCloseInputStream(fd)));
+		try {
+			try {
+				generation[0] = in.readLong();
+				long[] ids = new long[in.readInt()];
+				for (int i = 0; i < ids.length; i++) {
+					ids[i] = in.readLong();
+				}
+				return ids;
+			} finally {
+				in.close();
+			}
+		} catch (IOException exception) {
+			Log.e(TAG, "failed to read queue", exception);
+			return null;
+		}
+	}
+}
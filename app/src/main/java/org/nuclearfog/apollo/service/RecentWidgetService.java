@@ -21,6 +21,7 @@ import org.nuclearfog.apollo.BuildConfig;
 import org.nuclearfog.apollo.R;
 import org.nuclearfog.apollo.cache.ImageCache;
 import org.nuclearfog.apollo.cache.ImageFetcher;
+import org.nuclearfog.apollo.cache.ImageWorker.ArtworkSize;
 import org.nuclearfog.apollo.model.Album;
 import org.nuclearfog.apollo.store.RecentStore;
 import org.nuclearfog.apollo.ui.widgets.RecentWidgetProvider;
@@ -109,7 +110,7 @@ public class RecentWidgetService extends RemoteViewsService {
 			// Set the artist names
 			mViews.setTextViewText(R.id.app_widget_recents_line_two, album.getArtist());
 			// Set the album art
-			Bitmap bitmap = mFetcher.getCachedArtwork(album);
+			Bitmap bitmap = mFetcher.getCachedArtwork(album, ArtworkSize.NOTIFICATION);
 			if (bitmap != null) {
 				mViews.setImageViewBitmap(R.id.app_widget_recents_base_image, bitmap);
 			} else {
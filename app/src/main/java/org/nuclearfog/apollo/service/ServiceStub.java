@@ -1,6 +1,7 @@
 package org.nuclearfog.apollo.service;
 
 import android.net.Uri;
+import android.os.ParcelFileDescriptor;
 
 import org.nuclearfog.apollo.IApolloService;
 import org.nuclearfog.apollo.model.Album;
@@ -156,6 +157,61 @@ class ServiceStub extends IApolloService.Stub {
 		return new long[0];
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long[] getQueueRange(int offset, int count) {
+		MusicPlaybackService service = mService.get();
+		if (service != null)
+			return service.getQueueRange(offset, count);
+		return new long[0];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ParcelFileDescriptor getQueueStream() {
+		MusicPlaybackService service = mService.get();
+		if (service != null)
+			return service.getQueueStream();
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getQueueSize() {
+		MusicPlaybackService service = mService.get();
+		if (service != null)
+			return service.getQueueSize();
+		return 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getQueueGeneration() {
+		MusicPlaybackService service = mService.get();
+		if (service != null)
+			return service.getQueueGeneration();
+		return 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long[] getQueueChanges(long generation) {
+		MusicPlaybackService service = mService.get();
+		if (service != null)
+			return service.getQueueChanges(generation);
+		return null;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
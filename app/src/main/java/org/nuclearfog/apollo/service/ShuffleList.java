@@ -0,0 +1,177 @@
+package org.nuclearfog.apollo.service;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Random;
+
+/**
+ * Shuffled play order of the queue, stored as a permutation of queue positions.
+ * Queue edits are applied to the existing permutation so the shuffle order and the progress are kept.
+ *
+ * @author nuclearfog
+ */
+public class ShuffleList {
+
+	/**
+	 * permutation of the queue positions
+	 */
+	private int[] order = new int[0];
+
+	/**
+	 * number of positions in the permutation
+	 */
+	private int size = 0;
+
+	/**
+	 * index of the next position to play
+	 */
+	private int position = 0;
+
+	/**
+	 * create a new permutation of the queue positions.
+	 * Positions already played are moved to the end
+	 *
+	 * @param count   size of the queue
+	 * @param random  random generator to use
+	 * @param history positions already played
+	 */
+	public void shuffle(int count, Random random, Collection<Integer> history) {
+		if (order.length < count)
+			order = new int[count];
+		size = count;
+		position = 0;
+		// Fisher-Yates shuffle
+		for (int i = 0; i < count; i++) {
+			int j = random.nextInt(i + 1);
+			order[i] = order[j];
+			order[j] = i;
+		}
+		// move played positions to the end, keeping the shuffled order
+		if (!history.isEmpty()) {
+			BitSet played = new BitSet(count);
+			for (int index : history) {
+				if (index >= 0 && index < count) {
+					played.set(index);
+				}
+			}
+			int[] sorted = new int[count];
+			int front = 0;
+			int back = count - played.cardinality();
+			for (int i = 0; i < count; i++) {
+				if (played.get(order[i])) {
+					sorted[back++] = order[i];
+				} else {
+					sorted[front++] = order[i];
+				}
+			}
+			order = sorted;
+		}
+	}
+
+	/**
+	 * @return true if there are positions left to play
+	 */
+	public boolean hasNext() {
+		return position < size;
+	}
+
+	/**
+	 * get the next queue position to play
+	 *
+	 * @return queue position or -1 if the end is reached
+	 */
+	public int next() {
+		if (position < size)
+			return order[position++];
+		return -1;
+	}
+
+	/**
+	 * @return number of queue positions in this shuffle list
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true if the shuffle list is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * remove all positions
+	 */
+	public void clear() {
+		size = 0;
+		position = 0;
+	}
+
+	/**
+	 * update shuffle list after tracks were inserted into the queue.
+	 * New positions are placed randomly between the positions not played yet
+	 *
+	 * @param index  queue position of the first inserted track
+	 * @param count  number of inserted tracks
+	 * @param random random generator to use
+	 */
+	public void insert(int index, int count, Random random) {
+		if (order.length < size + count) {
+			int[] newOrder = new int[Math.max(order.length * 2, size + count)];
+			System.arraycopy(order, 0, newOrder, 0, size);
+			order = newOrder;
+		}
+		for (int i = 0; i < size; i++) {
+			if (order[i] >= index) {
+				order[i] += count;
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			int j = position + random.nextInt(size - position + 1);
+			order[size++] = order[j];
+			order[j] = index + i;
+		}
+	}
+
+	/**
+	 * update shuffle list after a track was removed from the queue
+	 *
+	 * @param index queue position of the removed track
+	 */
+	public void remove(int index) {
+		int write = 0;
+		int newPosition = position;
+		for (int read = 0; read < size; read++) {
+			int value = order[read];
+			if (value == index) {
+				if (read < position) {
+					newPosition--;
+				}
+			} else {
+				order[write++] = value > index ? value - 1 : value;
+			}
+		}
+		size = write;
+		position = newPosition;
+	}
+
+	/**
+	 * update shuffle list after a track was moved inside the queue
+	 *
+	 * @param from old queue position of the track
+	 * @param to   new queue position of the track
+	 */
+	public void move(int from, int to) {
+		for (int i = 0; i < size; i++) {
+			int value = order[i];
+			if (value == from) {
+				order[i] = to;
+			} else if (from < to && value > from && value <= to) {
+				order[i] = value - 1;
+			} else if (from > to && value >= to && value < from) {
+				order[i] = value + 1;
+			}
+		}
+	}
+}
@@ -0,0 +1,228 @@
+package org.nuclearfog.apollo.service;
+
+import android.content.Context;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.provider.MediaStore.Audio.Media;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.nuclearfog.apollo.cache.LruCache;
+import org.nuclearfog.apollo.model.Album;
+import org.nuclearfog.apollo.model.Song;
+import org.nuclearfog.apollo.utils.CursorFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Memory cache for track and album information used by the playback service.
+ * Information of the next queued tracks is loaded in background, so track changes don't need to query the MediaStore.
+ * The cache is cleared after the MediaStore has changed.
+ *
+ * @author nuclearfog
+ */
+public class TrackCache extends ContentObserver {
+
+	private static final String TAG = "TrackCache";
+
+	/**
+	 * maximum number of cached tracks and albums
+	 */
+	private static final int MAX_SIZE = 128;
+
+	/**
+	 * thread used to load track information in background
+	 */
+	private ExecutorService loader = Executors.newSingleThreadExecutor();
+
+	private LruCache<Long, Song> songs = new LruCache<>(MAX_SIZE);
+	private LruCache<Long, Album> albums = new LruCache<>(MAX_SIZE);
+
+	/**
+	 * incremented on every MediaStore change to discard results loaded before
+	 */
+	private volatile int generation = 0;
+
+	/**
+	 *
+	 */
+	public TrackCache() {
+		super(null);
+	}
+
+
+	@Override
+	public void onChange(boolean selfChange) {
+		generation++;
+		songs.evictAll();
+		albums.evictAll();
+	}
+
+	/**
+	 * register this instance to receive MediaStore changes
+	 */
+	public void register(Context context) {
+		context.getContentResolver().registerContentObserver(Media.EXTERNAL_CONTENT_URI, true, this);
+	}
+
+	/**
+	 * unregister this instance from MediaStore changes and stop background loading
+	 */
+	public void unregister(Context context) {
+		context.getContentResolver().unregisterContentObserver(this);
+		loader.shutdownNow();
+	}
+
+	/**
+	 * get track information from cache or from the MediaStore if not cached
+	 *
+	 * @param id track ID
+	 * @return track information or null if not found
+	 */
+	@Nullable
+	public Song getSong(Context context, long id) {
+		Song song = songs.get(id);
+		if (song == null) {
+			int gen = generation;
+			Cursor cursor = CursorFactory.makeTrackCursor(context, id);
+			if (cursor != null) {
+				if (cursor.moveToFirst()) {
+					song = readSong(cursor);
+				}
+				cursor.close();
+			}
+			if (song != null && gen == generation) {
+				songs.put(id, song);
+			}
+		}
+		return song;
+	}
+
+	/**
+	 * get album information from cache or from the MediaStore if not cached
+	 *
+	 * @param id album ID
+	 * @return album information or null if not found
+	 */
+	@Nullable
+	public Album getAlbum(Context context, long id) {
+		Album album = albums.get(id);
+		if (album == null) {
+			int gen = generation;
+			Cursor cursor = CursorFactory.makeAlbumCursor(context, id);
+			if (cursor != null) {
+				if (cursor.moveToFirst()) {
+					album = readAlbum(cursor);
+				}
+				cursor.close();
+			}
+			if (album != null && gen == generation) {
+				albums.put(id, album);
+			}
+		}
+		return album;
+	}
+
+	/**
+	 * add track information to the cache
+	 *
+	 * @param song  track information
+	 * @param album album information of the track or null if not available
+	 */
+	public void put(@NonNull Song song, @Nullable Album album) {
+		songs.put(song.getId(), song);
+		if (album != null) {
+			albums.put(album.getId(), album);
+		}
+	}
+
+	/**
+	 * load track and album information of tracks not cached yet in background
+	 *
+	 * @param ids track IDs
+	 */
+	public void prefetch(Context context, long[] ids) {
+		final Context appContext = context.getApplicationContext();
+		final long[] missing = new long[ids.length];
+		int count = 0;
+		for (long id : ids) {
+			if (songs.get(id) == null) {
+				missing[count++] = id;
+			}
+		}
+		if (count > 0) {
+			final int size = count;
+			loader.execute(new Runnable() {
+				@Override
+				public void run() {
+					prefetchImpl(appContext, missing, size);
+				}
+			});
+		}
+	}
+
+	/**
+	 * load track information with a single query, then the album information
+	 *
+	 * @param ids   track IDs to load
+	 * @param count number of track IDs to use
+	 */
+	private void prefetchImpl(Context context, long[] ids, int count) {
+		int gen = generation;
+		try {
+			Cursor cursor = CursorFactory.makeTrackInfoCursor(context, ids, 0, count);
+			if (cursor != null) {
+				if (cursor.moveToFirst()) {
+					do {
+						Song song = readSong(cursor);
+						if (gen != generation)
+							break;
+						songs.put(song.getId(), song);
+						if (albums.get(song.getAlbumId()) == null) {
+							getAlbum(context, song.getAlbumId());
+						}
+					} while (cursor.moveToNext());
+				}
+				cursor.close();
+			}
+		} catch (Exception exception) {
+			Log.e(TAG, "failed to load track information", exception);
+		}
+	}
+
+	/**
+	 * read track information from a cursor
+	 *
+	 * @param cursor cursor using {@link CursorFactory#TRACK_COLUMNS} projection
+	 * @return track information
+	 */
+	public static Song readSong(Cursor cursor) {
+		long songId = cursor.getLong(0);
+		String songName = cursor.getString(1);
+		String artistName = cursor.getString(2);
+		String albumName = cursor.getString(3);
+		long length = cursor.getLong(4);
+		long artistId = cursor.getLong(5);
+		long albumId = cursor.getLong(6);
+		String path = cursor.getString(7);
+		return new Song(songId, artistId, albumId, songName, artistName, albumName, length, path);
+	}
+
+	/**
+	 * read album information from a cursor
+	 *
+	 * @param cursor cursor using {@link CursorFactory#ALBUM_COLUMN} projection
+	 * @return album information
+	 */
+	public static Album readAlbum(Cursor cursor) {
+		long id = cursor.getLong(0);
+		String name = cursor.getString(1);
+		String artist = cursor.getString(2);
+		int count = cursor.getInt(3);
+		String year = cursor.getString(4);
+		return new Album(id, name, artist, count, year, true);
+	}
+}
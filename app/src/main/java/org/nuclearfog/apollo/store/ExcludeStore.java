@@ -5,6 +5,8 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -43,6 +45,11 @@ public class ExcludeStore extends AppStore {
 
 	private static ExcludeStore sInstance;
 
+	/**
+	 * cached exclude lists, cleared after modification
+	 */
+	private Map<Type, Set<Long>> cache = new EnumMap<>(Type.class);
+
 	/**
 	 *
 	 */
@@ -82,6 +89,7 @@ public class ExcludeStore extends AppStore {
 			database.insertWithOnConflict(ExcludeTable.NAME, null, column, SQLiteDatabase.CONFLICT_IGNORE);
 		}
 		commit();
+		cache.remove(type);
 	}
 
 	/**
@@ -97,6 +105,7 @@ public class ExcludeStore extends AppStore {
 			database.delete(ExcludeTable.NAME, EXCLUDE_SELECT, args);
 		}
 		commit();
+		cache.remove(type);
 	}
 
 	/**
@@ -106,7 +115,10 @@ public class ExcludeStore extends AppStore {
 	 * @return a set of IDs
 	 */
 	public synchronized Set<Long> getIds(Type type) {
-		Set<Long> result = new TreeSet<>();
+		Set<Long> result = cache.get(type);
+		if (result != null)
+			return new TreeSet<>(result);
+		result = new TreeSet<>();
 		SQLiteDatabase database = getReadableDatabase();
 		String[] args = {Integer.toString(type.id)};
 		Cursor cursor = database.query(ExcludeTable.NAME, COLUMNS, EXCLUDE_SELECT_TYPE, args, null, null, null);
@@ -116,7 +128,8 @@ public class ExcludeStore extends AppStore {
 			} while (cursor.moveToNext());
 		}
 		cursor.close();
-		return result;
+		cache.put(type, result);
+		return new TreeSet<>(result);
 	}
 
 	/**
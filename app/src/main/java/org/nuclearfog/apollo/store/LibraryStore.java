@@ -0,0 +1,1236 @@
+package org.nuclearfog.apollo.store;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.Intent;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.os.Build;
+import android.os.SystemClock;
+import android.provider.MediaStore;
+import android.provider.MediaStore.Audio.Genres;
+import android.provider.MediaStore.Audio.Media;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import org.nuclearfog.apollo.BuildConfig;
+import org.nuclearfog.apollo.model.Album;
+import org.nuclearfog.apollo.model.Artist;
+import org.nuclearfog.apollo.model.Folder;
+import org.nuclearfog.apollo.model.Genre;
+import org.nuclearfog.apollo.model.Music;
+import org.nuclearfog.apollo.model.Song;
+import org.nuclearfog.apollo.service.MusicPlaybackService;
+import org.nuclearfog.apollo.store.ExcludeStore.Type;
+import org.nuclearfog.apollo.utils.CursorFactory;
+import org.nuclearfog.apollo.utils.PreferenceUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory index of the music library shared by all library loaders.
+ * Songs, albums, artists, genres and folders are stored as column arrays with shared name strings,
+ * so a loader only needs to create the list items instead of querying the MediaStore again.
+ * The index is rebuilt in background after the MediaStore has changed.
+ * The track index is saved as a snapshot file, so it is available instantly after a restart.
+ * The snapshot is then checked in background and only new or modified tracks are loaded from the MediaStore.
+ *
+ * @author nuclearfog
+ */
+public class LibraryStore extends ContentObserver {
+
+	private static final String TAG = "LibraryStore";
+
+	/**
+	 * file name of the track index snapshot
+	 */
+	private static final String SNAPSHOT_FILE = "library.idx";
+
+	/**
+	 * delay used to collect multiple MediaStore changes before updating the index
+	 */
+	private static final long UPDATE_DELAY = 1000;
+
+	/**
+	 * regex pattern to split genre group separated by
+	 */
+	private static final Pattern SEPARATOR = Pattern.compile("\\s*[,;|]\\s*");
+
+	/**
+	 * maximum number of search results of each type
+	 */
+	private static final int MAX_RESULTS = 250;
+
+	private static LibraryStore sInstance;
+
+	/**
+	 * thread used to update the index in background
+	 */
+	private ScheduledExecutorService updater = Executors.newSingleThreadScheduledExecutor();
+	private ScheduledFuture<?> update;
+
+	private Context context;
+	private ExcludeStore excludeStore;
+
+	private volatile SongIndex songs;
+	private volatile AlbumIndex albums;
+	private volatile ArtistIndex artists;
+	private volatile GenreIndex genres;
+	private volatile FolderIndex folders;
+
+	/**
+	 * version of the MediaStore content, incremented on every change
+	 */
+	private AtomicInteger version = new AtomicInteger();
+
+	/**
+	 *
+	 */
+	private LibraryStore(Context context) {
+		super(null);
+		this.context = context.getApplicationContext();
+		excludeStore = ExcludeStore.getInstance(context);
+		ContentResolver resolver = context.getContentResolver();
+		resolver.registerContentObserver(Media.EXTERNAL_CONTENT_URI, true, this);
+		resolver.registerContentObserver(Genres.EXTERNAL_CONTENT_URI, true, this);
+	}
+
+	/**
+	 * @param context The {@link Context} to use
+	 * @return A singleton instance of this class
+	 */
+	public static synchronized LibraryStore getInstance(Context context) {
+		if (sInstance == null) {
+			sInstance = new LibraryStore(context);
+		}
+		return sInstance;
+	}
+
+
+	@Override
+	public void onChange(boolean selfChange) {
+		version.incrementAndGet();
+		synchronized (this) {
+			if (update != null) {
+				update.cancel(false);
+			}
+			update = updater.schedule(new Runnable() {
+				@Override
+				public void run() {
+					update();
+				}
+			}, UPDATE_DELAY, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * get the current version of the index
+	 *
+	 * @return version number, changed after the MediaStore content has changed
+	 */
+	public int getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * get all tracks of the library
+	 *
+	 * @return list of tracks sorted by the song sort order
+	 */
+	public List<Song> getSongs() {
+		List<Song> result = new LinkedList<>();
+		SongIndex index = getSongIndex();
+		if (index != null) {
+			Set<Long> excluded = excludeStore.getIds(Type.SONG);
+			for (int i = 0; i < index.ids.length; i++) {
+				long id = index.ids[i];
+				result.add(new Song(id, index.titles[i], index.artists[i], index.albums[i], index.paths[i], index.durations[i], !excluded.contains(id)));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * get all albums of the library
+	 *
+	 * @return list of albums sorted by the album sort order
+	 */
+	public List<Album> getAlbums() {
+		List<Album> result = new LinkedList<>();
+		AlbumIndex index = getAlbumIndex();
+		if (index != null) {
+			Set<Long> excluded = excludeStore.getIds(Type.ALBUM);
+			for (int i = 0; i < index.ids.length; i++) {
+				long id = index.ids[i];
+				result.add(new Album(id, index.names[i], index.artists[i], index.songCounts[i], index.years[i], !excluded.contains(id)));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * get all artists of the library
+	 *
+	 * @return list of artists sorted by the artist sort order
+	 */
+	public List<Artist> getArtists() {
+		List<Artist> result = new LinkedList<>();
+		ArtistIndex index = getArtistIndex();
+		if (index != null) {
+			Set<Long> excluded = excludeStore.getIds(Type.ARTIST);
+			for (int i = 0; i < index.ids.length; i++) {
+				long id = index.ids[i];
+				result.add(new Artist(id, index.names[i], index.songCounts[i], index.albumCounts[i], !excluded.contains(id)));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * get all genres of the library
+	 *
+	 * @return list of genres sorted by name
+	 */
+	public List<Genre> getGenres() {
+		List<Genre> result = new ArrayList<>();
+		GenreIndex index = getGenreIndex();
+		if (index != null) {
+			Set<Long> excluded = excludeStore.getIds(Type.GENRE);
+			for (int i = 0; i < index.names.length; i++) {
+				long[] ids = index.ids[i];
+				Long[] genreIds = new Long[ids.length];
+				boolean visible = true;
+				for (int j = 0; j < ids.length; j++) {
+					genreIds[j] = ids[j];
+					if (excluded.contains(ids[j])) {
+						visible = false;
+					}
+				}
+				result.add(new Genre(genreIds, index.names[i], visible));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * get all music folders of the library
+	 *
+	 * @return list of folders sorted by name
+	 */
+	public List<Folder> getFolders() {
+		List<Folder> result = new ArrayList<>();
+		FolderIndex index = getFolderIndex();
+		if (index != null) {
+			Set<Long> excluded = excludeStore.getIds(Type.SONG);
+			for (int i = 0; i < index.paths.length; i++) {
+				// folder is visible if at least one track is visible
+				boolean visible = false;
+				for (int j = index.offsets[i]; j < index.offsets[i + 1]; j++) {
+					if (!excluded.contains(index.tracks[j])) {
+						visible = true;
+						break;
+					}
+				}
+				result.add(new Folder(index.paths[i], visible));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * search for artists, albums and tracks with a name containing words starting with the words of the query
+	 *
+	 * @param query search query
+	 * @return artists, albums and tracks found
+	 */
+	public SearchResult search(String query) {
+		String[] words = SearchIndex.split(query);
+		SearchResult result = new SearchResult(words.length > 0 ? words[0].length() : 0);
+		int[] highlights = new int[MAX_RESULTS];
+		ArtistIndex artistIndex = getArtistIndex();
+		if (artistIndex != null) {
+			int[] rows = artistIndex.getSearchIndex().search(words, highlights, MAX_RESULTS);
+			for (int i = 0; i < rows.length; i++) {
+				int row = rows[i];
+				result.add(new Artist(artistIndex.ids[row], artistIndex.names[row], artistIndex.songCounts[row], artistIndex.albumCounts[row], true), highlights[i]);
+			}
+		}
+		AlbumIndex albumIndex = getAlbumIndex();
+		if (albumIndex != null) {
+			int[] rows = albumIndex.getSearchIndex().search(words, highlights, MAX_RESULTS);
+			for (int i = 0; i < rows.length; i++) {
+				int row = rows[i];
+				result.add(new Album(albumIndex.ids[row], albumIndex.names[row], albumIndex.artists[row], albumIndex.songCounts[row], albumIndex.years[row], true), highlights[i]);
+			}
+		}
+		SongIndex songIndex = getSongIndex();
+		if (songIndex != null) {
+			int[] rows = songIndex.getSearchIndex().search(words, highlights, MAX_RESULTS);
+			for (int i = 0; i < rows.length; i++) {
+				int row = rows[i];
+				result.add(new Song(songIndex.ids[row], songIndex.titles[row], songIndex.artists[row], songIndex.albums[row], songIndex.durations[row]), highlights[i]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * update all loaded index sections after a MediaStore change
+	 */
+	private void update() {
+		try {
+			if (songs != null)
+				getSongIndex();
+			if (folders != null)
+				getFolderIndex();
+			if (albums != null)
+				getAlbumIndex();
+			if (artists != null)
+				getArtistIndex();
+			if (genres != null)
+				getGenreIndex();
+		} catch (Exception exception) {
+			Log.e(TAG, "failed to update library index", exception);
+		}
+	}
+
+	/**
+	 * get the track index, load from MediaStore if not loaded or outdated
+	 */
+	@Nullable
+	private SongIndex getSongIndex() {
+		return getSongIndex(false);
+	}
+
+	/**
+	 * get the track index, load from MediaStore if not loaded or outdated
+	 *
+	 * @param verify true to check a track index loaded from the snapshot for MediaStore changes
+	 */
+	@Nullable
+	private SongIndex getSongIndex(boolean verify) {
+		String order = PreferenceUtils.getInstance(context).getSongSortOrder();
+		SongIndex index = songs;
+		if (index == null || index.version != version.get() || !TextUtils.equals(index.order, order) || (verify && !index.verified)) {
+			synchronized (SongIndex.class) {
+				index = songs;
+				if (index == null) {
+					// use the last snapshot and check for changes in background
+					index = readSnapshot();
+					if (index != null && TextUtils.equals(index.order, order)) {
+						songs = index;
+						updater.execute(new Runnable() {
+							@Override
+							public void run() {
+								reconcile();
+							}
+						});
+						if (!verify) {
+							return index;
+						}
+					}
+				}
+				if (index == null || index.version != version.get() || !TextUtils.equals(index.order, order) || (verify && !index.verified)) {
+					SongIndex update = SongIndex.load(context, version.get(), order, index);
+					if (update != null) {
+						songs = update;
+						if (update != index) {
+							writeSnapshot(update);
+						}
+					}
+					index = update;
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * check the track index loaded from the snapshot for MediaStore changes
+	 * and notify the UI if the index has changed
+	 */
+	private void reconcile() {
+		try {
+			SongIndex snapshot = songs;
+			SongIndex index = getSongIndex(true);
+			if (index != null && index != snapshot) {
+				Intent intent = new Intent(MusicPlaybackService.ACTION_REFRESH);
+				intent.setPackage(context.getPackageName());
+				context.sendBroadcast(intent);
+			}
+		} catch (Exception exception) {
+			Log.e(TAG, "failed to check library snapshot", exception);
+		}
+	}
+
+	/**
+	 * read the track index from the last snapshot
+	 *
+	 * @return track index or null if there is no valid snapshot
+	 */
+	@Nullable
+	private SongIndex readSnapshot() {
+		File file = new File(context.getFilesDir(), SNAPSHOT_FILE);
+		if (file.exists()) {
+			long time = SystemClock.elapsedRealtime();
+			try {
+				SongIndex index = SongIndex.read(file, version.get(), getMediaVersion(context));
+				if (index != null) {
+					if (BuildConfig.DEBUG) {
+						Log.d(TAG, "loaded " + index.ids.length + " tracks from snapshot in " + (SystemClock.elapsedRealtime() - time) + "ms");
+					}
+					return index;
+				}
+			} catch (Exception exception) {
+				Log.w(TAG, "failed to read library snapshot", exception);
+			}
+			// remove invalid snapshot
+			file.delete();
+		}
+		return null;
+	}
+
+	/**
+	 * write the track index to the snapshot file in background
+	 *
+	 * @param index track index to save
+	 */
+	private void writeSnapshot(final SongIndex index) {
+		updater.execute(new Runnable() {
+			@Override
+			public void run() {
+				// skip if there is a newer index
+				if (songs == index) {
+					File file = new File(context.getFilesDir(), SNAPSHOT_FILE);
+					File temp = new File(context.getFilesDir(), SNAPSHOT_FILE + ".tmp");
+					try {
+						index.write(temp, getMediaVersion(context));
+						if (!temp.renameTo(file)) {
+							Log.w(TAG, "failed to save library snapshot");
+						}
+					} catch (Exception exception) {
+						Log.w(TAG, "failed to write library snapshot", exception);
+						temp.delete();
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * get the folder index, created from the track index
+	 */
+	@Nullable
+	private FolderIndex getFolderIndex() {
+		SongIndex songIndex = getSongIndex();
+		if (songIndex == null)
+			return null;
+		FolderIndex index = folders;
+		if (index == null || index.songs != songIndex) {
+			synchronized (FolderIndex.class) {
+				index = folders;
+				if (index == null || index.songs != songIndex) {
+					index = new FolderIndex(songIndex);
+					folders = index;
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * get the album index, load from MediaStore if not loaded or outdated
+	 */
+	@Nullable
+	private AlbumIndex getAlbumIndex() {
+		String order = PreferenceUtils.getInstance(context).getAlbumSortOrder();
+		AlbumIndex index = albums;
+		if (index == null || index.version != version.get() || !TextUtils.equals(index.order, order)) {
+			synchronized (AlbumIndex.class) {
+				index = albums;
+				if (index == null || index.version != version.get() || !TextUtils.equals(index.order, order)) {
+					index = AlbumIndex.load(context, version.get(), order);
+					if (index != null) {
+						albums = index;
+					}
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * get the artist index, load from MediaStore if not loaded or outdated
+	 */
+	@Nullable
+	private ArtistIndex getArtistIndex() {
+		String order = PreferenceUtils.getInstance(context).getArtistSortOrder();
+		ArtistIndex index = artists;
+		if (index == null || index.version != version.get() || !TextUtils.equals(index.order, order)) {
+			synchronized (ArtistIndex.class) {
+				index = artists;
+				if (index == null || index.version != version.get() || !TextUtils.equals(index.order, order)) {
+					index = ArtistIndex.load(context, version.get(), order);
+					if (index != null) {
+						artists = index;
+					}
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * get the genre index, load from MediaStore if not loaded or outdated
+	 */
+	@Nullable
+	private GenreIndex getGenreIndex() {
+		GenreIndex index = genres;
+		if (index == null || index.version != version.get()) {
+			synchronized (GenreIndex.class) {
+				index = genres;
+				if (index == null || index.version != version.get()) {
+					index = GenreIndex.load(context, version.get());
+					if (index != null) {
+						genres = index;
+					}
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * get the version of the MediaStore, changed if the MediaStore was rebuilt and the IDs are no longer valid
+	 */
+	private static String getMediaVersion(Context context) {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q)
+			return MediaStore.getVersion(context);
+		return "";
+	}
+
+	/**
+	 * return a shared instance of a string to avoid duplicate strings in memory
+	 *
+	 * @param pool   string pool used by the current load
+	 * @param string string to share
+	 * @return shared string
+	 */
+	private static String intern(Map<String, String> pool, @Nullable String string) {
+		if (string == null)
+			return null;
+		String shared = pool.get(string);
+		if (shared == null) {
+			pool.put(string, string);
+			shared = string;
+		}
+		return shared;
+	}
+
+	/**
+	 * track columns of the library
+	 */
+	private static final class SongIndex {
+
+		/**
+		 * maximum number of track IDs used in a single query
+		 */
+		private static final int QUERY_SIZE = 500;
+
+		/**
+		 * snapshot file header
+		 */
+		private static final int MAGIC = 0x41504c49;
+
+		/**
+		 * version of the snapshot file format
+		 */
+		private static final int FORMAT = 1;
+
+		final String order;
+		final long[] ids;
+		final String[] titles;
+		final String[] artists;
+		final String[] albums;
+		final String[] paths;
+		final long[] durations;
+		final long[] modified;
+
+		/**
+		 * version of the MediaStore content used to load this index
+		 */
+		volatile int version;
+
+		/**
+		 * true if this index was checked for MediaStore changes, false if loaded from the snapshot
+		 */
+		volatile boolean verified = true;
+
+		/**
+		 * search index of the track titles, created on first search
+		 */
+		private SearchIndex searchIndex;
+
+		/**
+		 *
+		 */
+		private SongIndex(int version, String order, int size) {
+			this.version = version;
+			this.order = order;
+			ids = new long[size];
+			titles = new String[size];
+			artists = new String[size];
+			albums = new String[size];
+			paths = new String[size];
+			durations = new long[size];
+			modified = new long[size];
+		}
+
+		/**
+		 * load all tracks from the MediaStore, reusing unchanged tracks of the previous index
+		 *
+		 * @param previous previous track index or null to load all tracks
+		 * @return track index, the previous index if nothing changed, or null if the MediaStore is not available
+		 */
+		@Nullable
+		static SongIndex load(Context context, int version, String order, @Nullable SongIndex previous) {
+			if (previous == null)
+				return load(context, version, order);
+			long time = SystemClock.elapsedRealtime();
+			// get current track order and modification dates
+			Cursor cursor = CursorFactory.makeTrackModifiedCursor(context);
+			if (cursor == null)
+				return null;
+			int size = cursor.getCount();
+			long[] ids = new long[size];
+			long[] modified = new long[size];
+			size = 0;
+			if (cursor.moveToFirst()) {
+				do {
+					ids[size] = cursor.getLong(0);
+					modified[size] = cursor.getLong(1);
+					size++;
+				} while (cursor.moveToNext());
+			}
+			cursor.close();
+			// find new and modified tracks
+			Map<Long, Integer> rows = new HashMap<>();
+			for (int i = 0; i < previous.ids.length; i++) {
+				rows.put(previous.ids[i], i);
+			}
+			long[] missing = new long[size];
+			int missingCount = 0;
+			for (int i = 0; i < size; i++) {
+				Integer row = rows.get(ids[i]);
+				if (row == null || previous.modified[row] != modified[i]) {
+					missing[missingCount++] = ids[i];
+				}
+			}
+			if (missingCount > size / 2) {
+				// faster to reload all tracks
+				return load(context, version, order);
+			}
+			if (missingCount == 0 && TextUtils.equals(order, previous.order) && Arrays.equals(Arrays.copyOf(ids, size), previous.ids)) {
+				previous.version = version;
+				previous.verified = true;
+				return previous;
+			}
+			// load new and modified tracks
+			SongIndex changes = new SongIndex(version, order, missingCount);
+			Map<String, String> pool = new HashMap<>();
+			int changeCount = 0;
+			for (int offset = 0; offset < missingCount; offset += QUERY_SIZE) {
+				cursor = CursorFactory.makeTrackInfoCursor(context, missing, offset, Math.min(QUERY_SIZE, missingCount - offset));
+				if (cursor != null) {
+					if (cursor.moveToFirst()) {
+						do {
+							changes.readRow(cursor, changeCount++, pool);
+						} while (cursor.moveToNext() && changeCount < missingCount);
+					}
+					cursor.close();
+				}
+			}
+			Map<Long, Integer> changeRows = new HashMap<>();
+			for (int i = 0; i < changeCount; i++) {
+				changeRows.put(changes.ids[i], i);
+			}
+			// merge tracks in the current order
+			int[] positions = new int[size];
+			int count = 0;
+			for (int i = 0; i < size; i++) {
+				Integer row = changeRows.get(ids[i]);
+				if (row != null) {
+					positions[count++] = -row - 1;
+				} else {
+					row = rows.get(ids[i]);
+					if (row != null && previous.modified[row] == modified[i]) {
+						positions[count++] = row;
+					}
+				}
+			}
+			SongIndex index = new SongIndex(version, order, count);
+			for (int i = 0; i < count; i++) {
+				if (positions[i] >= 0) {
+					index.copyRow(previous, positions[i], i);
+				} else {
+					index.copyRow(changes, -positions[i] - 1, i);
+				}
+			}
+			if (BuildConfig.DEBUG) {
+				Log.d(TAG, "updated " + changeCount + " of " + count + " tracks in " + (SystemClock.elapsedRealtime() - time) + "ms");
+			}
+			return index;
+		}
+
+		/**
+		 * load all tracks from the MediaStore
+		 *
+		 * @return track index or null if the MediaStore is not available
+		 */
+		@Nullable
+		static SongIndex load(Context context, int version, String order) {
+			long time = SystemClock.elapsedRealtime();
+			Cursor cursor = CursorFactory.makeTrackCursor(context);
+			if (cursor == null)
+				return null;
+			SongIndex index = new SongIndex(version, order, cursor.getCount());
+			Map<String, String> pool = new HashMap<>();
+			int i = 0;
+			if (cursor.moveToFirst()) {
+				do {
+					index.readRow(cursor, i++, pool);
+				} while (cursor.moveToNext() && i < index.ids.length);
+			}
+			cursor.close();
+			if (BuildConfig.DEBUG) {
+				Log.d(TAG, "loaded " + i + " tracks in " + (SystemClock.elapsedRealtime() - time) + "ms");
+			}
+			return index;
+		}
+
+		/**
+		 * read a track index snapshot
+		 *
+		 * @param file         snapshot file
+		 * @param mediaVersion current MediaStore version
+		 * @return track index or null if the snapshot doesn't match the MediaStore version
+		 */
+		@Nullable
+		static SongIndex read(File file, int version, String mediaVersion) throws IOException {
+			RandomAccessFile input = new RandomAccessFile(file, "r");
+			try {
+				FileChannel channel = input.getChannel();
+				ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT || !mediaVersion.equals(readString(buffer)))
+					return null;
+				String order = readString(buffer);
+				SongIndex index = new SongIndex(version, order, buffer.getInt());
+				index.verified = false;
+				readLongs(buffer, index.ids);
+				readLongs(buffer, index.durations);
+				readLongs(buffer, index.modified);
+				String[] pool = new String[buffer.getInt()];
+				for (int i = 0; i < pool.length; i++) {
+					pool[i] = readString(buffer);
+				}
+				readStrings(buffer, pool, index.titles);
+				readStrings(buffer, pool, index.artists);
+				readStrings(buffer, pool, index.albums);
+				readStrings(buffer, pool, index.paths);
+				return index;
+			} finally {
+				input.close();
+			}
+		}
+
+		/**
+		 * write this index to a snapshot file
+		 *
+		 * @param file         snapshot file
+		 * @param mediaVersion current MediaStore version
+		 */
+		void write(File file, String mediaVersion) throws IOException {
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+			try {
+				output.writeInt(MAGIC);
+				output.writeInt(FORMAT);
+				writeString(output, mediaVersion);
+				writeString(output, order);
+				output.writeInt(ids.length);
+				writeLongs(output, ids);
+				writeLongs(output, durations);
+				writeLongs(output, modified);
+				// store every string once and refer to it by position
+				Map<String, Integer> pool = new HashMap<>();
+				List<String> strings = new ArrayList<>();
+				int[][] columns = {
+						addStrings(pool, strings, titles),
+						addStrings(pool, strings, artists),
+						addStrings(pool, strings, albums),
+						addStrings(pool, strings, paths)
+				};
+				output.writeInt(strings.size());
+				for (String string : strings) {
+					writeString(output, string);
+				}
+				for (int[] column : columns) {
+					for (int position : column) {
+						output.writeInt(position);
+					}
+				}
+			} finally {
+				output.close();
+			}
+		}
+
+		/**
+		 * get the search index of the track titles
+		 */
+		synchronized SearchIndex getSearchIndex() {
+			if (searchIndex == null) {
+				searchIndex = new SearchIndex(titles);
+			}
+			return searchIndex;
+		}
+
+		/**
+		 * read a track row from a cursor
+		 *
+		 * @param cursor cursor using {@link CursorFactory#TRACK_COLUMNS} projection
+		 * @param i      row position in this index
+		 * @param pool   string pool used to share artist and album names
+		 */
+		private void readRow(Cursor cursor, int i, Map<String, String> pool) {
+			ids[i] = cursor.getLong(0);
+			titles[i] = cursor.getString(1);
+			artists[i] = intern(pool, cursor.getString(2));
+			albums[i] = intern(pool, cursor.getString(3));
+			durations[i] = cursor.getLong(4);
+			paths[i] = cursor.getString(7);
+			modified[i] = cursor.getLong(9);
+		}
+
+		/**
+		 * copy a track row from another index
+		 *
+		 * @param src  index to copy from
+		 * @param from row position in the source index
+		 * @param to   row position in this index
+		 */
+		private void copyRow(SongIndex src, int from, int to) {
+			ids[to] = src.ids[from];
+			titles[to] = src.titles[from];
+			artists[to] = src.artists[from];
+			albums[to] = src.albums[from];
+			durations[to] = src.durations[from];
+			paths[to] = src.paths[from];
+			modified[to] = src.modified[from];
+		}
+
+		/**
+		 * add strings to the string pool
+		 *
+		 * @return positions of the strings in the pool, -1 for null
+		 */
+		private static int[] addStrings(Map<String, Integer> pool, List<String> strings, String[] column) {
+			int[] positions = new int[column.length];
+			for (int i = 0; i < column.length; i++) {
+				if (column[i] != null) {
+					Integer position = pool.get(column[i]);
+					if (position == null) {
+						position = strings.size();
+						pool.put(column[i], position);
+						strings.add(column[i]);
+					}
+					positions[i] = position;
+				} else {
+					positions[i] = -1;
+				}
+			}
+			return positions;
+		}
+
+		/**
+		 *
+		 */
+		private static void writeLongs(DataOutputStream output, long[] values) throws IOException {
+			for (long value : values) {
+				output.writeLong(value);
+			}
+		}
+
+		/**
+		 *
+		 */
+		private static void writeString(DataOutputStream output, @Nullable String string) throws IOException {
+			if (string != null) {
+				byte[] data = string.getBytes("UTF-8");
+				output.writeInt(data.length);
+				output.write(data);
+			} else {
+				output.writeInt(-1);
+			}
+		}
+
+		/**
+		 *
+		 */
+		private static void readLongs(ByteBuffer buffer, long[] values) {
+			buffer.asLongBuffer().get(values);
+			buffer.position(buffer.position() + values.length * 8);
+		}
+
+		/**
+		 *
+		 */
+		private static void readStrings(ByteBuffer buffer, String[] pool, String[] values) {
+			for (int i = 0; i < values.length; i++) {
+				int position = buffer.getInt();
+				values[i] = position >= 0 ? pool[position] : null;
+			}
+		}
+
+		/**
+		 *
+		 */
+		@Nullable
+		private static String readString(ByteBuffer buffer) throws IOException {
+			int length = buffer.getInt();
+			if (length < 0)
+				return null;
+			byte[] data = new byte[length];
+			buffer.get(data);
+			return new String(data, "UTF-8");
+		}
+	}
+
+	/**
+	 * music folders of the library, created from the track index
+	 */
+	private static final class FolderIndex {
+
+		final SongIndex songs;
+		/**
+		 * path of the first track in each folder
+		 */
+		final String[] paths;
+		/**
+		 * start position of each folder in {@link #tracks}, last element is the total track count
+		 */
+		final int[] offsets;
+		/**
+		 * track IDs grouped by folder
+		 */
+		final long[] tracks;
+
+		/**
+		 * @param songs track index used to create the folders
+		 */
+		FolderIndex(SongIndex songs) {
+			this.songs = songs;
+			Map<String, List<Integer>> group = new HashMap<>();
+			List<Folder> folders = new ArrayList<>();
+			for (int i = 0; i < songs.paths.length; i++) {
+				String path = songs.paths[i];
+				if (path == null)
+					continue;
+				Folder folder = new Folder(path, true);
+				List<Integer> positions = group.get(folder.getPath());
+				if (positions == null) {
+					positions = new ArrayList<>();
+					group.put(folder.getPath(), positions);
+					folders.add(folder);
+				}
+				positions.add(i);
+			}
+			Folder[] sorted = folders.toArray(new Folder[0]);
+			Arrays.sort(sorted);
+			paths = new String[sorted.length];
+			offsets = new int[sorted.length + 1];
+			tracks = new long[songs.paths.length];
+			int pos = 0;
+			for (int i = 0; i < sorted.length; i++) {
+				List<Integer> positions = group.get(sorted[i].getPath());
+				paths[i] = songs.paths[positions.get(0)];
+				offsets[i] = pos;
+				for (int position : positions) {
+					tracks[pos++] = songs.ids[position];
+				}
+			}
+			offsets[sorted.length] = pos;
+		}
+	}
+
+	/**
+	 * album columns of the library
+	 */
+	private static final class AlbumIndex {
+
+		final int version;
+		final String order;
+		final long[] ids;
+		final String[] names;
+		final String[] artists;
+		final String[] years;
+		final int[] songCounts;
+
+		/**
+		 * search index of the album names, created on first search
+		 */
+		private SearchIndex searchIndex;
+
+		/**
+		 *
+		 */
+		private AlbumIndex(int version, String order, int size) {
+			this.version = version;
+			this.order = order;
+			ids = new long[size];
+			names = new String[size];
+			artists = new String[size];
+			years = new String[size];
+			songCounts = new int[size];
+		}
+
+		/**
+		 * load all albums from the MediaStore
+		 *
+		 * @return album index or null if the MediaStore is not available
+		 */
+		@Nullable
+		static AlbumIndex load(Context context, int version, String order) {
+			Cursor cursor = CursorFactory.makeAlbumCursor(context);
+			if (cursor == null)
+				return null;
+			AlbumIndex index = new AlbumIndex(version, order, cursor.getCount());
+			Map<String, String> pool = new HashMap<>();
+			int i = 0;
+			if (cursor.moveToFirst()) {
+				do {
+					index.ids[i] = cursor.getLong(0);
+					index.names[i] = cursor.getString(1);
+					index.artists[i] = intern(pool, cursor.getString(2));
+					index.songCounts[i] = cursor.getInt(3);
+					index.years[i] = intern(pool, cursor.getString(4));
+					i++;
+				} while (cursor.moveToNext());
+			}
+			cursor.close();
+			return index;
+		}
+
+		/**
+		 * get the search index of the album names
+		 */
+		synchronized SearchIndex getSearchIndex() {
+			if (searchIndex == null) {
+				searchIndex = new SearchIndex(names);
+			}
+			return searchIndex;
+		}
+	}
+
+	/**
+	 * artist columns of the library
+	 */
+	private static final class ArtistIndex {
+
+		final int version;
+		final String order;
+		final long[] ids;
+		final String[] names;
+		final int[] albumCounts;
+		final int[] songCounts;
+
+		/**
+		 * search index of the artist names, created on first search
+		 */
+		private SearchIndex searchIndex;
+
+		/**
+		 *
+		 */
+		private ArtistIndex(int version, String order, int size) {
+			this.version = version;
+			this.order = order;
+			ids = new long[size];
+			names = new String[size];
+			albumCounts = new int[size];
+			songCounts = new int[size];
+		}
+
+		/**
+		 * load all artists from the MediaStore
+		 *
+		 * @return artist index or null if the MediaStore is not available
+		 */
+		@Nullable
+		static ArtistIndex load(Context context, int version, String order) {
+			Cursor cursor = CursorFactory.makeArtistCursor(context);
+			if (cursor == null)
+				return null;
+			ArtistIndex index = new ArtistIndex(version, order, cursor.getCount());
+			int i = 0;
+			if (cursor.moveToFirst()) {
+				do {
+					index.ids[i] = cursor.getLong(0);
+					index.names[i] = cursor.getString(1);
+					index.albumCounts[i] = cursor.getInt(2);
+					index.songCounts[i] = cursor.getInt(3);
+					i++;
+				} while (cursor.moveToNext());
+			}
+			cursor.close();
+			return index;
+		}
+
+		/**
+		 * get the search index of the artist names
+		 */
+		synchronized SearchIndex getSearchIndex() {
+			if (searchIndex == null) {
+				searchIndex = new SearchIndex(names);
+			}
+			return searchIndex;
+		}
+	}
+
+	/**
+	 * genre columns of the library, genre groups are split into single genres
+	 */
+	private static final class GenreIndex {
+
+		final int version;
+		final String[] names;
+		/**
+		 * MediaStore genre IDs of each genre name
+		 */
+		final long[][] ids;
+
+		/**
+		 *
+		 */
+		private GenreIndex(int version, int size) {
+			this.version = version;
+			names = new String[size];
+			ids = new long[size][];
+		}
+
+		/**
+		 * load all genres from the MediaStore
+		 *
+		 * @return genre index or null if the MediaStore is not available
+		 */
+		@Nullable
+		static GenreIndex load(Context context, int version) {
+			Cursor cursor = CursorFactory.makeGenreCursor(context);
+			if (cursor == null)
+				return null;
+			Map<String, List<Long>> group = new HashMap<>();
+			if (cursor.moveToFirst()) {
+				do {
+					long id = cursor.getLong(0);
+					String name = cursor.getString(1);
+					// Split genre groups into single genre names
+					for (String genre : SEPARATOR.split(name)) {
+						List<Long> ids = group.get(genre);
+						if (ids == null) {
+							ids = new LinkedList<>();
+							group.put(genre, ids);
+						}
+						ids.add(id);
+					}
+				} while (cursor.moveToNext());
+			}
+			cursor.close();
+			// sort genres by name
+			Set<Genre> sorted = new TreeSet<>();
+			for (Map.Entry<String, List<Long>> entry : group.entrySet()) {
+				sorted.add(new Genre(entry.getValue().toArray(new Long[0]), entry.getKey(), true));
+			}
+			GenreIndex index = new GenreIndex(version, sorted.size());
+			int i = 0;
+			for (Genre genre : sorted) {
+				index.names[i] = genre.getName();
+				index.ids[i] = genre.getGenreIds();
+				i++;
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * result of a library search with the position of the matching word in each name
+	 */
+	public static final class SearchResult {
+
+		private List<Music> items = new ArrayList<>();
+		private List<Integer> highlights = new ArrayList<>();
+		private int highlightLength;
+
+		/**
+		 * @param highlightLength length of the highlighted word prefix
+		 */
+		private SearchResult(int highlightLength) {
+			this.highlightLength = highlightLength;
+		}
+
+		/**
+		 * add a search result
+		 *
+		 * @param item      item found
+		 * @param highlight position of the matching word in the item name
+		 */
+		private void add(Music item, int highlight) {
+			items.add(item);
+			highlights.add(highlight);
+		}
+
+		/**
+		 * get all items found
+		 */
+		public List<Music> getItems() {
+			return items;
+		}
+
+		/**
+		 * get the position of the matching word in the name of an item
+		 *
+		 * @param index index of the item
+		 * @return start position of the highlight
+		 */
+		public int getHighlight(int index) {
+			return highlights.get(index);
+		}
+
+		/**
+		 * get the length of the highlighted word prefix
+		 */
+		public int getHighlightLength() {
+			return highlightLength;
+		}
+	}
+}
@@ -1,26 +1,35 @@
 package org.nuclearfog.apollo.store;
 
-import static android.database.sqlite.SQLiteDatabase.CONFLICT_REPLACE;
-
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 
 import org.nuclearfog.apollo.model.Song;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * database for popular tracks with the information how often a track was played
+ * database for popular tracks with the information how often a track was played.
+ * Play counts are collected in memory and written to the database in a single transaction.
  *
  * @author nuclearfog
  */
 public class PopularStore extends AppStore {
 
+	private static final String TAG = "PopularStore";
+
 	/**
 	 * column projection of track table
 	 */
@@ -48,6 +57,22 @@ public class PopularStore extends AppStore {
 	 */
 	private static final String TRACK_SELECT = PopularColumns.ID + "=?";
 
+	/**
+	 * query to increment the play count of a track and to update the track information
+	 */
+	private static final String PLAYCOUNT_UPDATE = "UPDATE " + PopularColumns.NAME + " SET "
+			+ PopularColumns.PLAYCOUNT + "=" + PopularColumns.PLAYCOUNT + "+?,"
+			+ PopularColumns.SONGNAME + "=?,"
+			+ PopularColumns.ALBUMNAME + "=?,"
+			+ PopularColumns.ARTISTNAME + "=?,"
+			+ PopularColumns.DURATION + "=? WHERE "
+			+ PopularColumns.ID + "=?;";
+
+	/**
+	 * delay in seconds to write pending play counts to the database
+	 */
+	private static final long FLUSH_DELAY = 30;
+
 	/**
 	 * database filename
 	 */
@@ -63,6 +88,21 @@ public class PopularStore extends AppStore {
 	 */
 	private static PopularStore singleton;
 
+	/**
+	 * thread used to write pending play counts
+	 */
+	private ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor();
+
+	/**
+	 * play counts not written to the database yet
+	 */
+	private final Map<Long, PendingSong> pending = new LinkedHashMap<>();
+
+	/**
+	 * true if a write of the pending play counts is scheduled
+	 */
+	private boolean flushScheduled = false;
+
 	/**
 	 *
 	 */
@@ -89,26 +129,45 @@ public class PopularStore extends AppStore {
 	}
 
 	/**
-	 * Used to store song IDs in our database
+	 * increment the play count of a track. The play count is written to the database later
 	 *
 	 * @param song song to add
 	 */
-	public synchronized void addSong(@NonNull Song song) {
-		long playCount = getPlayCount(song.getId()) + 1; // increment by 1
-		SQLiteDatabase database = getWritableDatabase();
-		ContentValues values = new ContentValues(6);
-		values.put(PopularColumns.ID, song.getId());
-		values.put(PopularColumns.SONGNAME, song.getName());
-		values.put(PopularColumns.ALBUMNAME, song.getAlbum());
-		values.put(PopularColumns.ARTISTNAME, song.getArtist());
-		values.put(PopularColumns.PLAYCOUNT, playCount);
-		values.put(PopularColumns.DURATION, song.getDuration());
-		database.insertWithOnConflict(PopularColumns.NAME, null, values, CONFLICT_REPLACE);
-		commit();
+	public void addSong(@NonNull Song song) {
+		synchronized (pending) {
+			PendingSong item = pending.get(song.getId());
+			if (item != null) {
+				item.song = song;
+				item.count++;
+			} else {
+				pending.put(song.getId(), new PendingSong(song));
+			}
+			if (!flushScheduled) {
+				flushScheduled = true;
+				writer.schedule(new Runnable() {
+					@Override
+					public void run() {
+						writePending();
+					}
+				}, FLUSH_DELAY, TimeUnit.SECONDS);
+			}
+		}
 	}
 
+	/**
+	 * write all pending play counts to the database in background
+	 */
+	public void flush() {
+		writer.execute(new Runnable() {
+			@Override
+			public void run() {
+				writePending();
+			}
+		});
+	}
 
 	public synchronized List<Song> getSongs() {
+		writePending();
 		SQLiteDatabase data = getReadableDatabase();
 		Cursor cursor = data.query(PopularColumns.NAME, MOSTPLAYED_COLUMNS, null, null, null, null, MP_ORDER);
 		List<Song> result = new LinkedList<>();
@@ -135,6 +194,9 @@ public class PopularStore extends AppStore {
 	 * @param trackId ID of the track to remove
 	 */
 	public synchronized void removeItem(long trackId) {
+		synchronized (pending) {
+			pending.remove(trackId);
+		}
 		String[] args = {Long.toString(trackId)};
 		SQLiteDatabase database = getWritableDatabase();
 		database.delete(PopularColumns.NAME, TRACK_SELECT, args);
@@ -145,32 +207,90 @@ public class PopularStore extends AppStore {
 	 * remove all popular tracks from playlist
 	 */
 	public synchronized void removeAll() {
+		synchronized (pending) {
+			pending.clear();
+		}
 		SQLiteDatabase database = getWritableDatabase();
 		database.delete(PopularColumns.NAME, null, null);
 		commit();
 	}
 
 	/**
-	 * Used to retrieve how often a track was played
-	 *
-	 * @param songId The song Id to reference
-	 * @return The play count for a song
-	 */
-	private long getPlayCount(long songId) {
-		long result = 0;
-		if (songId >= 0) {
-			String[] having = {Long.toString(songId)};
-			SQLiteDatabase database = getReadableDatabase();
-			Cursor cursor = database.query(PopularColumns.NAME, MOSTPLAYED_COLUMNS, TRACK_SELECT, having, null, null, null, null);
-			if (cursor != null) {
-				if (cursor.moveToFirst()) {
-					result = cursor.getLong(4);
+	 * write pending play counts to the database in a single transaction.
+	 * Pending play counts are removed after the transaction is committed, so no play count gets lost if writing fails
+	 */
+	private synchronized void writePending() {
+		List<PendingSong> items;
+		synchronized (pending) {
+			flushScheduled = false;
+			if (pending.isEmpty())
+				return;
+			items = new ArrayList<>(pending.size());
+			for (PendingSong item : pending.values()) {
+				items.add(new PendingSong(item));
+			}
+		}
+		try {
+			SQLiteDatabase database = getWritableDatabase();
+			SQLiteStatement update = database.compileStatement(PLAYCOUNT_UPDATE);
+			for (PendingSong item : items) {
+				Song song = item.song;
+				update.clearBindings();
+				update.bindLong(1, item.count);
+				update.bindString(2, song.getName());
+				update.bindString(3, song.getAlbum());
+				update.bindString(4, song.getArtist());
+				update.bindLong(5, song.getDuration());
+				update.bindLong(6, song.getId());
+				// add new track if not exists
+				if (update.executeUpdateDelete() == 0) {
+					ContentValues values = new ContentValues(6);
+					values.put(PopularColumns.ID, song.getId());
+					values.put(PopularColumns.SONGNAME, song.getName());
+					values.put(PopularColumns.ALBUMNAME, song.getAlbum());
+					values.put(PopularColumns.ARTISTNAME, song.getArtist());
+					values.put(PopularColumns.PLAYCOUNT, item.count);
+					values.put(PopularColumns.DURATION, song.getDuration());
+					database.insert(PopularColumns.NAME, null, values);
 				}
-				cursor.close();
 			}
+			update.close();
+			commit();
+		} catch (Exception exception) {
+			Log.e(TAG, "failed to write play counts", exception);
+			return;
 		}
-		return result;
+		// remove written play counts
+		synchronized (pending) {
+			for (PendingSong item : items) {
+				PendingSong current = pending.get(item.song.getId());
+				if (current != null) {
+					current.count -= item.count;
+					if (current.count <= 0) {
+						pending.remove(item.song.getId());
+					}
+				}
+			}
+		}
+	}
 
+	/**
+	 * play count of a track not written to the database yet
+	 */
+	private static final class PendingSong {
+
+		Song song;
+		int count;
+
+		PendingSong(Song song) {
+			this.song = song;
+			count = 1;
+		}
+
+		PendingSong(PendingSong item) {
+			song = item.song;
+			count = item.count;
+		}
 	}
 
 	/**
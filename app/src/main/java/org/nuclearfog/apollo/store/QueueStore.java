@@ -0,0 +1,657 @@
+package org.nuclearfog.apollo.store;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.nuclearfog.apollo.service.PlayQueue;
+import org.nuclearfog.apollo.utils.PreferenceUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Storage for the playback queue, history and play position.
+ * The queue is stored as a binary file of packed track IDs. Changes are appended to a small journal
+ * which is merged into the queue file when it grows too large.
+ * All files are written by a background thread in the order of the changes.
+ *
+ * @author nuclearfog
+ */
+public class QueueStore {
+
+	private static final String TAG = "QueueStore";
+
+	/**
+	 * file name of the queue snapshot
+	 */
+	private static final String QUEUE_FILE = "queue.bin";
+
+	/**
+	 * file name of the journal
+	 */
+	private static final String JOURNAL_FILE = "queue.journal";
+
+	/**
+	 * file header and version of the queue files
+	 */
+	private static final int MAGIC = 0x41510001;
+
+	/**
+	 * maximum journal entries before the queue file should be rewritten
+	 */
+	private static final int MAX_JOURNAL_ENTRIES = 512;
+
+	/**
+	 * journal entry: tracks inserted
+	 */
+	private static final byte ENTRY_INSERT = 1;
+
+	/**
+	 * journal entry: track removed
+	 */
+	private static final byte ENTRY_REMOVE = 2;
+
+	/**
+	 * journal entry: all instances of tracks removed
+	 */
+	private static final byte ENTRY_REMOVE_ALL = 3;
+
+	/**
+	 * journal entry: track moved
+	 */
+	private static final byte ENTRY_MOVE = 4;
+
+	/**
+	 * journal entry: play position changed
+	 */
+	private static final byte ENTRY_POSITION = 5;
+
+	/**
+	 * journal entry: track history changed
+	 */
+	private static final byte ENTRY_HISTORY = 6;
+
+	/**
+	 * singleton instance
+	 */
+	private static QueueStore singleton;
+
+	private PreferenceUtils settings;
+	private File queueFile, journalFile;
+
+	/**
+	 * output stream of the journal, null if not opened
+	 */
+	private DataOutputStream journal;
+
+	/**
+	 * single thread used to write all changes in order
+	 */
+	private ExecutorService writer = Executors.newSingleThreadExecutor();
+
+	/**
+	 * true if the journal could not be written
+	 */
+	private boolean journalError = false;
+
+	/**
+	 * true if a position or history change is waiting to be written
+	 */
+	private boolean positionPending, historyPending;
+
+	private int generation = 0;
+	private int journalEntries = 0;
+	private int cardId = -1;
+	private int position = 0;
+	private long seekPosition = 0L;
+	private int[] history = new int[0];
+
+	/**
+	 *
+	 */
+	private QueueStore(Context context) {
+		settings = PreferenceUtils.getInstance(context);
+		queueFile = new File(context.getFilesDir(), QUEUE_FILE);
+		journalFile = new File(context.getFilesDir(), JOURNAL_FILE);
+	}
+
+	/**
+	 * create singleton instance
+	 *
+	 * @return singleton instance of this class
+	 */
+	public static QueueStore getInstance(Context context) {
+		if (singleton == null) {
+			singleton = new QueueStore(context.getApplicationContext());
+		}
+		return singleton;
+	}
+
+	/**
+	 * load the saved queue and track history. Waits until all pending changes are written.
+	 * If the queue was saved for another card, the saved queue will be discarded
+	 *
+	 * @param cardId  ID of the current card
+	 * @param queue   queue to add the saved tracks
+	 * @param history list to add the saved track history
+	 * @return true if the saved queue was loaded
+	 */
+	public boolean load(final int cardId, final PlayQueue queue, final List<Integer> history) {
+		try {
+			return writer.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() {
+					return loadQueue(cardId, queue, history);
+				}
+			}).get();
+		} catch (InterruptedException | ExecutionException exception) {
+			Log.e(TAG, "error loading queue:", exception);
+			return false;
+		}
+	}
+
+	/**
+	 * get the play position restored by {@link #load}
+	 *
+	 * @return position of the current track in the queue
+	 */
+	public synchronized int getPosition() {
+		return position;
+	}
+
+	/**
+	 * get the seek position restored by {@link #load}
+	 *
+	 * @return playback position of the current track in milliseconds
+	 */
+	public synchronized long getSeekPosition() {
+		return seekPosition;
+	}
+
+	/**
+	 * replace the saved queue
+	 *
+	 * @param ids    track IDs of the new queue
+	 * @param cardId ID of the current card
+	 */
+	public synchronized void setAll(final long[] ids, int cardId) {
+		this.cardId = cardId;
+		journalEntries = 0;
+		writer.execute(new Runnable() {
+			@Override
+			public void run() {
+				writeQueue(ids);
+			}
+		});
+	}
+
+	/**
+	 * save inserted tracks
+	 *
+	 * @param index position of the first inserted track
+	 * @param ids   track IDs inserted
+	 */
+	public void insert(int index, long[] ids) {
+		ByteBuffer entry = ByteBuffer.allocate(9 + ids.length * 8);
+		entry.put(ENTRY_INSERT).putInt(index).putInt(ids.length);
+		for (long id : ids) {
+			entry.putLong(id);
+		}
+		appendJournal(entry.array());
+	}
+
+	/**
+	 * save removed track
+	 *
+	 * @param index position of the removed track
+	 */
+	public void remove(int index) {
+		ByteBuffer entry = ByteBuffer.allocate(5);
+		entry.put(ENTRY_REMOVE).putInt(index);
+		appendJournal(entry.array());
+	}
+
+	/**
+	 * save removal of all instances of the given tracks
+	 *
+	 * @param ids track IDs removed
+	 */
+	public void removeAll(long[] ids) {
+		ByteBuffer entry = ByteBuffer.allocate(5 + ids.length * 8);
+		entry.put(ENTRY_REMOVE_ALL).putInt(ids.length);
+		for (long id : ids) {
+			entry.putLong(id);
+		}
+		appendJournal(entry.array());
+	}
+
+	/**
+	 * save moved track
+	 *
+	 * @param from old position of the track
+	 * @param to   new position of the track
+	 */
+	public void move(int from, int to) {
+		ByteBuffer entry = ByteBuffer.allocate(9);
+		entry.put(ENTRY_MOVE).putInt(from).putInt(to);
+		appendJournal(entry.array());
+	}
+
+	/**
+	 * save current play position. Multiple changes are combined until the position is written
+	 *
+	 * @param position     position of the current track in the queue
+	 * @param seekPosition playback position of the current track
+	 */
+	public synchronized void setPosition(int position, long seekPosition) {
+		if (this.position != position || this.seekPosition != seekPosition) {
+			this.position = position;
+			this.seekPosition = seekPosition;
+			if (!positionPending) {
+				positionPending = true;
+				journalEntries++;
+				writer.execute(new Runnable() {
+					@Override
+					public void run() {
+						writePosition();
+					}
+				});
+			}
+		}
+	}
+
+	/**
+	 * save track history. Multiple changes are combined until the history is written
+	 *
+	 * @param history list of queue positions already played
+	 */
+	public synchronized void setHistory(List<Integer> history) {
+		int[] newHistory = new int[history.size()];
+		int i = 0;
+		for (int index : history) {
+			newHistory[i++] = index;
+		}
+		if (!Arrays.equals(this.history, newHistory)) {
+			this.history = newHistory;
+			if (!historyPending) {
+				historyPending = true;
+				journalEntries++;
+				writer.execute(new Runnable() {
+					@Override
+					public void run() {
+						writeHistory();
+					}
+				});
+			}
+		}
+	}
+
+	/**
+	 * check if the journal is too large and the queue should be rewritten with {@link #setAll}
+	 *
+	 * @return true if the queue file should be rewritten
+	 */
+	public synchronized boolean isCompactionRequired() {
+		return journalEntries >= MAX_JOURNAL_ENTRIES;
+	}
+
+	/**
+	 * add a journal entry to the write queue
+	 *
+	 * @param entry journal entry to write
+	 */
+	private synchronized void appendJournal(final byte[] entry) {
+		journalEntries++;
+		writer.execute(new Runnable() {
+			@Override
+			public void run() {
+				writeJournal(entry);
+			}
+		});
+	}
+
+	/**
+	 * load queue and journal
+	 *
+	 * @see #load
+	 */
+	private boolean loadQueue(int cardId, PlayQueue queue, List<Integer> history) {
+		queue.clear();
+		history.clear();
+		boolean legacy = !queueFile.exists();
+		if (!legacy) {
+			try {
+				readQueue(queue);
+				readJournal(queue);
+			} catch (IOException exception) {
+				Log.e(TAG, "error reading queue:", exception);
+			}
+		} else {
+			readLegacyQueue(queue);
+		}
+		boolean loaded;
+		synchronized (this) {
+			loaded = this.cardId == cardId;
+			if (loaded) {
+				for (int index : this.history) {
+					history.add(index);
+				}
+			} else {
+				queue.clear();
+				this.cardId = cardId;
+				this.history = new int[0];
+				position = 0;
+				seekPosition = 0L;
+			}
+			journalEntries = 0;
+		}
+		// merge journal into the queue file
+		if (writeQueue(queue.toArray()) && legacy) {
+			// remove old queue only after it was saved to the new file
+			settings.removeQueue();
+		}
+		return loaded;
+	}
+
+	/**
+	 * read queue file
+	 *
+	 * @param queue queue to add the tracks
+	 */
+	private void readQueue(PlayQueue queue) throws IOException {
+		byte[] data = new byte[(int) queueFile.length()];
+		InputStream input = new FileInputStream(queueFile);
+		try {
+			int read = 0;
+			while (read < data.length) {
+				int count = input.read(data, read, data.length - read);
+				if (count < 0)
+					throw new EOFException();
+				read += count;
+			}
+		} finally {
+			input.close();
+		}
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(data);
+			if (buffer.getInt() != MAGIC)
+				throw new IOException("bad queue file header!");
+			generation = buffer.getInt();
+			int cardId = buffer.getInt();
+			int position = buffer.getInt();
+			long seekPosition = buffer.getLong();
+			int[] history = new int[buffer.getInt()];
+			buffer.asIntBuffer().get(history);
+			buffer.position(buffer.position() + history.length * 4);
+			long[] ids = new long[buffer.getInt()];
+			buffer.asLongBuffer().get(ids);
+			queue.setAll(ids);
+			synchronized (this) {
+				this.cardId = cardId;
+				this.position = position;
+				this.seekPosition = seekPosition;
+				this.history = history;
+			}
+		} catch (BufferUnderflowException | NegativeArraySizeException exception) {
+			throw new IOException("queue file is corrupted!");
+		}
+	}
+
+	/**
+	 * apply journal entries to the queue. Incomplete or invalid entries at the end are ignored
+	 *
+	 * @param queue queue to apply the changes
+	 */
+	private void readJournal(PlayQueue queue) throws IOException {
+		if (!journalFile.exists())
+			return;
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)));
+		try {
+			// ignore journal of an older queue file
+			if (input.readInt() != MAGIC || input.readInt() != generation)
+				return;
+			while (true) {
+				byte type = input.readByte();
+				switch (type) {
+					case ENTRY_INSERT:
+						int index = input.readInt();
+						long[] ids = new long[input.readInt()];
+						for (int i = 0; i < ids.length; i++)
+							ids[i] = input.readLong();
+						queue.addAll(index, ids);
+						break;
+
+					case ENTRY_REMOVE:
+						queue.remove(input.readInt());
+						break;
+
+					case ENTRY_REMOVE_ALL:
+						long[] removed = new long[input.readInt()];
+						for (int i = 0; i < removed.length; i++)
+							removed[i] = input.readLong();
+						queue.removeAll(removed, 0);
+						break;
+
+					case ENTRY_MOVE:
+						int from = input.readInt();
+						int to = input.readInt();
+						queue.move(from, to);
+						break;
+
+					case ENTRY_POSITION:
+						int position = input.readInt();
+						long seekPosition = input.readLong();
+						synchronized (this) {
+							this.position = position;
+							this.seekPosition = seekPosition;
+						}
+						break;
+
+					case ENTRY_HISTORY:
+						int[] history = new int[input.readInt()];
+						for (int i = 0; i < history.length; i++)
+							history[i] = input.readInt();
+						synchronized (this) {
+							this.history = history;
+						}
+						break;
+
+					default:
+						Log.w(TAG, "bad journal entry: " + type);
+						return;
+				}
+			}
+		} catch (EOFException exception) {
+			// end of the journal reached
+		} catch (RuntimeException exception) {
+			Log.w(TAG, "invalid journal entry, ignoring following entries");
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * import queue saved by an older app version
+	 *
+	 * @param queue queue to add the tracks
+	 */
+	private synchronized void readLegacyQueue(PlayQueue queue) {
+		List<Integer> legacyHistory = settings.getTrackHistory();
+		queue.setAll(settings.getPlaylist());
+		cardId = settings.getCardId();
+		position = settings.getCursorPosition();
+		seekPosition = settings.getSeekPosition();
+		history = new int[legacyHistory.size()];
+		for (int i = 0; i < history.length; i++) {
+			history[i] = legacyHistory.get(i);
+		}
+	}
+
+	/**
+	 * write a new queue file and start a new journal
+	 *
+	 * @param ids track IDs of the queue
+	 * @return true if the queue file was written
+	 */
+	private boolean writeQueue(long[] ids) {
+		int cardId, position;
+		long seekPosition;
+		int[] history;
+		synchronized (this) {
+			cardId = this.cardId;
+			position = this.position;
+			seekPosition = this.seekPosition;
+			history = this.history;
+			positionPending = false;
+			historyPending = false;
+		}
+		closeJournal();
+		File tmpFile = new File(queueFile.getPath() + ".tmp");
+		try {
+			FileOutputStream fileOutput = new FileOutputStream(tmpFile);
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutput));
+			try {
+				output.writeInt(MAGIC);
+				output.writeInt(generation + 1);
+				output.writeInt(cardId);
+				output.writeInt(position);
+				output.writeLong(seekPosition);
+				output.writeInt(history.length);
+				for (int index : history) {
+					output.writeInt(index);
+				}
+				output.writeInt(ids.length);
+				for (long id : ids) {
+					output.writeLong(id);
+				}
+				output.flush();
+				fileOutput.getFD().sync();
+			} finally {
+				output.close();
+			}
+			if (tmpFile.renameTo(queueFile)) {
+				generation++;
+				journalError = false;
+				// old journal entries are now part of the queue file
+				journalFile.delete();
+				return true;
+			}
+			Log.e(TAG, "could not replace queue file!");
+		} catch (IOException exception) {
+			Log.e(TAG, "error writing queue:", exception);
+		}
+		return false;
+	}
+
+	/**
+	 * open journal for writing
+	 *
+	 * @return journal output stream or null if an error occured
+	 */
+	private DataOutputStream openJournal() {
+		if (journal == null && !journalError) {
+			try {
+				boolean exists = journalFile.exists();
+				journal = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, true)));
+				if (!exists) {
+					journal.writeInt(MAGIC);
+					journal.writeInt(generation);
+				}
+			} catch (IOException exception) {
+				onJournalError(exception);
+			}
+		}
+		return journal;
+	}
+
+	/**
+	 * write journal entry to file
+	 *
+	 * @param entry journal entry
+	 */
+	private void writeJournal(byte[] entry) {
+		DataOutputStream output = openJournal();
+		if (output != null) {
+			try {
+				output.write(entry);
+				output.flush();
+			} catch (IOException exception) {
+				onJournalError(exception);
+			}
+		}
+	}
+
+	/**
+	 * write latest play position to the journal
+	 */
+	private void writePosition() {
+		ByteBuffer entry = ByteBuffer.allocate(13);
+		synchronized (this) {
+			if (!positionPending)
+				return;
+			positionPending = false;
+			entry.put(ENTRY_POSITION).putInt(position).putLong(seekPosition);
+		}
+		writeJournal(entry.array());
+	}
+
+	/**
+	 * write latest track history to the journal
+	 */
+	private void writeHistory() {
+		ByteBuffer entry;
+		synchronized (this) {
+			if (!historyPending)
+				return;
+			historyPending = false;
+			entry = ByteBuffer.allocate(5 + history.length * 4);
+			entry.put(ENTRY_HISTORY).putInt(history.length);
+			for (int index : history) {
+				entry.putInt(index);
+			}
+		}
+		writeJournal(entry.array());
+	}
+
+	/**
+	 * close journal output stream
+	 */
+	private void closeJournal() {
+		if (journal != null) {
+			try {
+				journal.close();
+			} catch (IOException exception) {
+				Log.w(TAG, "error closing journal:", exception);
+			}
+			journal = null;
+		}
+	}
+
+	/**
+	 * called if the journal could not be written. The queue file will be rewritten on the next save
+	 */
+	private void onJournalError(IOException exception) {
+		Log.e(TAG, "error writing queue journal:", exception);
+		closeJournal();
+		journalError = true;
+		synchronized (this) {
+			journalEntries = MAX_JOURNAL_ENTRIES;
+		}
+	}
+}
@@ -0,0 +1,202 @@
+package org.nuclearfog.apollo.store;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Word prefix index over item names used for the library search.
+ * Names are split into words, converted to lower case and accents are removed.
+ * Every word refers to the rows containing the word and to the position of the word in the name.
+ *
+ * @author nuclearfog
+ */
+class SearchIndex {
+
+	/**
+	 * sorted words of all names
+	 */
+	private String[] terms;
+
+	/**
+	 * start of the postings of each word, last element is the number of postings
+	 */
+	private int[] offsets;
+
+	/**
+	 * row of each posting
+	 */
+	private int[] rows;
+
+	/**
+	 * position of the word in the name of each posting
+	 */
+	private int[] positions;
+
+	/**
+	 * number of indexed names
+	 */
+	private int size;
+
+	/**
+	 * @param names names to index, the array position is used as row
+	 */
+	SearchIndex(String[] names) {
+		size = names.length;
+		Map<String, Integer> termIds = new HashMap<>();
+		int[] postingTerms = new int[size * 2];
+		int[] postingRows = new int[size * 2];
+		int[] postingPositions = new int[size * 2];
+		int count = 0;
+		char[] buffer = new char[64];
+		for (int row = 0; row < size; row++) {
+			String name = names[row];
+			if (name == null)
+				continue;
+			int pos = 0;
+			while (pos < name.length()) {
+				// skip separators
+				while (pos < name.length() && !Character.isLetterOrDigit(name.charAt(pos))) {
+					pos++;
+				}
+				int start = pos;
+				while (pos < name.length() && Character.isLetterOrDigit(name.charAt(pos))) {
+					if (pos - start == buffer.length)
+						buffer = Arrays.copyOf(buffer, buffer.length * 2);
+					buffer[pos - start] = fold(name.charAt(pos));
+					pos++;
+				}
+				if (pos > start) {
+					String term = new String(buffer, 0, pos - start);
+					Integer termId = termIds.get(term);
+					if (termId == null) {
+						termId = termIds.size();
+						termIds.put(term, termId);
+					}
+					if (count == postingTerms.length) {
+						postingTerms = Arrays.copyOf(postingTerms, count * 2);
+						postingRows = Arrays.copyOf(postingRows, count * 2);
+						postingPositions = Arrays.copyOf(postingPositions, count * 2);
+					}
+					postingTerms[count] = termId;
+					postingRows[count] = row;
+					postingPositions[count] = start;
+					count++;
+				}
+			}
+		}
+		// sort words and map word IDs to the sorted position
+		terms = termIds.keySet().toArray(new String[0]);
+		Arrays.sort(terms);
+		int[] sortedIds = new int[terms.length];
+		for (int i = 0; i < terms.length; i++) {
+			sortedIds[termIds.get(terms[i])] = i;
+		}
+		// group postings by word, rows stay in ascending order
+		offsets = new int[terms.length + 1];
+		for (int i = 0; i < count; i++) {
+			offsets[sortedIds[postingTerms[i]] + 1]++;
+		}
+		for (int i = 0; i < terms.length; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+		int[] next = Arrays.copyOf(offsets, terms.length);
+		rows = new int[count];
+		positions = new int[count];
+		for (int i = 0; i < count; i++) {
+			int index = next[sortedIds[postingTerms[i]]]++;
+			rows[index] = postingRows[i];
+			positions[index] = postingPositions[i];
+		}
+	}
+
+	/**
+	 * find all rows containing a word starting with each word of the query.
+	 * rows where the name starts with the first query word are returned first.
+	 *
+	 * @param query      words of the search query, see {@link #split(String)}
+	 * @param highlights array used to return the position of the first query word in the name of each result
+	 * @param limit      maximum number of results
+	 * @return rows of the results
+	 */
+	int[] search(String[] query, int[] highlights, int limit) {
+		if (query.length == 0 || size == 0)
+			return new int[0];
+		// number of matching query words of each row
+		int[] matches = new int[size];
+		int[] first = new int[size];
+		for (int word = 0; word < query.length; word++) {
+			int start = findTerm(query[word]);
+			int end = findTerm(query[word] + Character.MAX_VALUE);
+			for (int term = start; term < end; term++) {
+				for (int i = offsets[term]; i < offsets[term + 1]; i++) {
+					int row = rows[i];
+					if (matches[row] == word) {
+						matches[row] = word + 1;
+						if (word == 0) {
+							first[row] = positions[i];
+						}
+					} else if (word == 0 && positions[i] < first[row]) {
+						first[row] = positions[i];
+					}
+				}
+			}
+		}
+		int[] result = new int[Math.min(limit, size)];
+		int count = 0;
+		// names starting with the query first
+		for (int row = 0; row < size && count < result.length; row++) {
+			if (matches[row] == query.length && first[row] == 0) {
+				highlights[count] = 0;
+				result[count++] = row;
+			}
+		}
+		for (int row = 0; row < size && count < result.length; row++) {
+			if (matches[row] == query.length && first[row] > 0) {
+				highlights[count] = first[row];
+				result[count++] = row;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * split a search query into words used by {@link #search(String[], int[], int)}
+	 *
+	 * @param query search query
+	 * @return lower case words without accents
+	 */
+	static String[] split(String query) {
+		String[] words = new String[query.length()];
+		int count = 0;
+		StringBuilder word = new StringBuilder();
+		for (int i = 0; i <= query.length(); i++) {
+			if (i < query.length() && Character.isLetterOrDigit(query.charAt(i))) {
+				word.append(fold(query.charAt(i)));
+			} else if (word.length() > 0) {
+				words[count++] = word.toString();
+				word.setLength(0);
+			}
+		}
+		return Arrays.copyOf(words, count);
+	}
+
+	/**
+	 * get the position of the first word equal or greater than the given word
+	 */
+	private int findTerm(String word) {
+		int index = Arrays.binarySearch(terms, word);
+		return index >= 0 ? index : -index - 1;
+	}
+
+	/**
+	 * convert a character to lower case and remove accents
+	 */
+	private static char fold(char c) {
+		if (c < 0x80)
+			return Character.toLowerCase(c);
+		String normalized = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+		return Character.toLowerCase(normalized.charAt(0));
+	}
+}
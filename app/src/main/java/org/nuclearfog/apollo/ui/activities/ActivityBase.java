@@ -40,6 +40,7 @@ import androidx.core.content.ContextCompat;
 import org.nuclearfog.apollo.R;
 import org.nuclearfog.apollo.async.AsyncExecutor.AsyncCallback;
 import org.nuclearfog.apollo.async.loader.SongLoader;
+import org.nuclearfog.apollo.cache.ImageWorker.ArtworkSize;
 import org.nuclearfog.apollo.model.Album;
 import org.nuclearfog.apollo.model.Song;
 import org.nuclearfog.apollo.receiver.PlaybackStatusReceiver;
@@ -309,7 +310,7 @@ public abstract class ActivityBase extends AppCompatActivity implements ServiceB
 		// background clicked
 		else if (v.getId() == R.id.bottom_action_bar_background) {
 			// open audio player activity
-			if (MusicUtils.getQueue(this).length > 0) {
+			if (MusicUtils.getQueueSize(this) > 0) {
 				Intent intent = new Intent(this, AudioPlayerActivity.class);
 				startActivity(intent);
 			}
@@ -408,7 +409,7 @@ public abstract class ActivityBase extends AppCompatActivity implements ServiceB
 		}
 		// Set the album art
 		if (album != null) {
-			ApolloUtils.getImageFetcher(this).loadAlbumImage(album, mAlbumArt);
+			ApolloUtils.getImageFetcher(this).loadAlbumImage(album, ArtworkSize.THUMBNAIL, mAlbumArt);
 		} else {
 			mAlbumArt.setImageResource(0);
 		}
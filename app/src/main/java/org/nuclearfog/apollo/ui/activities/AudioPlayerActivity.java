@@ -52,6 +52,7 @@ import org.nuclearfog.apollo.async.loader.ArtistSongLoader;
 import org.nuclearfog.apollo.async.loader.PlaylistSongLoader;
 import org.nuclearfog.apollo.async.loader.SongLoader;
 import org.nuclearfog.apollo.cache.ImageFetcher;
+import org.nuclearfog.apollo.cache.ImageWorker.ArtworkSize;
 import org.nuclearfog.apollo.model.Album;
 import org.nuclearfog.apollo.model.Song;
 import org.nuclearfog.apollo.receiver.PlaybackStatusReceiver;
@@ -655,9 +656,9 @@ public class AudioPlayerActivity extends AppCompatActivity implements ServiceBin
 			// Set the artist name
 			mArtistName.setText(song.getArtist());
 			// Set the album art
-			mImageFetcher.loadAlbumImage(album, mAlbumArt);
+			mImageFetcher.loadAlbumImage(album, ArtworkSize.FULL, mAlbumArt);
 			// Set the small artwork
-			mImageFetcher.loadAlbumImage(album, mAlbumArtSmall);
+			mImageFetcher.loadAlbumImage(album, ArtworkSize.THUMBNAIL, mAlbumArtSmall);
 		}
 	}
 
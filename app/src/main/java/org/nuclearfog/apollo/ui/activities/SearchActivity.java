@@ -14,6 +14,8 @@ package org.nuclearfog.apollo.ui.activities;
 import android.app.SearchManager;
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.TextUtils;
 import android.view.ContextMenu;
 import android.view.Menu;
@@ -41,6 +43,7 @@ import org.nuclearfog.apollo.model.Album;
 import org.nuclearfog.apollo.model.Artist;
 import org.nuclearfog.apollo.model.Music;
 import org.nuclearfog.apollo.model.Song;
+import org.nuclearfog.apollo.store.LibraryStore.SearchResult;
 import org.nuclearfog.apollo.ui.adapters.listview.SearchAdapter;
 import org.nuclearfog.apollo.ui.adapters.listview.holder.RecycleHolder;
 import org.nuclearfog.apollo.ui.dialogs.PlaylistDialog;
@@ -58,7 +61,7 @@ import java.util.List;
  *
  * @author Andrew Neal (andrewdneal@gmail.com)
  */
-public class SearchActivity extends ActivityBase implements AsyncCallback<List<Music>>, OnScrollListener, OnQueryTextListener, OnItemClickListener {
+public class SearchActivity extends ActivityBase implements AsyncCallback<SearchResult>, OnScrollListener, OnQueryTextListener, OnItemClickListener {
 
 	/**
 	 * Grid view column count. ONE - list, TWO - normal grid
@@ -70,17 +73,26 @@ public class SearchActivity extends ActivityBase implements AsyncCallback<List<M
 	 */
 	private static final int GROUP_ID = 0xC1A35EE4;
 
+	/**
+	 * delay after typing before searching
+	 */
+	private static final long SEARCH_DELAY = 100;
+
 	private AsyncCallback<List<Song>> onPlaySongs = this::onPlaySongs;
 	private AsyncCallback<List<Song>> onAddToQueue = this::onAddToQueue;
 	private AsyncCallback<List<Song>> onAddToNewPlaylist = this::onAddToNewPlaylist;
 	private AsyncCallback<List<Song>> onAddToExistingPlaylist = this::onAddToExistingPlaylist;
 	private AsyncCallback<List<Song>> onSongsDelete = this::onSongsDelete;
 
+	private Handler searchHandler = new Handler(Looper.getMainLooper());
+	private Runnable searchTask = this::search;
+
 	/**
 	 * The query
 	 */
 	private String mFilterString;
 
+
 	/**
 	 * List view adapter
 	 */
@@ -129,8 +141,6 @@ public class SearchActivity extends ActivityBase implements AsyncCallback<List<M
 			mResources.setSubtitle(getSupportActionBar(), "\"" + mFilterString + "\"");
 		}
 		mResources.setBackground(root);
-		// Set the prefix
-		mAdapter.setPrefix(mFilterString);
 		// Bind the data
 		mGridView.setAdapter(mAdapter);
 		// Recycle the data
@@ -147,7 +157,7 @@ public class SearchActivity extends ActivityBase implements AsyncCallback<List<M
 			mGridView.setNumColumns(ONE);
 		}
 		// Prepare the loader. Either re-connect with an existing one
-		mLoader.execute(mFilterString, this);
+		search();
 	}
 
 	/**
@@ -155,6 +165,8 @@ public class SearchActivity extends ActivityBase implements AsyncCallback<List<M
 	 */
 	@Override
 	protected void onDestroy() {
+		searchHandler.removeCallbacks(searchTask);
+		mLoader.cancel();
 		albumSongLoader.cancel();
 		artistSongLoader.cancel();
 		super.onDestroy();
@@ -168,9 +180,7 @@ public class SearchActivity extends ActivityBase implements AsyncCallback<List<M
 		super.onNewIntent(intent);
 		String query = intent.getStringExtra(SearchManager.QUERY);
 		mFilterString = !TextUtils.isEmpty(query) ? query : "";
-		// Set the prefix
-		mAdapter.setPrefix(mFilterString);
-		mLoader.execute(mFilterString, this);
+		search();
 	}
 
 	/**
@@ -292,12 +302,9 @@ public class SearchActivity extends ActivityBase implements AsyncCallback<List<M
 
 
 	@Override
-	public void onResult(@NonNull List<Music> result) {
+	public void onResult(@NonNull SearchResult result) {
 		// set data
-		mAdapter.clear();
-		for (Music music : result) {
-			mAdapter.add(music);
-		}
+		mAdapter.setResult(result);
 	}
 
 	/**
@@ -327,9 +334,9 @@ public class SearchActivity extends ActivityBase implements AsyncCallback<List<M
 		// the search filter, and restart the loader to do a new query
 		// with this filter.
 		mFilterString = newText;
-		// Set the prefix
-		mAdapter.setPrefix(mFilterString);
-		mLoader.execute(mFilterString, this);
+		// wait for further input before searching
+		searchHandler.removeCallbacks(searchTask);
+		searchHandler.postDelayed(searchTask, SEARCH_DELAY);
 		return true;
 	}
 
@@ -382,6 +389,15 @@ public class SearchActivity extends ActivityBase implements AsyncCallback<List<M
 		// not used
 	}
 
+	/**
+	 * start a new search with the current query and discard results of the previous search
+	 */
+	private void search() {
+		searchHandler.removeCallbacks(searchTask);
+		mLoader.cancel();
+		mLoader.execute(mFilterString, this);
+	}
+
 	/**
 	 * play loaded songs
 	 */
@@ -22,6 +22,7 @@ import androidx.annotation.Nullable;
 
 import org.nuclearfog.apollo.R;
 import org.nuclearfog.apollo.cache.ImageFetcher;
+import org.nuclearfog.apollo.cache.ImageWorker.ArtworkSize;
 import org.nuclearfog.apollo.model.Album;
 import org.nuclearfog.apollo.model.Music;
 import org.nuclearfog.apollo.ui.adapters.listview.holder.MusicHolder;
@@ -44,6 +45,11 @@ public class AlbumAdapter extends AlphabeticalAdapter<Album> {
 	 */
 	private ImageFetcher mImageFetcher;
 
+	/**
+	 * size of the item images
+	 */
+	private ArtworkSize mImageSize;
+
 	/**
 	 * The resource Id of the layout to inflate
 	 */
@@ -62,6 +68,7 @@ public class AlbumAdapter extends AlphabeticalAdapter<Album> {
 	public AlbumAdapter(Context context, int columns, @LayoutRes int mLayoutId) {
 		super(context, columns, mLayoutId);
 		this.mLayoutId = mLayoutId;
+		mImageSize = mLayoutId == R.layout.list_item_normal ? ArtworkSize.THUMBNAIL : ArtworkSize.GRID;
 		// Initialize the cache & image fetcher
 		mImageFetcher = ApolloUtils.getImageFetcher(context);
 	}
@@ -90,7 +97,7 @@ public class AlbumAdapter extends AlphabeticalAdapter<Album> {
 			// Set the artist name (line two)
 			holder.mLineTwo.setText(album.getArtist());
 			// Asynchronously load the album images into the adapter
-			mImageFetcher.loadAlbumImage(album, holder.mImage);
+			mImageFetcher.loadAlbumImage(album, mImageSize, holder.mImage);
 			// List view only items
 			if (mLoadExtraData) {
 				// Set the number of songs (line three)
@@ -1,6 +1,8 @@
 package org.nuclearfog.apollo.ui.adapters.listview;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.widget.ArrayAdapter;
 import android.widget.SectionIndexer;
 
@@ -9,7 +11,12 @@ import androidx.annotation.Nullable;
 
 import org.nuclearfog.apollo.model.Music;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * This adapter supports fast scroll with alphabetical thumb
@@ -18,21 +25,59 @@ import java.util.LinkedList;
  */
 public abstract class AlphabeticalAdapter<T> extends ArrayAdapter<T> implements SectionIndexer {
 
-	private LinkedList<String> caps = new LinkedList<>();
+	/**
+	 * thread used to create the section index of new items
+	 */
+	private static final ExecutorService INDEX_THREAD = Executors.newSingleThreadExecutor();
+
+	private Handler uiHandler = new Handler(Looper.getMainLooper());
 
+	private SectionIndex sections = new SectionIndex();
+
+	/**
+	 * items of the adapter, shared with {@link ArrayAdapter}
+	 */
+	private List<T> items;
+
+	/**
+	 * true if the list is notified on every change, see {@link #setNotifyOnChange(boolean)}
+	 */
+	private boolean notifyOnChange = true;
+
+	/**
+	 * number of items in one row
+	 */
 	private int columns = 1;
 
+	/**
+	 * number of item updates, used to discard outdated results of {@link #setItems(Collection)}
+	 */
+	private int updateCount = 0;
+
+	/**
+	 * last update applied to the items
+	 */
+	private int appliedUpdate = 0;
+
 
 	protected AlphabeticalAdapter(Context context, @LayoutRes int layoutId) {
-		super(context, layoutId);
+		this(context, 1, layoutId);
 	}
 
 	/**
 	 * @param columns number of items to show in one row
 	 */
 	protected AlphabeticalAdapter(Context context, int columns, @LayoutRes int layoutId) {
-		super(context, layoutId);
+		this(context, columns, layoutId, new ArrayList<T>());
+	}
+
+	/**
+	 * @param items list used to store the items
+	 */
+	private AlphabeticalAdapter(Context context, int columns, @LayoutRes int layoutId, List<T> items) {
+		super(context, layoutId, items);
 		this.columns = columns;
+		this.items = items;
 	}
 
 	/**
@@ -41,17 +86,124 @@ public abstract class AlphabeticalAdapter<T> extends ArrayAdapter<T> implements
 	@Override
 	public void add(@Nullable T item) {
 		super.add(item);
-		if (item instanceof Music) {
-			Music music = (Music) item;
-			if (getCount() % columns == 0) {
-				if (music.getName().length() > 1) {
-					String cap = music.getName().substring(0, 1).toUpperCase();
-					caps.addLast(cap);
-				} else {
-					caps.addLast("");
+		if (sections.size() == getCount() - 1) {
+			sections.add(item);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear() {
+		super.clear();
+		sections.clear();
+		appliedUpdate = ++updateCount;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void insert(@Nullable T item, int index) {
+		super.insert(item, index);
+		sections.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void remove(@Nullable T item) {
+		super.remove(item);
+		sections.clear();
+	}
+
+	/**
+	 * remove an item at a position. Unlike {@link #remove(Object)} the position is used,
+	 * so the right item is removed if the list contains equal items
+	 *
+	 * @param position position of the item
+	 */
+	public void remove(int position) {
+		items.remove(position);
+		sections.clear();
+		if (notifyOnChange) {
+			notifyDataSetChanged();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setNotifyOnChange(boolean notifyOnChange) {
+		super.setNotifyOnChange(notifyOnChange);
+		this.notifyOnChange = notifyOnChange;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void notifyDataSetChanged() {
+		super.notifyDataSetChanged();
+		// notification is enabled again by ArrayAdapter
+		notifyOnChange = true;
+	}
+
+	/**
+	 * replace all items with a new list. The list is only notified once and only if the items have changed.
+	 * The section index is created in background, so the new items are shown after a short delay.
+	 *
+	 * @param items new items to show
+	 * @return true if the items will be replaced, false if the items didn't change
+	 */
+	public boolean setItems(Collection<T> items) {
+		if (appliedUpdate != updateCount || hasChanged(items)) {
+			final int update = ++updateCount;
+			final List<T> newItems = new ArrayList<>(items);
+			INDEX_THREAD.execute(new Runnable() {
+				@Override
+				public void run() {
+					final SectionIndex index = new SectionIndex();
+					for (T item : newItems) {
+						index.add(item);
+					}
+					uiHandler.post(new Runnable() {
+						@Override
+						public void run() {
+							// skip if there are newer items
+							if (update == updateCount) {
+								applyItems(newItems, index);
+							}
+						}
+					});
 				}
-			}
+			});
+			return true;
 		}
+		return false;
+	}
+
+	/**
+	 * called after new items were set by {@link #setItems(Collection)}, before the list is notified.
+	 * Subclasses can override this to update item related data together with the items
+	 */
+	protected void onItemsApplied() {
+	}
+
+	/**
+	 * check if two items are equal, so the item doesn't need to be updated
+	 *
+	 * @param item    current item
+	 * @param newItem new item
+	 * @return true if the items are equal
+	 */
+	protected boolean isSameItem(@Nullable T item, @Nullable T newItem) {
+		if (item instanceof Music && newItem instanceof Music && ((Music) item).isVisible() != ((Music) newItem).isVisible())
+			return false;
+		return item != null && item.equals(newItem);
 	}
 
 	/**
@@ -59,7 +211,7 @@ public abstract class AlphabeticalAdapter<T> extends ArrayAdapter<T> implements
 	 */
 	@Override
 	public final String[] getSections() {
-		return caps.toArray(new String[0]);
+		return getSectionIndex().getSections();
 	}
 
 	/**
@@ -67,7 +219,7 @@ public abstract class AlphabeticalAdapter<T> extends ArrayAdapter<T> implements
 	 */
 	@Override
 	public final int getPositionForSection(int sectionIndex) {
-		return sectionIndex * columns;
+		return getSectionIndex().getPosition(sectionIndex);
 	}
 
 	/**
@@ -75,6 +227,55 @@ public abstract class AlphabeticalAdapter<T> extends ArrayAdapter<T> implements
 	 */
 	@Override
 	public final int getSectionForPosition(int position) {
-		return position / columns;
+		// use the first item of a row
+		return getSectionIndex().getSection(position - position % columns);
+	}
+
+	/**
+	 * get the section index, create a new one if the items were modified
+	 */
+	private SectionIndex getSectionIndex() {
+		if (sections.size() != getCount()) {
+			sections.clear();
+			for (int i = 0; i < getCount(); i++) {
+				sections.add(getItem(i));
+			}
+		}
+		return sections;
+	}
+
+	/**
+	 * replace all items and the section index
+	 *
+	 * @param items new items
+	 * @param index section index of the new items
+	 */
+	private void applyItems(List<T> items, SectionIndex index) {
+		setNotifyOnChange(false);
+		super.clear();
+		super.addAll(items);
+		sections = index;
+		appliedUpdate = updateCount;
+		onItemsApplied();
+		// also enables notification again
+		notifyDataSetChanged();
+	}
+
+	/**
+	 * compare the current items with a new list
+	 *
+	 * @param items new items
+	 * @return true if the new list is different
+	 */
+	private boolean hasChanged(Collection<T> items) {
+		if (items.size() != getCount())
+			return true;
+		Iterator<T> iterator = items.iterator();
+		for (int i = 0; iterator.hasNext(); i++) {
+			if (!isSameItem(getItem(i), iterator.next())) {
+				return true;
+			}
+		}
+		return false;
 	}
-}
\ No newline at end of file
+}
@@ -20,6 +20,7 @@ import androidx.annotation.NonNull;
 
 import org.nuclearfog.apollo.R;
 import org.nuclearfog.apollo.cache.ImageFetcher;
+import org.nuclearfog.apollo.cache.ImageWorker.ArtworkSize;
 import org.nuclearfog.apollo.model.Artist;
 import org.nuclearfog.apollo.ui.adapters.listview.holder.MusicHolder;
 import org.nuclearfog.apollo.utils.ApolloUtils;
@@ -44,6 +45,11 @@ public class ArtistAdapter extends AlphabeticalAdapter<Artist> {
 	 */
 	private ImageFetcher mImageFetcher;
 
+	/**
+	 * size of the item images
+	 */
+	private ArtworkSize mImageSize;
+
 	/**
 	 * Loads line three and the background image if the user decides to.
 	 */
@@ -59,6 +65,7 @@ public class ArtistAdapter extends AlphabeticalAdapter<Artist> {
 		super(context, columns, 0);
 		// Get the layout Id
 		mLayoutId = layoutId;
+		mImageSize = layoutId == R.layout.list_item_normal ? ArtworkSize.THUMBNAIL : ArtworkSize.GRID;
 		// Initialize the cache & image fetcher
 		mImageFetcher = ApolloUtils.getImageFetcher(context);
 	}
@@ -91,7 +98,7 @@ public class ArtistAdapter extends AlphabeticalAdapter<Artist> {
 			// Set the number of albums (line two)
 			holder.mLineTwo.setText(numAlbums);
 			// Asynchronously load the artist image into the adapter
-			mImageFetcher.loadArtistImage(artist.getName(), holder.mImage);
+			mImageFetcher.loadArtistImage(artist.getName(), mImageSize, holder.mImage);
 			if (mLoadExtraData) {
 				// Number of songs (line three)
 				String numTracks = StringUtils.makeLabel(getContext(), R.plurals.Nsongs, artist.getTrackCount());
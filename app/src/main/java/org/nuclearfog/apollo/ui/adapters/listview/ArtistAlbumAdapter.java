@@ -21,6 +21,7 @@ import androidx.annotation.Nullable;
 
 import org.nuclearfog.apollo.R;
 import org.nuclearfog.apollo.cache.ImageFetcher;
+import org.nuclearfog.apollo.cache.ImageWorker.ArtworkSize;
 import org.nuclearfog.apollo.model.Album;
 import org.nuclearfog.apollo.ui.adapters.listview.holder.MusicHolder;
 import org.nuclearfog.apollo.ui.views.ProfileTabCarousel;
@@ -115,7 +116,7 @@ public class ArtistAlbumAdapter extends AlphabeticalAdapter<Album> {
 			// Set the album year (line three)
 			holder.mLineThree.setText(album.getRelease());
 			// Asynchronously load the album images into the adapter
-			mImageFetcher.loadAlbumImage(album, holder.mImage);
+			mImageFetcher.loadAlbumImage(album, ArtworkSize.GRID, holder.mImage);
 			// register album art click listener
 			ApolloUtils.registerItemViewListener(holder.mImage, parent, position, album.getId());
 		}
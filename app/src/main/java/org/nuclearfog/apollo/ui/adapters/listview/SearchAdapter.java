@@ -1,10 +1,10 @@
 package org.nuclearfog.apollo.ui.adapters.listview;
 
 import android.content.Context;
-import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -12,16 +12,20 @@ import androidx.fragment.app.FragmentActivity;
 
 import org.nuclearfog.apollo.R;
 import org.nuclearfog.apollo.cache.ImageFetcher;
+import org.nuclearfog.apollo.cache.ImageWorker.ArtworkSize;
 import org.nuclearfog.apollo.model.Album;
 import org.nuclearfog.apollo.model.Artist;
 import org.nuclearfog.apollo.model.Music;
 import org.nuclearfog.apollo.model.Song;
+import org.nuclearfog.apollo.store.LibraryStore.SearchResult;
 import org.nuclearfog.apollo.ui.adapters.listview.holder.MusicHolder;
 import org.nuclearfog.apollo.utils.ApolloUtils;
 import org.nuclearfog.apollo.utils.PrefixHighlighter;
 import org.nuclearfog.apollo.utils.StringUtils;
 
-import java.util.Locale;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Used to populate the list view with the search results to {@link org.nuclearfog.apollo.ui.activities.SearchActivity}
@@ -51,9 +55,20 @@ public class SearchAdapter extends AlphabeticalAdapter<Music> {
 	private final PrefixHighlighter mHighlighter;
 
 	/**
-	 * The prefix that's highlighted
+	 * position of the highlighted word prefix of each item
 	 */
-	private char[] mPrefix;
+	private Map<Music, Integer> mHighlights = new HashMap<>();
+
+	/**
+	 * length of the highlighted word prefix
+	 */
+	private int mHighlightLength = 0;
+
+	/**
+	 * highlights of the items not shown yet, applied together with the items
+	 */
+	private Map<Music, Integer> mPendingHighlights = mHighlights;
+	private int mPendingHighlightLength = 0;
 
 	/**
 	 * Constructor for <code>SearchAdapter</code>
@@ -96,9 +111,9 @@ public class SearchAdapter extends AlphabeticalAdapter<Music> {
 			// Get the song count
 			holder.mLineThree.setText(StringUtils.makeLabel(context, R.plurals.Nsongs, artist.getTrackCount()));
 			// Asynchronously load the artist image into the adapter
-			mImageFetcher.loadArtistImage(artist.getName(), holder.mImage);
+			mImageFetcher.loadArtistImage(artist.getName(), ArtworkSize.GRID, holder.mImage);
 			// Highlight the query
-			mHighlighter.setText(holder.mLineOne, artist.getName(), mPrefix);
+			setHighlight(holder.mLineOne, music);
 		} else if (music instanceof Album) {
 			// set album information
 			Album album = (Album) music;
@@ -107,9 +122,9 @@ public class SearchAdapter extends AlphabeticalAdapter<Music> {
 			// Get the artist name
 			holder.mLineTwo.setText(album.getArtist());
 			// Asynchronously load the album images into the adapter
-			mImageFetcher.loadAlbumImage(album, holder.mImage);
+			mImageFetcher.loadAlbumImage(album, ArtworkSize.GRID, holder.mImage);
 			// Highlight the query
-			mHighlighter.setText(holder.mLineOne, album.getName(), mPrefix);
+			setHighlight(holder.mLineOne, music);
 		} else if (music instanceof Song) {
 			// set track information
 			Song song = (Song) music;
@@ -122,7 +137,7 @@ public class SearchAdapter extends AlphabeticalAdapter<Music> {
 			// Get the artist name
 			holder.mLineThree.setText(song.getArtist());
 			// Highlight the query
-			mHighlighter.setText(holder.mLineOne, song.getName(), mPrefix);
+			setHighlight(holder.mLineOne, music);
 		}
 		return convertView;
 	}
@@ -156,13 +171,41 @@ public class SearchAdapter extends AlphabeticalAdapter<Music> {
 	}
 
 	/**
-	 * @param prefix The query to filter.
+	 * set search result items
+	 *
+	 * @param result search result with highlight positions
 	 */
-	public void setPrefix(CharSequence prefix) {
-		if (!TextUtils.isEmpty(prefix)) {
-			mPrefix = prefix.toString().toUpperCase(Locale.getDefault()).toCharArray();
-		} else {
-			mPrefix = null;
+	public void setResult(SearchResult result) {
+		Map<Music, Integer> highlights = new HashMap<>();
+		List<Music> items = result.getItems();
+		for (int i = 0; i < items.size(); i++) {
+			highlights.put(items.get(i), result.getHighlight(i));
+		}
+		mPendingHighlights = highlights;
+		mPendingHighlightLength = result.getHighlightLength();
+		// items are the same, update highlighting of the visible items only
+		if (!setItems(items) && (mHighlightLength != mPendingHighlightLength || !mHighlights.equals(mPendingHighlights))) {
+			onItemsApplied();
+			notifyDataSetChanged();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void onItemsApplied() {
+		mHighlights = mPendingHighlights;
+		mHighlightLength = mPendingHighlightLength;
+	}
+
+	/**
+	 * highlight the matching word prefix of an item name
+	 */
+	private void setHighlight(TextView view, Music music) {
+		Integer start = mHighlights.get(music);
+		if (start != null) {
+			mHighlighter.setText(view, music.getName(), start, mHighlightLength);
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,160 @@
+package org.nuclearfog.apollo.ui.adapters.listview;
+
+import android.util.SparseIntArray;
+
+import org.nuclearfog.apollo.model.Music;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Alphabetical section index used for fast scroll.
+ * Every first letter has a single section starting at its first item, digits are combined to a single section.
+ * If the items are not sorted by name, items of a section may be found after the start of following sections.
+ * Articles and accents are ignored like the MediaStore sort keys do.
+ *
+ * @author nuclearfog
+ */
+class SectionIndex {
+
+	/**
+	 * section used for items starting with a digit or symbol
+	 */
+	private static final char OTHER = '#';
+
+	/**
+	 * articles ignored by the MediaStore sort keys
+	 */
+	private static final String[] ARTICLES = {"the ", "an ", "a "};
+
+	private String[] names = new String[16];
+	private int[] starts = new int[16];
+	private int[] positions = new int[64];
+	private int sectionCount = 0;
+	private int size = 0;
+
+	/**
+	 * section index of every section character
+	 */
+	private SparseIntArray keys = new SparseIntArray();
+
+	/**
+	 * section names returned by {@link #getSections()}, created again after a section was added
+	 */
+	private String[] sections = null;
+
+	/**
+	 * add the next item to the index
+	 *
+	 * @param item item at the next position
+	 */
+	void add(Object item) {
+		char key = OTHER;
+		if (item instanceof Music) {
+			key = getKey(((Music) item).getName());
+		}
+		int section;
+		// items sorted by name continue the last section
+		if (sectionCount > 0 && names[sectionCount - 1].charAt(0) == key) {
+			section = sectionCount - 1;
+		} else {
+			section = keys.get(key, -1);
+			if (section < 0) {
+				if (sectionCount == starts.length) {
+					starts = Arrays.copyOf(starts, sectionCount * 2);
+					names = Arrays.copyOf(names, sectionCount * 2);
+				}
+				section = sectionCount++;
+				starts[section] = size;
+				names[section] = String.valueOf(key);
+				keys.put(key, section);
+				sections = null;
+			}
+		}
+		if (size == positions.length) {
+			positions = Arrays.copyOf(positions, size * 2);
+		}
+		positions[size++] = section;
+	}
+
+	/**
+	 * remove all items from the index
+	 */
+	void clear() {
+		sections = null;
+		keys.clear();
+		sectionCount = 0;
+		size = 0;
+	}
+
+	/**
+	 * get the number of indexed items
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * get the section names
+	 */
+	String[] getSections() {
+		if (sections == null) {
+			sections = Arrays.copyOf(names, sectionCount);
+		}
+		return sections;
+	}
+
+	/**
+	 * get the position of the first item of a section
+	 *
+	 * @param section section index
+	 * @return item position
+	 */
+	int getPosition(int section) {
+		if (sectionCount == 0)
+			return 0;
+		return starts[Math.max(0, Math.min(section, sectionCount - 1))];
+	}
+
+	/**
+	 * get the section of an item
+	 *
+	 * @param position item position
+	 * @return section index
+	 */
+	int getSection(int position) {
+		if (size == 0)
+			return 0;
+		return positions[Math.max(0, Math.min(position, size - 1))];
+	}
+
+	/**
+	 * get the section character of an item name
+	 *
+	 * @param name item name
+	 * @return upper case letter without accent or {@link #OTHER}
+	 */
+	private static char getKey(String name) {
+		int start = 0;
+		for (String article : ARTICLES) {
+			if (name.length() > article.length() && name.regionMatches(true, 0, article, 0, article.length())) {
+				start = article.length();
+				break;
+			}
+		}
+		for (int i = start; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (Character.isLetter(c)) {
+				if (c <= 0x7f)
+					return Character.toUpperCase(c);
+				// remove accents
+				String normalized = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+				return normalized.toUpperCase(Locale.getDefault()).charAt(0);
+			} else if (Character.isDigit(c)) {
+				return OTHER;
+			}
+		}
+		return OTHER;
+	}
+}
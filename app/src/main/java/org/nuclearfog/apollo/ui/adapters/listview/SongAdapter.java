@@ -145,6 +145,16 @@ public class SongAdapter extends AlphabeticalAdapter<Song> {
 		super.remove(song);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void remove(int position) {
+		if (position < nowplayingPos)
+			nowplayingPos--;
+		super.remove(position);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -172,18 +182,20 @@ public class SongAdapter extends AlphabeticalAdapter<Song> {
 	@MainThread
 	public void moveTrack(int from, int to) {
 		if (from != to) {
+			// use positions, the queue may contain the same track multiple times
+			Song mSong = getItem(from);
+			setNotifyOnChange(false);
 			if (from != nowplayingPos) {
 				// move tracks around selected track
-				Song mSong = getItem(from);
-				remove(mSong);
+				remove(from);
 				insert(mSong, to);
 			} else {
 				// move selected track to new position
-				Song mSong = getItem(from);
-				remove(mSong);
+				remove(from);
 				insert(mSong, to);
 				nowplayingPos = to;
 			}
+			notifyDataSetChanged();
 		} else {
 			// nothing changed, revert layout changes
 			notifyDataSetChanged();
@@ -54,6 +54,7 @@ import org.nuclearfog.apollo.utils.MusicUtils;
 import org.nuclearfog.apollo.utils.NavUtils;
 import org.nuclearfog.apollo.utils.PreferenceUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -290,14 +291,14 @@ public class AlbumFragment extends Fragment implements OnScrollListener, OnItemC
 	@Override
 	public void onResult(@NonNull List<Album> albums) {
 		if (isAdded()) {
-			// Start fresh
-			mAdapter.clear();
-			// Add the data to the adapter
+			List<Album> items = new ArrayList<>(albums.size());
 			for (Album album : albums) {
 				if (preference.getExcludeTracks() || album.isVisible()) {
-					mAdapter.add(album);
+					items.add(album);
 				}
 			}
+			// replace adapter items if changed
+			mAdapter.setItems(items);
 		}
 	}
 
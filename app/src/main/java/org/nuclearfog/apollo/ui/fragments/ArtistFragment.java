@@ -54,6 +54,7 @@ import org.nuclearfog.apollo.utils.MusicUtils;
 import org.nuclearfog.apollo.utils.NavUtils;
 import org.nuclearfog.apollo.utils.PreferenceUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -291,14 +292,14 @@ public class ArtistFragment extends Fragment implements AsyncCallback<List<Artis
 	@Override
 	public void onResult(@NonNull List<Artist> artists) {
 		if (isAdded()) {
-			// Start fresh
-			mAdapter.clear();
-			// Add the data to the adapter
+			List<Artist> items = new ArrayList<>(artists.size());
 			for (Artist artist : artists) {
 				if (preference.getExcludeTracks() || artist.isVisible()) {
-					mAdapter.add(artist);
+					items.add(artist);
 				}
 			}
+			// replace adapter items if changed
+			mAdapter.setItems(items);
 		}
 	}
 
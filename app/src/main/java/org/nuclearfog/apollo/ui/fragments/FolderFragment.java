@@ -44,6 +44,7 @@ import org.nuclearfog.apollo.utils.FragmentViewModel;
 import org.nuclearfog.apollo.utils.MusicUtils;
 import org.nuclearfog.apollo.utils.PreferenceUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -199,14 +200,14 @@ public class FolderFragment extends Fragment implements AsyncCallback<List<Folde
 	@Override
 	public void onResult(@NonNull List<Folder> folders) {
 		if (isAdded()) {
-			// Clear list
-			mAdapter.clear();
-			// add data to the adapter
+			List<Folder> items = new ArrayList<>(folders.size());
 			for (Folder folder : folders) {
 				if (preference.getExcludeTracks() || folder.isVisible()) {
-					mAdapter.add(folder);
+					items.add(folder);
 				}
 			}
+			// replace adapter items if changed
+			mAdapter.setItems(items);
 		}
 	}
 
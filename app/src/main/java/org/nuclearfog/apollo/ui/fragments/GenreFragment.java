@@ -52,6 +52,7 @@ import org.nuclearfog.apollo.utils.FragmentViewModel;
 import org.nuclearfog.apollo.utils.MusicUtils;
 import org.nuclearfog.apollo.utils.PreferenceUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -229,14 +230,14 @@ public class GenreFragment extends Fragment implements OnItemClickListener, Asyn
 	@Override
 	public void onResult(@NonNull List<Genre> genres) {
 		if (isAdded()) {
-			// Start fresh
-			mAdapter.clear();
-			// Add the data to the adapter
+			List<Genre> items = new ArrayList<>(genres.size());
 			for (Genre genre : genres) {
 				if (preference.getExcludeTracks() || genre.isVisible()) {
-					mAdapter.add(genre);
+					items.add(genre);
 				}
 			}
+			// replace adapter items if changed
+			mAdapter.setItems(items);
 		}
 	}
 
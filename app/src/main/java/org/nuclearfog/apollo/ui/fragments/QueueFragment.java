@@ -35,6 +35,7 @@ import org.nuclearfog.apollo.R;
 import org.nuclearfog.apollo.async.AsyncExecutor.AsyncCallback;
 import org.nuclearfog.apollo.async.loader.QueueLoader;
 import org.nuclearfog.apollo.model.Song;
+import org.nuclearfog.apollo.service.PlayQueue;
 import org.nuclearfog.apollo.store.FavoritesStore;
 import org.nuclearfog.apollo.ui.adapters.listview.SongAdapter;
 import org.nuclearfog.apollo.ui.adapters.listview.holder.RecycleHolder;
@@ -48,7 +49,7 @@ import org.nuclearfog.apollo.utils.FragmentViewModel;
 import org.nuclearfog.apollo.utils.MusicUtils;
 import org.nuclearfog.apollo.utils.NavUtils;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -101,6 +102,56 @@ public class QueueFragment extends Fragment implements OnItemClickListener, Item
 	 */
 	private int mSelectedPosition = -1;
 
+	/**
+	 * generation number of the queue shown in the list, 0 if the queue must be reloaded
+	 */
+	private long mQueueGeneration = 0;
+
+	/**
+	 * queue changes applied to the list, see {@link PlayQueue#getChanges(long)}
+	 */
+	private long[] mChanges = {};
+
+	/**
+	 * index of the next change to apply in {@link #mChanges}
+	 */
+	private int mChangeOffset = 0;
+
+	/**
+	 * list position of the tracks currently loaded by {@link #mInsertLoader}
+	 */
+	private int mInsertPosition = 0;
+
+	/**
+	 * number of the tracks currently loaded by {@link #mInsertLoader}
+	 */
+	private int mInsertCount = 0;
+
+	/**
+	 * true while the queue is loaded or changes are applied to the list
+	 */
+	private boolean mUpdating = false;
+
+	/**
+	 * true to refresh the queue again after the current update finished
+	 */
+	private boolean mRefreshPending = false;
+
+	/**
+	 * loader used to get information of tracks inserted into the queue
+	 */
+	private QueueLoader mInsertLoader;
+
+	/**
+	 * callback for inserted tracks
+	 */
+	private AsyncCallback<List<Song>> mInsertCallback = new AsyncCallback<List<Song>>() {
+		@Override
+		public void onResult(@NonNull List<Song> songs) {
+			onTracksInserted(songs);
+		}
+	};
+
 	/**
 	 * Empty constructor as per the {@link Fragment} documentation
 	 */
@@ -120,6 +171,10 @@ public class QueueFragment extends Fragment implements OnItemClickListener, Item
 		viewModel = new ViewModelProvider(requireActivity()).get(FragmentViewModel.class);
 		mAdapter = new SongAdapter(requireContext(), true);
 		mLoader = new QueueLoader(requireContext());
+		mInsertLoader = new QueueLoader(requireContext());
+		mQueueGeneration = 0;
+		mUpdating = false;
+		mRefreshPending = false;
 		// setup listview
 		mList.setAdapter(mAdapter);
 		mList.setRecyclerListener(new RecycleHolder());
@@ -142,6 +197,7 @@ public class QueueFragment extends Fragment implements OnItemClickListener, Item
 	public void onDestroyView() {
 		viewModel.getSelectedItem().removeObserver(this);
 		mLoader.cancel();
+		mInsertLoader.cancel();
 		super.onDestroyView();
 	}
 
@@ -270,8 +326,7 @@ public class QueueFragment extends Fragment implements OnItemClickListener, Item
 			for (Song song : songs) {
 				mAdapter.add(song);
 			}
-			// set current track selection
-			setCurrentTrack();
+			finishUpdate();
 		}
 	}
 
@@ -291,9 +346,11 @@ public class QueueFragment extends Fragment implements OnItemClickListener, Item
 		Song mSong = mAdapter.getItem(index);
 		if (mSong != null) {
 			// remove track from queue
+			long generation = MusicUtils.getQueueGeneration(requireActivity());
 			MusicUtils.removeQueueItem(requireActivity(), index);
+			updateGeneration(generation);
 			// remove track from list
-			mAdapter.remove(mSong);
+			mAdapter.remove(index);
 			// check if queue is empty
 			if (mAdapter.isEmpty()) {
 				requireActivity().finish();
@@ -307,7 +364,9 @@ public class QueueFragment extends Fragment implements OnItemClickListener, Item
 	@Override
 	public void drop(int from, int to) {
 		if (from != to) {
+			long generation = MusicUtils.getQueueGeneration(requireActivity());
 			MusicUtils.moveQueueItem(requireActivity(), from, to);
+			updateGeneration(generation);
 		}
 		mAdapter.moveTrack(from, to);
 	}
@@ -320,13 +379,7 @@ public class QueueFragment extends Fragment implements OnItemClickListener, Item
 		if (isAdded()) {
 			switch (action) {
 				case REFRESH:
-					// get queue with song IDs
-					long[] ids = MusicUtils.getQueue(requireActivity());
-					List<Long> idList = new ArrayList<>(ids.length);
-					for (long id : ids)
-						idList.add(id);
-					// load songs of the queue
-					mLoader.execute(idList, this);
+					refreshQueue();
 					break;
 
 				case META_CHANGED:
@@ -336,6 +389,132 @@ public class QueueFragment extends Fragment implements OnItemClickListener, Item
 		}
 	}
 
+	/**
+	 * update generation number after the queue was changed by this fragment,
+	 * so the queue is not reloaded if the list is already up to date
+	 *
+	 * @param previous generation number before the change
+	 */
+	private void updateGeneration(long previous) {
+		if (!mUpdating && previous == mQueueGeneration) {
+			mQueueGeneration = MusicUtils.getQueueGeneration(requireActivity());
+		} else {
+			mQueueGeneration = 0;
+		}
+	}
+
+	/**
+	 * update list with the latest changes of the queue or reload the queue if changes are not available
+	 */
+	private void refreshQueue() {
+		// wait until the current update is finished
+		if (mUpdating) {
+			mRefreshPending = true;
+			return;
+		}
+		mRefreshPending = false;
+		long generation = MusicUtils.getQueueGeneration(requireActivity());
+		if (generation == mQueueGeneration) {
+			return;
+		}
+		long[] changes = null;
+		if (mQueueGeneration != 0) {
+			changes = MusicUtils.getQueueChanges(requireActivity(), mQueueGeneration);
+		}
+		mUpdating = true;
+		if (changes != null) {
+			mQueueGeneration = changes[0];
+			mChanges = changes;
+			mChangeOffset = 1;
+			applyChanges();
+		} else {
+			// get queue with song IDs
+			long[] ids = MusicUtils.getQueue(requireActivity());
+			mQueueGeneration = MusicUtils.getLastQueueGeneration();
+			// load songs of the queue
+			mLoader.execute(ids, this);
+		}
+	}
+
+	/**
+	 * apply queue changes to the list. Stops if track information of inserted tracks must be loaded
+	 */
+	private void applyChanges() {
+		while (mChangeOffset < mChanges.length) {
+			int type = (int) mChanges[mChangeOffset];
+			int first = (int) mChanges[mChangeOffset + 1];
+			int second = (int) mChanges[mChangeOffset + 2];
+			int count = mAdapter.getCount();
+			mChangeOffset += 3;
+			switch (type) {
+				case PlayQueue.CHANGE_INSERT:
+					if (first > count)
+						break;
+					long[] ids = Arrays.copyOfRange(mChanges, mChangeOffset, mChangeOffset + second);
+					mChangeOffset += second;
+					mInsertPosition = first;
+					mInsertCount = second;
+					mInsertLoader.execute(ids, mInsertCallback);
+					return;
+
+				case PlayQueue.CHANGE_REMOVE:
+					if (first + second > count)
+						break;
+					// remove by position, the queue may contain the same track multiple times
+					mAdapter.setNotifyOnChange(false);
+					for (int i = 0; i < second; i++) {
+						mAdapter.remove(first);
+					}
+					mAdapter.notifyDataSetChanged();
+					continue;
+
+				case PlayQueue.CHANGE_MOVE:
+					if (first >= count || second >= count)
+						break;
+					mAdapter.moveTrack(first, second);
+					continue;
+			}
+			// list doesn't match the queue, reload queue
+			mQueueGeneration = 0;
+			mRefreshPending = true;
+			break;
+		}
+		finishUpdate();
+	}
+
+	/**
+	 * called after track information of inserted tracks was loaded
+	 *
+	 * @param songs inserted tracks
+	 */
+	private void onTracksInserted(List<Song> songs) {
+		if (isAdded()) {
+			// reload queue if tracks are missing
+			if (songs.size() != mInsertCount) {
+				mQueueGeneration = 0;
+				mRefreshPending = true;
+				finishUpdate();
+			} else {
+				for (int i = 0; i < songs.size(); i++) {
+					mAdapter.insert(songs.get(i), mInsertPosition + i);
+				}
+				applyChanges();
+			}
+		}
+	}
+
+	/**
+	 * finish update of the list and start pending refresh
+	 */
+	private void finishUpdate() {
+		mUpdating = false;
+		// set current track selection
+		setCurrentTrack();
+		if (mRefreshPending) {
+			refreshQueue();
+		}
+	}
+
 	/**
 	 *
 	 */
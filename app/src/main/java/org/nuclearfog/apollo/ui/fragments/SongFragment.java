@@ -50,6 +50,7 @@ import org.nuclearfog.apollo.utils.MusicUtils;
 import org.nuclearfog.apollo.utils.NavUtils;
 import org.nuclearfog.apollo.utils.PreferenceUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -299,14 +300,14 @@ public class SongFragment extends Fragment implements OnItemClickListener, Obser
 	 */
 	private void onSongsLoaded(List<Song> songs) {
 		if (isAdded()) {
-			// Start fresh
-			mAdapter.clear();
-			// Add the data to the adapter
+			List<Song> items = new ArrayList<>(songs.size());
 			for (Song song : songs) {
 				if (preference.getExcludeTracks() || song.isVisible()) {
-					mAdapter.add(song);
+					items.add(song);
 				}
 			}
+			// replace adapter items if changed
+			mAdapter.setItems(items);
 		}
 	}
 
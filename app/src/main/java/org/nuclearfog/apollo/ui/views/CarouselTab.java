@@ -26,6 +26,7 @@ import androidx.core.content.ContextCompat;
 
 import org.nuclearfog.apollo.R;
 import org.nuclearfog.apollo.cache.ImageFetcher;
+import org.nuclearfog.apollo.cache.ImageWorker.ArtworkSize;
 import org.nuclearfog.apollo.store.RecentStore;
 import org.nuclearfog.apollo.utils.ApolloUtils;
 import org.nuclearfog.apollo.utils.MusicUtils;
@@ -89,7 +90,7 @@ public class CarouselTab extends FrameLayoutWithOverlay {
 	 */
 	public void setArtistPhoto(String artist) {
 		if (!TextUtils.isEmpty(artist)) {
-			mFetcher.loadArtistImage(artist, mPhoto);
+			mFetcher.loadArtistImage(artist, ArtworkSize.FULL, mPhoto);
 		} else {
 			setDefault();
 		}
@@ -102,7 +103,7 @@ public class CarouselTab extends FrameLayoutWithOverlay {
 	 */
 	public void setAlbumPhoto(String album, String artist) {
 		if (!TextUtils.isEmpty(album)) {
-			mFetcher.loadAlbumImage(artist, album, MusicUtils.getIdForAlbum(getContext(), album, artist), mAlbumArt, mPhoto);
+			mFetcher.loadAlbumImage(artist, album, MusicUtils.getIdForAlbum(getContext(), album, artist), ArtworkSize.FULL, mAlbumArt, mPhoto);
 			mAlbumArt.setVisibility(View.VISIBLE);
 		} else {
 			setDefault();
@@ -118,7 +119,7 @@ public class CarouselTab extends FrameLayoutWithOverlay {
 		final String lastAlbum = RecentStore.getInstance(getContext()).getAlbumName(artist);
 		if (!TextUtils.isEmpty(lastAlbum)) {
 			// Set the last album the artist played
-			mFetcher.loadAlbumImage(artist, lastAlbum, MusicUtils.getIdForAlbum(getContext(), lastAlbum, artist), mPhoto);
+			mFetcher.loadAlbumImage(artist, lastAlbum, MusicUtils.getIdForAlbum(getContext(), lastAlbum, artist), ArtworkSize.FULL, mPhoto);
 		} else {
 			setDefault();
 		}
@@ -131,7 +132,7 @@ public class CarouselTab extends FrameLayoutWithOverlay {
 	 */
 	public void setPlaylistOrGenrePhoto(String profileName) {
 		if (!TextUtils.isEmpty(profileName)) {
-			Bitmap image = mFetcher.getCachedBitmap(profileName);
+			Bitmap image = mFetcher.getCachedBitmap(profileName, ArtworkSize.FULL);
 			if (image != null) {
 				mPhoto.setImageBitmap(image);
 			} else {
@@ -151,7 +152,7 @@ public class CarouselTab extends FrameLayoutWithOverlay {
 	public void fetchAlbumPhoto(String album, String artist) {
 		if (!TextUtils.isEmpty(album)) {
 			mFetcher.removeFromCache(ImageFetcher.generateAlbumCacheKey(album, artist));
-			mFetcher.loadAlbumImage(artist, album, -1L, mAlbumArt);
+			mFetcher.loadAlbumImage(artist, album, -1L, ArtworkSize.GRID, mAlbumArt);
 		} else {
 			setDefault();
 		}
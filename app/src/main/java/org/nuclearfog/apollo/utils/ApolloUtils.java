@@ -44,6 +44,7 @@ import org.nuclearfog.apollo.BuildConfig;
 import org.nuclearfog.apollo.R;
 import org.nuclearfog.apollo.cache.ImageCache;
 import org.nuclearfog.apollo.cache.ImageFetcher;
+import org.nuclearfog.apollo.cache.ImageWorker.ArtworkSize;
 import org.nuclearfog.apollo.ui.activities.ShortcutActivity;
 import org.nuclearfog.apollo.ui.appmsg.AppMsg;
 import org.nuclearfog.apollo.ui.dialogs.BatteryOptDialog;
@@ -173,9 +174,9 @@ public final class ApolloUtils {
 			Bitmap bitmap;
 			ImageFetcher fetcher = getImageFetcher(activity);
 			if (mimeType.equals(MediaStore.Audio.Albums.CONTENT_TYPE)) {
-				bitmap = fetcher.getCachedBitmap(ImageFetcher.generateAlbumCacheKey(displayName, artistName));
+				bitmap = fetcher.getCachedBitmap(ImageFetcher.generateAlbumCacheKey(displayName, artistName), ArtworkSize.NOTIFICATION);
 			} else {
-				bitmap = fetcher.getCachedBitmap(displayName);
+				bitmap = fetcher.getCachedBitmap(displayName, ArtworkSize.NOTIFICATION);
 			}
 			if (bitmap == null) {
 				bitmap = BitmapFactory.decodeResource(activity.getResources(), R.drawable.default_artwork);
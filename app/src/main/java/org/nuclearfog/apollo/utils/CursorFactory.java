@@ -77,7 +77,8 @@ public final class CursorFactory {
 			Media.ARTIST_ID,
 			Media.ALBUM_ID,
 			Media.DATA,
-			Media.MIME_TYPE
+			Media.MIME_TYPE,
+			Media.DATE_MODIFIED
 	};
 
 	/**
@@ -153,6 +154,14 @@ public final class CursorFactory {
 			Media._ID
 	};
 
+	/**
+	 * projection to check tracks for modifications
+	 */
+	private static final String[] TRACK_MODIFIED_COLUMNS = {
+			Media._ID,
+			Media.DATE_MODIFIED
+	};
+
 	/**
 	 * projection for external sd card IDs
 	 */
@@ -221,21 +230,6 @@ public final class CursorFactory {
 	 */
 	private static final String PLAYLIST_NAME_SELECT = Playlists.NAME + "=?";
 
-	/**
-	 * selection to find artist name matching search
-	 */
-	private static final String ARTIST_MATCH = Artists.ARTIST + " LIKE ?";
-
-	/**
-	 * selection to find album name matching search
-	 */
-	private static final String ALBUM_MATCH = Albums.ALBUM + " LIKE ?";
-
-	/**
-	 * selection to find track title matching search
-	 */
-	private static final String TRACK_MATCH = Media.TITLE + " LIKE ?";
-
 	/**
 	 * default order of playlist tracks
 	 */
@@ -309,51 +303,6 @@ public final class CursorFactory {
 		return resolver.query(Playlists.EXTERNAL_CONTENT_URI, PLAYLIST_COLUMNS, PLAYLIST_NAME_SELECT, args, null);
 	}
 
-	/**
-	 * create a cursor to search for tracks with fixed column order
-	 * {@link #TRACK_COLUMNS}
-	 *
-	 * @param search search string matching a name
-	 * @return cursor with track information matching the search string
-	 */
-	@Nullable
-	public static Cursor makeTrackSearchCursor(Context context, @NonNull String search) {
-		ContentResolver resolver = context.getContentResolver();
-
-		String[] args = {'%' + search + '%'};
-		return resolver.query(Media.EXTERNAL_CONTENT_URI, TRACK_COLUMNS, TRACK_MATCH, args, null);
-	}
-
-	/**
-	 * creates a cursor to search for albums with fixed column order
-	 * {@link #ALBUM_COLUMN}
-	 *
-	 * @param search search string matching a name
-	 * @return cursor with albums matching the search string
-	 */
-	@Nullable
-	public static Cursor makeAlbumSearchCursor(Context context, @NonNull String search) {
-		ContentResolver resolver = context.getContentResolver();
-
-		String[] args = {'%' + search + '%'};
-		return resolver.query(Albums.EXTERNAL_CONTENT_URI, ALBUM_COLUMN, ALBUM_MATCH, args, null);
-	}
-
-	/**
-	 * creates a cursor to search for artists with fixed column order
-	 * {@link #ARTIST_COLUMNS}
-	 *
-	 * @param search search string
-	 * @return cursor with artits matching the search string
-	 */
-	@Nullable
-	public static Cursor makeArtistSearchCursor(Context context, @NonNull String search) {
-		ContentResolver resolver = context.getContentResolver();
-
-		String[] args = {'%' + search + '%'};
-		return resolver.query(Artists.EXTERNAL_CONTENT_URI, ARTIST_COLUMNS, ARTIST_MATCH, args, null);
-	}
-
 	/**
 	 * create a cursor to get last added songs with fixed column order
 	 * {@link #TRACK_COLUMNS}
@@ -635,6 +584,20 @@ public final class CursorFactory {
 		return resolver.query(Media.EXTERNAL_CONTENT_URI, TRACK_COLUMNS, TRACK_FILTER_SELECT, null, sort);
 	}
 
+	/**
+	 * create a cursor with the IDs and modification dates of all tracks with fixed column order
+	 * {@link #TRACK_MODIFIED_COLUMNS}
+	 *
+	 * @return cursor sorted by the song sort order
+	 */
+	@Nullable
+	public static Cursor makeTrackModifiedCursor(Context context) {
+		ContentResolver resolver = context.getContentResolver();
+
+		String sort = PreferenceUtils.getInstance(context).getSongSortOrder();
+		return resolver.query(Media.EXTERNAL_CONTENT_URI, TRACK_MODIFIED_COLUMNS, TRACK_FILTER_SELECT, null, sort);
+	}
+
 	/**
 	 * creates a cursor to seach for track information with fixed columns
 	 * {@link #AUDIO_COLUMNS}
@@ -644,17 +607,26 @@ public final class CursorFactory {
 	 */
 	@Nullable
 	public static Cursor makeTrackListCursor(Context context, long[] trackIds) {
-		StringBuilder selection = new StringBuilder();
-		selection.append(Media._ID + " IN (");
-		for (int i = 0; i < trackIds.length; i++) {
-			selection.append(trackIds[i]);
-			if (i < trackIds.length - 1) {
-				selection.append(",");
-			}
-		}
-		selection.append(")");
+		String selection = makeTrackIdSelection(trackIds, 0, trackIds.length);
+		ContentResolver resolver = context.getContentResolver();
+		return resolver.query(Media.EXTERNAL_CONTENT_URI, AUDIO_COLUMNS, selection, null, null);
+	}
+
+	/**
+	 * creates a cursor to get track information of a range of track IDs with fixed column order
+	 * {@link #TRACK_COLUMNS}
+	 * the order of the rows does not match the order of the IDs
+	 *
+	 * @param trackIds array with track IDs
+	 * @param offset   index of the first track ID to use
+	 * @param count    number of track IDs to use
+	 * @return cursor using this {@link #TRACK_COLUMNS} projection
+	 */
+	@Nullable
+	public static Cursor makeTrackInfoCursor(Context context, long[] trackIds, int offset, int count) {
+		String selection = makeTrackIdSelection(trackIds, offset, count);
 		ContentResolver resolver = context.getContentResolver();
-		return resolver.query(Media.EXTERNAL_CONTENT_URI, AUDIO_COLUMNS, selection.toString(), null, null);
+		return resolver.query(Media.EXTERNAL_CONTENT_URI, TRACK_COLUMNS, selection, null, null);
 	}
 
 	/**
@@ -665,4 +637,25 @@ public final class CursorFactory {
 		ContentResolver resolver = context.getContentResolver();
 		return resolver.query(CARD_URI, CARD_COLUMNS, null, null, null);
 	}
+
+	/**
+	 * create a selection matching a range of track IDs
+	 *
+	 * @param trackIds array with track IDs
+	 * @param offset   index of the first track ID to use
+	 * @param count    number of track IDs to use
+	 * @return SQL selection string
+	 */
+	private static String makeTrackIdSelection(long[] trackIds, int offset, int count) {
+		StringBuilder selection = new StringBuilder(count * 8 + 12);
+		selection.append(Media._ID + " IN (");
+		for (int i = offset; i < offset + count; i++) {
+			selection.append(trackIds[i]);
+			if (i < offset + count - 1) {
+				selection.append(",");
+			}
+		}
+		selection.append(")");
+		return selection.toString();
+	}
 }
\ No newline at end of file
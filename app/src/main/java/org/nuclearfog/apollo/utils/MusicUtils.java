@@ -24,6 +24,7 @@ import android.database.Cursor;
 import android.media.RingtoneManager;
 import android.net.Uri;
 import android.os.Build;
+import android.os.ParcelFileDescriptor;
 import android.os.RemoteException;
 import android.provider.MediaStore;
 import android.provider.MediaStore.Audio.AudioColumns;
@@ -48,6 +49,7 @@ import org.nuclearfog.apollo.model.Album;
 import org.nuclearfog.apollo.model.Song;
 import org.nuclearfog.apollo.player.AudioEffects;
 import org.nuclearfog.apollo.service.MusicPlaybackService;
+import org.nuclearfog.apollo.service.QueueTransfer;
 import org.nuclearfog.apollo.store.FavoritesStore;
 import org.nuclearfog.apollo.ui.appmsg.AppMsg;
 import org.nuclearfog.apollo.ui.dialogs.DeleteTracksDialog;
@@ -119,6 +121,21 @@ public final class MusicUtils {
 	 */
 	private static WeakHashMap<Activity, ServiceBinder> mConnectionMap = new WeakHashMap<>(32);
 
+	/**
+	 * maximum number of track IDs of the queue transferred in a single Binder transaction
+	 */
+	private static final int QUEUE_PAGE_SIZE = 16384;
+
+	/**
+	 * last queue received from the service
+	 */
+	private static long[] queueCache = EMPTY_LIST;
+
+	/**
+	 * generation number of {@link #queueCache}
+	 */
+	private static long queueGeneration = 0;
+
 	private static int foregroundActivities = 0;
 
 
@@ -239,7 +256,7 @@ public final class MusicUtils {
 			try {
 				if (service.isPlaying()) {
 					service.pause(false);
-				} else if (service.getQueue().length > 0) {
+				} else if (service.getQueueSize() > 0) {
 					service.play();
 					int sessionId = service.getAudioSessionId();
 					AudioEffects.getInstance(activity, sessionId);
@@ -448,14 +465,55 @@ public final class MusicUtils {
 	}
 
 	/**
-	 * @return The queue.
+	 * get the number of tracks in the queue without transferring the queue
+	 *
+	 * @return queue size or 0 if the service is not available
+	 */
+	public static int getQueueSize(Activity activity) {
+		IApolloService service = getService(activity);
+		if (service != null) {
+			try {
+				return service.getQueueSize();
+			} catch (RemoteException err) {
+				if (BuildConfig.DEBUG) {
+					err.printStackTrace();
+				}
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @return a copy of the queue, the last queue is cached until the queue changes
 	 */
 	@NonNull
 	public static long[] getQueue(Activity activity) {
 		IApolloService service = getService(activity);
 		if (service != null) {
 			try {
-				return service.getQueue();
+				long generation = service.getQueueGeneration();
+				// use last queue if not changed
+				if (generation == queueGeneration) {
+					return queueCache.clone();
+				}
+				long[] queue;
+				if (service.getQueueSize() > QUEUE_PAGE_SIZE) {
+					long[] result = {generation};
+					queue = readQueue(service, result);
+					generation = result[0];
+				} else {
+					queue = service.getQueue();
+					// make sure generation number matches the queue
+					for (int retry = 0; retry < 3 && service.getQueueGeneration() != generation; retry++) {
+						generation = service.getQueueGeneration();
+						queue = service.getQueue();
+					}
+				}
+				if (queue != null) {
+					queueCache = queue;
+					queueGeneration = generation;
+					return queue.clone();
+				}
 			} catch (RemoteException err) {
 				if (BuildConfig.DEBUG) {
 					err.printStackTrace();
@@ -465,6 +523,56 @@ public final class MusicUtils {
 		return EMPTY_LIST;
 	}
 
+	/**
+	 * get generation number of the queue returned by the last call of {@link #getQueue(Activity)}
+	 *
+	 * @return generation number
+	 */
+	public static long getLastQueueGeneration() {
+		return queueGeneration;
+	}
+
+	/**
+	 * get the changes of the queue after a generation number
+	 *
+	 * @param generation generation number of the client copy of the queue
+	 * @return array with the current generation number followed by the changes, see {@link org.nuclearfog.apollo.service.PlayQueue}
+	 * or null if the queue must be reloaded
+	 */
+	@Nullable
+	public static long[] getQueueChanges(Activity activity, long generation) {
+		IApolloService service = getService(activity);
+		if (service != null) {
+			try {
+				return service.getQueueChanges(generation);
+			} catch (RemoteException err) {
+				if (BuildConfig.DEBUG) {
+					err.printStackTrace();
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * get generation number of the queue. The number changes every time the queue is modified
+	 *
+	 * @return generation number
+	 */
+	public static long getQueueGeneration(Activity activity) {
+		IApolloService service = getService(activity);
+		if (service != null) {
+			try {
+				return service.getQueueGeneration();
+			} catch (RemoteException err) {
+				if (BuildConfig.DEBUG) {
+					err.printStackTrace();
+				}
+			}
+		}
+		return 0;
+	}
+
 	/**
 	 * remove track from the current playlist
 	 *
@@ -1126,6 +1234,42 @@ public final class MusicUtils {
 		return ids;
 	}
 
+	/**
+	 * read a large queue from the service using a pipe, or in pages if not available
+	 *
+	 * @param generation array containing the generation number at index 0, updated with the generation of the result
+	 * @return queue or null if the queue could not be read
+	 */
+	@Nullable
+	private static long[] readQueue(IApolloService service, long[] generation) throws RemoteException {
+		ParcelFileDescriptor fd = service.getQueueStream();
+		if (fd != null) {
+			long[] queue = QueueTransfer.read(fd, generation);
+			if (queue != null) {
+				return queue;
+			}
+		}
+		// read queue in pages, try again if the queue changed while reading
+		for (int retry = 0; retry < 3; retry++) {
+			int size = service.getQueueSize();
+			long[] queue = new long[size];
+			int offset = 0;
+			while (offset < size) {
+				long[] page = service.getQueueRange(offset, QUEUE_PAGE_SIZE);
+				if (page.length == 0)
+					break;
+				System.arraycopy(page, 0, queue, offset, Math.min(page.length, size - offset));
+				offset += page.length;
+			}
+			long current = service.getQueueGeneration();
+			if (offset == size && current == generation[0]) {
+				return queue;
+			}
+			generation[0] = current;
+		}
+		return null;
+	}
+
 	/**
 	 * get service connected with a specific activity
 	 */
@@ -22,6 +22,7 @@ import org.nuclearfog.apollo.BuildConfig;
 import org.nuclearfog.apollo.R;
 import org.nuclearfog.apollo.service.MusicPlaybackService;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -330,17 +331,6 @@ public final class PreferenceUtils {
 		return defaultPref.getInt(POS_CURSOR, 0);
 	}
 
-	/**
-	 * set current ursor position
-	 *
-	 * @param position cursor position
-	 */
-	public void setCursorPosition(int position) {
-		SharedPreferences.Editor editor = defaultPref.edit();
-		editor.putInt(POS_CURSOR, position);
-		editor.apply();
-	}
-
 	/**
 	 * @return The sort order used for the song list in {@link org.nuclearfog.apollo.ui.fragments.SongFragment}
 	 */
@@ -366,17 +356,6 @@ public final class PreferenceUtils {
 		return defaultPref.getLong(POS_SEEK, 0L);
 	}
 
-	/**
-	 * set last seekbar position
-	 *
-	 * @param seekPos seekbar position
-	 */
-	public void setSeekPosition(long seekPos) {
-		SharedPreferences.Editor editor = defaultPref.edit();
-		editor.putLong(POS_SEEK, seekPos);
-		editor.apply();
-	}
-
 	/**
 	 * get status of the repeat mode
 	 *
@@ -405,7 +384,7 @@ public final class PreferenceUtils {
 		SharedPreferences.Editor editor = defaultPref.edit();
 		editor.putInt(MODE_REPEAT, repeatMode);
 		editor.putInt(MODE_SHUFFLE, shuffleMode);
-		editor.commit();
+		editor.apply();
 	}
 
 	/**
@@ -473,41 +452,25 @@ public final class PreferenceUtils {
 	 *
 	 * @return playlist
 	 */
-	public List<Long> getPlaylist() {
-		List<Long> playList = new LinkedList<>();
+	public long[] getPlaylist() {
 		String trackQueue = defaultPref.getString(QUEUE, "");
 		if (!trackQueue.isEmpty()) {
 			String[] items = trackQueue.split(";");
+			long[] playList = new long[items.length];
+			int count = 0;
 			for (String item : items) {
 				try {
-					long trackId = Long.parseLong(item, 16);
-					playList.add(trackId);
+					playList[count] = Long.parseLong(item, 16);
+					count++;
 				} catch (NumberFormatException exception) {
 					if (BuildConfig.DEBUG) {
 						Log.w(TAG, "bad playlist id: " + item);
 					}
 				}
 			}
+			return Arrays.copyOf(playList, count);
 		}
-		return playList;
-	}
-
-	/**
-	 * save current playlist
-	 *
-	 * @param playlist list of tracks
-	 * @param cardId   list id
-	 */
-	public void setPlayList(List<Long> playlist, int cardId) {
-		SharedPreferences.Editor editor = defaultPref.edit();
-		StringBuilder buffer = new StringBuilder();
-		for (long n : playlist) {
-			buffer.append(Long.toHexString(n));
-			buffer.append(";");
-		}
-		editor.putString(QUEUE, buffer.toString());
-		editor.putInt(ID_CARD, cardId);
-		editor.apply();
+		return new long[0];
 	}
 
 	/**
@@ -535,18 +498,15 @@ public final class PreferenceUtils {
 	}
 
 	/**
-	 * set track history
-	 *
-	 * @param history list of track history
+	 * remove queue, track history and positions saved by older versions
 	 */
-	public void setTrackHistory(List<Integer> history) {
+	public void removeQueue() {
 		SharedPreferences.Editor editor = defaultPref.edit();
-		StringBuilder buffer = new StringBuilder();
-		for (long n : history) {
-			buffer.append(Long.toHexString(n));
-			buffer.append(";");
-		}
-		editor.putString(HISTORY, buffer.toString());
+		editor.remove(QUEUE);
+		editor.remove(HISTORY);
+		editor.remove(POS_CURSOR);
+		editor.remove(POS_SEEK);
+		editor.remove(ID_CARD);
 		editor.apply();
 	}
 
@@ -35,87 +35,37 @@ public class PrefixHighlighter {
 	}
 
 	/**
-	 * Sets the text on the given {@link TextView}, highlighting the word that
-	 * matches the given prefix.
+	 * Sets the text on the given {@link TextView}, highlighting the word prefix at the given position.
 	 *
 	 * @param view   The {@link TextView} on which to set the text
 	 * @param text   The string to use as the text
-	 * @param prefix The prefix to look for
+	 * @param start  position of the prefix in the text
+	 * @param length length of the prefix
 	 */
-	public void setText(TextView view, String text, char[] prefix) {
-		if (view == null || TextUtils.isEmpty(text) || prefix == null || prefix.length == 0) {
+	public void setText(TextView view, String text, int start, int length) {
+		if (view == null || TextUtils.isEmpty(text) || length <= 0) {
 			return;
 		}
-		view.setText(apply(text, prefix));
+		view.setText(apply(text, start, length));
 	}
 
 	/**
-	 * Returns a {@link CharSequence} which highlights the given prefix if found
-	 * in the given text.
+	 * Returns a {@link CharSequence} which highlights the prefix at the given position.
 	 *
 	 * @param text   the text to which to apply the highlight
-	 * @param prefix the prefix to look for
+	 * @param start  position of the prefix in the text
+	 * @param length length of the prefix
 	 */
-	public CharSequence apply(CharSequence text, char[] prefix) {
-		int mIndex = indexOfWordPrefix(text, prefix);
-		if (mIndex != -1) {
+	public CharSequence apply(CharSequence text, int start, int length) {
+		if (start >= 0 && start < text.length()) {
 			if (mPrefixColorSpan == null) {
 				mPrefixColorSpan = new ForegroundColorSpan(mPrefixHighlightColor);
 			}
 			SpannableString mResult = new SpannableString(text);
-			mResult.setSpan(mPrefixColorSpan, mIndex, mIndex + prefix.length, 0);
+			mResult.setSpan(mPrefixColorSpan, start, Math.min(start + length, text.length()), 0);
 			return mResult;
 		} else {
 			return text;
 		}
 	}
-
-	/**
-	 * Finds the index of the first word that starts with the given prefix. If
-	 * not found, returns -1.
-	 *
-	 * @param text   the text in which to search for the prefix
-	 * @param prefix the text to find, in upper case letters
-	 */
-	private int indexOfWordPrefix(CharSequence text, char[] prefix) {
-		if (TextUtils.isEmpty(text) || prefix == null) {
-			return -1;
-		}
-
-		int mTextLength = text.length();
-		int mPrefixLength = prefix.length;
-
-		if (mPrefixLength == 0 || mTextLength < mPrefixLength) {
-			return -1;
-		}
-
-		int i = 0;
-		while (i < mTextLength) {
-			/* Skip non-word characters */
-			while (i < mTextLength && !Character.isLetterOrDigit(text.charAt(i))) {
-				i++;
-			}
-
-			if (i + mPrefixLength > mTextLength) {
-				return -1;
-			}
-
-			/* Compare the prefixes */
-			int j;
-			for (j = 0; j < mPrefixLength; j++) {
-				if (Character.toUpperCase(text.charAt(i + j)) != prefix[j]) {
-					break;
-				}
-			}
-			if (j == mPrefixLength) {
-				return i;
-			}
-
-			/* Skip this word */
-			while (i < mTextLength && Character.isLetterOrDigit(text.charAt(i))) {
-				i++;
-			}
-		}
-		return -1;
-	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,180 @@
+package org.nuclearfog.apollo.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of the enqueue, move and remove operations of {@link PlayQueue}
+ *
+ * @author nuclearfog
+ */
+public class PlayQueueTest {
+
+	/**
+	 * create a queue with the given track IDs
+	 */
+	private static PlayQueue createQueue(long... ids) {
+		PlayQueue queue = new PlayQueue();
+		queue.setAll(ids);
+		return queue;
+	}
+
+
+	@Test
+	public void addAtPlayPosition() {
+		PlayQueue queue = createQueue(1, 2, 3);
+		// play next
+		queue.add(1, 9);
+		assertArrayEquals(new long[]{1, 9, 2, 3}, queue.toArray());
+		queue.add(4);
+		assertArrayEquals(new long[]{1, 9, 2, 3, 4}, queue.toArray());
+		assertEquals(5, queue.size());
+	}
+
+	@Test
+	public void addAllAtPlayPosition() {
+		PlayQueue queue = createQueue(1, 2, 3);
+		queue.addAll(1, new long[]{7, 8});
+		assertArrayEquals(new long[]{1, 7, 8, 2, 3}, queue.toArray());
+		// insert more tracks than the initial capacity
+		long[] ids = new long[40];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = 100 + i;
+		}
+		queue.addAll(2, ids);
+		assertEquals(45, queue.size());
+		assertEquals(1, queue.get(0));
+		assertEquals(7, queue.get(1));
+		assertEquals(100, queue.get(2));
+		assertEquals(139, queue.get(41));
+		assertEquals(8, queue.get(42));
+		assertEquals(3, queue.get(44));
+	}
+
+	@Test
+	public void moveForward() {
+		PlayQueue queue = createQueue(1, 2, 3, 4, 5);
+		// place the gap in front of the moved track
+		queue.add(0, 0);
+		queue.remove(0);
+		queue.move(1, 4);
+		assertArrayEquals(new long[]{1, 3, 4, 5, 2}, queue.toArray());
+		queue.move(0, 2);
+		assertArrayEquals(new long[]{3, 4, 1, 5, 2}, queue.toArray());
+	}
+
+	@Test
+	public void moveBackward() {
+		PlayQueue queue = createQueue(1, 2, 3, 4, 5);
+		// place the gap behind the moved track
+		queue.add(5, 6);
+		queue.move(4, 0);
+		assertArrayEquals(new long[]{5, 1, 2, 3, 4, 6}, queue.toArray());
+		queue.move(5, 2);
+		assertArrayEquals(new long[]{5, 1, 6, 2, 3, 4}, queue.toArray());
+	}
+
+	@Test
+	public void remove() {
+		PlayQueue queue = createQueue(1, 2, 3, 2);
+		assertEquals(2, queue.remove(3));
+		assertEquals(2, queue.remove(1));
+		assertArrayEquals(new long[]{1, 3}, queue.toArray());
+		assertEquals(-1, queue.indexOf(2));
+	}
+
+	@Test
+	public void removeRange() {
+		PlayQueue queue = createQueue(1, 2, 3, 4, 5);
+		long generation = queue.getGeneration();
+		queue.removeRange(0, 3);
+		assertArrayEquals(new long[]{4, 5}, queue.toArray());
+		queue.removeRange(1, 0);
+		assertArrayEquals(new long[]{queue.getGeneration(), PlayQueue.CHANGE_REMOVE, 0, 3}, queue.getChanges(generation));
+	}
+
+	@Test
+	public void removeAllDuplicates() {
+		PlayQueue queue = createQueue(1, 2, 3, 2, 4, 2);
+		// play position is behind one removed track
+		int position = queue.removeAll(new long[]{2}, 2);
+		assertArrayEquals(new long[]{1, 3, 4}, queue.toArray());
+		assertEquals(1, position);
+	}
+
+	@Test
+	public void removeAllAtPlayPosition() {
+		PlayQueue queue = createQueue(1, 2, 3, 2, 4);
+		// the current track is removed, the next remaining track is played
+		int position = queue.removeAll(new long[]{2, 5}, 3);
+		assertArrayEquals(new long[]{1, 3, 4}, queue.toArray());
+		assertEquals(2, position);
+		// play position in front of the removed tracks
+		position = queue.removeAll(new long[]{4}, 0);
+		assertArrayEquals(new long[]{1, 3}, queue.toArray());
+		assertEquals(0, position);
+	}
+
+	@Test
+	public void getChanges() {
+		PlayQueue queue = createQueue(1, 2, 3);
+		long generation = queue.getGeneration();
+		queue.add(1, 9);
+		queue.remove(0);
+		queue.move(0, 2);
+		long[] changes = queue.getChanges(generation);
+		assertNotNull(changes);
+		long[] expected = {
+				queue.getGeneration(),
+				PlayQueue.CHANGE_INSERT, 1, 1, 9,
+				PlayQueue.CHANGE_REMOVE, 0, 1,
+				PlayQueue.CHANGE_MOVE, 0, 2
+		};
+		assertArrayEquals(expected, changes);
+		assertEquals(generation + 3, queue.getGeneration());
+		// no changes since the current generation
+		assertArrayEquals(new long[]{queue.getGeneration()}, queue.getChanges(queue.getGeneration()));
+	}
+
+	@Test
+	public void getChangesOfRemoveAll() {
+		PlayQueue queue = createQueue(1, 2, 2, 3, 2);
+		long generation = queue.getGeneration();
+		queue.removeAll(new long[]{2}, 0);
+		long[] expected = {
+				queue.getGeneration(),
+				PlayQueue.CHANGE_REMOVE, 1, 2,
+				PlayQueue.CHANGE_REMOVE, 2, 1
+		};
+		assertArrayEquals(expected, queue.getChanges(generation));
+	}
+
+	@Test
+	public void getChangesAfterReset() {
+		PlayQueue queue = createQueue(1, 2, 3);
+		long generation = queue.getGeneration();
+		queue.setAll(new long[]{4, 5});
+		assertNull(queue.getChanges(generation));
+		generation = queue.getGeneration();
+		queue.clear();
+		assertNull(queue.getChanges(generation));
+		// generation of a future version
+		assertNull(queue.getChanges(queue.getGeneration() + 1));
+	}
+
+	@Test
+	public void toArrayRange() {
+		PlayQueue queue = createQueue(1, 2, 3, 4, 5);
+		// move the gap into the range
+		queue.add(2, 9);
+		assertArrayEquals(new long[]{2, 9, 3}, queue.toArray(1, 3));
+		assertArrayEquals(new long[]{4, 5}, queue.toArray(4, 10));
+		assertArrayEquals(new long[0], queue.toArray(6, 1));
+		assertArrayEquals(new long[0], queue.toArray(-1, 2));
+		assertArrayEquals(new long[0], queue.toArray(0, 0));
+	}
+}